@@ -97,6 +97,21 @@ public class FileUtils {
         return roots;
     }
 
+    /**
+     * Returns true if the given path is a strict ancestor of any of the given paths.
+     * <p>
+     * This method does not access the file system. The paths are expected to be absolute.
+     */
+    public static boolean isAncestorOfAny(String path, Iterable<String> paths) {
+        for (String candidate : paths) {
+            if (candidate.length() > path.length() && candidate.startsWith(path)
+                && (path.endsWith(File.separator) || candidate.charAt(path.length()) == File.separatorChar)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Checks if the given file path ends with the given extension.
      * @param file the file
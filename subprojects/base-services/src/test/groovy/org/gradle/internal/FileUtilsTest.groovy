@@ -23,6 +23,7 @@ import spock.lang.Specification
 import static FileUtils.assertInWindowsPathLengthLimitation
 import static FileUtils.toSafeFileName
 import static org.gradle.internal.FileUtils.calculateRoots
+import static org.gradle.internal.FileUtils.isAncestorOfAny
 
 class FileUtilsTest extends Specification {
 
@@ -73,4 +74,23 @@ class FileUtilsTest extends Specification {
         toRoots(files("a/a/a/a/a/a/a/a/a", "a/b", "b/a/a/a/a/a/a/a/a/a/a/a", "b/a/a/a/a")) == files("a/a/a/a/a/a/a/a/a", "a/b", "b/a/a/a/a")
     }
 
+    def "can tell whether a path is an ancestor of any of the given paths"() {
+        expect:
+        isAncestorOfAny(path("a"), paths("a/b"))
+        isAncestorOfAny(path("a"), paths("c", "a/b/c"))
+        isAncestorOfAny(path("") + File.separator, paths("a"))
+        !isAncestorOfAny(path("a"), paths("a"))
+        !isAncestorOfAny(path("a"), paths("ab/c"))
+        !isAncestorOfAny(path("a/b"), paths("a"))
+        !isAncestorOfAny(path("a"), [])
+    }
+
+    String path(String path) {
+        new File("/", path).absolutePath
+    }
+
+    List<String> paths(String... paths) {
+        paths.collect { path(it) }
+    }
+
 }
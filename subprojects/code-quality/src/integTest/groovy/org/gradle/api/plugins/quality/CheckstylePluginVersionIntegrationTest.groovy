@@ -22,6 +22,7 @@ import org.gradle.integtests.fixtures.TargetCoverage
 import org.gradle.integtests.fixtures.executer.GradleContextualExecuter
 import org.gradle.quality.integtest.fixtures.CheckstyleCoverage
 import org.gradle.util.Resources
+import org.gradle.util.VersionNumber
 import org.hamcrest.Matcher
 import org.junit.Rule
 import spock.lang.IgnoreIf
@@ -31,6 +32,7 @@ import static org.gradle.util.Matchers.containsLine
 import static org.gradle.util.TextUtil.normaliseFileSeparators
 import static org.hamcrest.Matchers.containsString
 import static org.hamcrest.Matchers.startsWith
+import static org.junit.Assume.assumeTrue
 
 @TargetCoverage({ CheckstyleCoverage.getSupportedVersionsByJdk() })
 class CheckstylePluginVersionIntegrationTest extends MultiVersionIntegrationSpec {
@@ -185,6 +187,35 @@ class CheckstylePluginVersionIntegrationTest extends MultiVersionIntegrationSpec
         succeeds("checkstyleMain") && ":checkstyleMain" in nonSkippedTasks
     }
 
+    def "only checks files that changed or had violations when the task runs again"() {
+        assumeTrue(versionNumber >= VersionNumber.parse("6.16"))
+        goodCode()
+        file("src/main/java/org/gradle/class3.java") << "package org.gradle; class class3 { }"
+        buildFile << """
+            checkstyle {
+                ignoreFailures = true
+            }
+        """
+
+        when:
+        succeeds("checkstyleMain")
+
+        then:
+        file("build/tmp/checkstyleMain/checkstyle.cache").exists()
+        file("build/reports/checkstyle/main.xml").assertContents(containsClass("org.gradle.Class1"))
+        file("build/reports/checkstyle/main.xml").assertContents(containsClass("org.gradle.Class2"))
+        file("build/reports/checkstyle/main.xml").assertContents(containsClass("org.gradle.class3"))
+
+        when:
+        file("src/main/java/org/gradle/Class1.java").text = "package org.gradle; class Class1 { int field; }"
+        succeeds("checkstyleMain")
+
+        then:
+        file("build/reports/checkstyle/main.xml").assertContents(containsClass("org.gradle.Class1"))
+        !file("build/reports/checkstyle/main.xml").text.contains("org.gradle.Class2".replace(".", File.separator))
+        file("build/reports/checkstyle/main.xml").assertContents(containsClass("org.gradle.class3"))
+    }
+
     def "can configure reporting"() {
         given:
         goodCode()
@@ -199,6 +199,71 @@ class PmdPluginVersionIntegrationTest extends AbstractPmdPluginVersionIntegratio
         output.contains "\tEnsure you override both equals() and hashCode()"
     }
 
+    def "reports violations of unchanged files when using incremental analysis"() {
+        assumeTrue(versionNumber >= VersionNumber.parse("5.6.0"))
+        badCode()
+        buildFile << """
+            pmd {
+                ignoreFailures = true
+            }
+        """
+
+        when:
+        succeeds("pmdTest")
+
+        then:
+        file("build/tmp/pmdTest/incremental.cache").exists()
+        file("build/reports/pmd/test.xml").assertContents(containsClass("org.gradle.Class1Test"))
+
+        when:
+        file("src/test/java/org/gradle/Class2Test.java") << "package org.gradle; class Class2Test { }"
+        succeeds("pmdTest")
+
+        then:
+        output.contains("2 PMD rule violations were found. See the report at:")
+        file("build/reports/pmd/test.xml").assertContents(containsClass("org.gradle.Class1Test"))
+    }
+
+    def "can run several Pmd tasks in parallel"() {
+        def projects = ["a", "b", "c"]
+        settingsFile << "include ${projects.collect { "'$it'" }.join(", ")}"
+        buildFile << """
+            subprojects {
+                apply plugin: "java"
+                apply plugin: "pmd"
+
+                repositories {
+                    mavenCentral()
+                }
+
+                pmd {
+                    toolVersion = '$version'
+                    ignoreFailures = true
+                }
+
+                ${fileLockingIssuesSolved() ? "" : """
+                tasks.withType(Pmd) {
+                    classpath = files()
+                }"""}
+
+                ${!TestPrecondition.FIX_TO_WORK_ON_JAVA9.fulfilled ? "sourceCompatibility = 1.6" : ""}
+            }
+        """.stripIndent()
+        projects.each { project ->
+            badCode(project)
+        }
+
+        when:
+        executer.withArgument("--parallel")
+        succeeds("check")
+
+        then:
+        projects.each { project ->
+            file("$project/build/reports/pmd/main.xml").assertContents(not(containsClass("org.gradle.Class1")))
+            file("$project/build/reports/pmd/test.xml").assertContents(containsClass("org.gradle.Class1Test"))
+        }
+    }
+
     private static Matcher<String> containsClass(String className) {
         containsLine(containsString(className.replace(".", File.separator)))
     }
@@ -210,13 +275,13 @@ class PmdPluginVersionIntegrationTest extends AbstractPmdPluginVersionIntegratio
             "package org.gradle; class Class1Test { public boolean isFoo(Object arg) { return true; } }"
     }
 
-    private badCode() {
+    private badCode(String projectDir = ".") {
         // No Warnings
-        file("src/main/java/org/gradle/Class1.java") <<
+        file("$projectDir/src/main/java/org/gradle/Class1.java") <<
             "package org.gradle; class Class1 { public boolean isFoo(Object arg) { return true; } }"
         // PMD Lvl 2 Warning BooleanInstantiation
         // PMD Lvl 3 Warning OverrideBothEqualsAndHashcode
-        file("src/test/java/org/gradle/Class1Test.java") <<
+        file("$projectDir/src/test/java/org/gradle/Class1Test.java") <<
             "package org.gradle; class Class1Test { public boolean equals(Object arg) { return java.lang.Boolean.valueOf(true); } }"
     }
 
@@ -51,6 +51,10 @@ import java.util.Map;
 
 /**
  * Runs Checkstyle against some source files.
+ *
+ * <p>With Checkstyle 6.16 and later, the {@code cacheFile} property of the {@code Checker} module defaults to a file in the task's temporary directory,
+ * unless the configuration sets it. Checkstyle then only checks the files that changed, or that had violations, since the last run, and leaves the
+ * other files out of the reports.</p>
  */
 @CacheableTask
 public class Checkstyle extends SourceTask implements VerificationTask, Reporting<CheckstyleReports> {
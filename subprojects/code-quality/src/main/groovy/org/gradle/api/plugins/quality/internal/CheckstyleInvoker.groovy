@@ -23,10 +23,20 @@ import org.gradle.api.plugins.quality.CheckstyleReports
 import org.gradle.internal.logging.ConsoleRenderer
 import org.gradle.util.GFileUtils
 import org.gradle.util.SingleMessageLogger
+import org.gradle.util.VersionNumber
+import org.w3c.dom.Document
+import org.w3c.dom.Element
+
+import javax.xml.parsers.DocumentBuilderFactory
+import javax.xml.transform.OutputKeys
+import javax.xml.transform.TransformerFactory
+import javax.xml.transform.dom.DOMSource
+import javax.xml.transform.stream.StreamResult
 
 abstract class CheckstyleInvoker {
     private final static String FAILURE_PROPERTY_NAME = 'org.gradle.checkstyle.violations'
     private final static String CONFIG_LOC_PROPERTY = "config_loc"
+    private final static VersionNumber CHECKER_CACHE_FILE_VERSION = VersionNumber.parse("6.16")
 
     static void invoke(Checkstyle checkstyleTask) {
         def antBuilder = checkstyleTask.antBuilder
@@ -43,9 +53,15 @@ abstract class CheckstyleInvoker {
         def config = checkstyleTask.config
         def configDir = checkstyleTask.configDir
         def xmlDestination = reports.xml.destination
+        def temporaryDir = checkstyleTask.temporaryDir
+        def configFile = config.asFile()
+
+        if (determineCheckstyleVersion(checkstyleClasspath) >= CHECKER_CACHE_FILE_VERSION) {
+            configFile = configWithCacheFile(configFile, new File(temporaryDir, "checkstyle.cache"), temporaryDir)
+        }
 
         if (isHtmlReportEnabledOnly(reports)) {
-            xmlDestination = new File(checkstyleTask.temporaryDir, reports.xml.destination.name)
+            xmlDestination = new File(temporaryDir, reports.xml.destination.name)
         }
 
         antBuilder.withClasspath(checkstyleClasspath).execute {
@@ -55,7 +71,7 @@ abstract class CheckstyleInvoker {
                 ant.taskdef(name: 'checkstyle', classname: 'com.puppycrawl.tools.checkstyle.ant.CheckstyleAntTask')
             }
 
-            ant.checkstyle(config: config.asFile(), failOnViolation: false,
+            ant.checkstyle(config: configFile, failOnViolation: false,
                     maxErrors: maxErrors, maxWarnings: maxWarnings, failureProperty: FAILURE_PROPERTY_NAME) {
 
                 source.addToAntBuilder(ant, 'fileset', FileCollection.AntType.FileSet)
@@ -117,4 +133,59 @@ abstract class CheckstyleInvoker {
     private static boolean isHtmlReportEnabledOnly(CheckstyleReports reports) {
         return !reports.xml.enabled && reports.html.enabled
     }
+
+    /**
+     * Returns a copy of the configuration that sets the cacheFile property of the Checker module, so that Checkstyle only checks the files
+     * that changed or had violations since the last run. The configuration is used as is when it sets the cache file itself, or cannot be read.
+     */
+    private static File configWithCacheFile(File configFile, File cacheFile, File temporaryDir) {
+        def factory = DocumentBuilderFactory.newInstance()
+        factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false)
+        Document document
+        try {
+            document = factory.newDocumentBuilder().parse(configFile)
+        } catch (Exception ignored) {
+            // Let Checkstyle report the problem with the configuration
+            return configFile
+        }
+
+        def checker = document.documentElement
+        if (checker.getAttribute("name") != "Checker") {
+            return configFile
+        }
+        def children = checker.childNodes
+        for (int i = 0; i < children.length; i++) {
+            def child = children.item(i)
+            if (child instanceof Element && child.tagName == "property" && child.getAttribute("name") == "cacheFile") {
+                return configFile
+            }
+        }
+
+        def cacheFileProperty = document.createElement("property")
+        cacheFileProperty.setAttribute("name", "cacheFile")
+        cacheFileProperty.setAttribute("value", cacheFile.absolutePath)
+        checker.insertBefore(cacheFileProperty, checker.firstChild)
+
+        def transformer = TransformerFactory.newInstance().newTransformer()
+        def doctype = document.doctype
+        if (doctype?.publicId) {
+            transformer.setOutputProperty(OutputKeys.DOCTYPE_PUBLIC, doctype.publicId)
+        }
+        if (doctype?.systemId) {
+            transformer.setOutputProperty(OutputKeys.DOCTYPE_SYSTEM, doctype.systemId)
+        }
+        def cachingConfigFile = new File(temporaryDir, "checkstyle-config.xml")
+        transformer.transform(new DOMSource(document), new StreamResult(cachingConfigFile))
+        return cachingConfigFile
+    }
+
+    private static VersionNumber determineCheckstyleVersion(FileCollection checkstyleClasspath) {
+        for (File file : checkstyleClasspath) {
+            def matcher = file.name =~ /checkstyle-([0-9][0-9\.]*)(-all)?\.jar/
+            if (matcher.matches()) {
+                return VersionNumber.parse(matcher.group(1))
+            }
+        }
+        return VersionNumber.UNKNOWN
+    }
 }
@@ -20,8 +20,11 @@ import org.gradle.api.GradleException
 import org.gradle.api.file.FileCollection
 import org.gradle.api.plugins.quality.Pmd
 import org.gradle.internal.logging.ConsoleRenderer
+import org.gradle.util.VersionNumber
 
 abstract class PmdInvoker {
+    private final static VersionNumber INCREMENTAL_ANALYSIS_VERSION = VersionNumber.parse("5.6.0")
+
     static void invoke(Pmd pmdTask) {
         def pmdClasspath = pmdTask.pmdClasspath
         def targetJdk = pmdTask.targetJdk
@@ -37,6 +40,7 @@ abstract class PmdInvoker {
         def stdOutIsAttachedToTerminal = pmdTask.stdOutIsAttachedToTerminal()
         def ignoreFailures = pmdTask.ignoreFailures
         def logger = pmdTask.logger
+        def incrementalAnalysisCache = new File(pmdTask.temporaryDir, "incremental.cache")
 
         def prePmd5 = pmdClasspath.any {
             it.name ==~ /pmd-([1-4]\.[0-9\.]+)\.jar/
@@ -57,6 +61,12 @@ abstract class PmdInvoker {
 
         antPmdArgs["minimumPriority"] = rulePriority
 
+        if (determinePmdVersion(pmdClasspath) >= INCREMENTAL_ANALYSIS_VERSION) {
+            // The cache holds the violations of each file, keyed by the checksum of the file and of the rule sets and auxclasspath,
+            // so that only the files that changed are analysed again
+            antPmdArgs["cacheLocation"] = incrementalAnalysisCache
+        }
+
         antBuilder.withClasspath(pmdClasspath).execute { a ->
             ant.taskdef(name: 'pmd', classname: 'net.sourceforge.pmd.ant.PMDTask')
             ant.pmd(antPmdArgs) {
@@ -108,4 +118,14 @@ abstract class PmdInvoker {
             }
         }
     }
+
+    private static VersionNumber determinePmdVersion(FileCollection pmdClasspath) {
+        for (File file : pmdClasspath) {
+            def matcher = file.name =~ /pmd(-core)?-([0-9][0-9\.]*)\.jar/
+            if (matcher.matches()) {
+                return VersionNumber.parse(matcher.group(2))
+            }
+        }
+        return VersionNumber.UNKNOWN
+    }
 }
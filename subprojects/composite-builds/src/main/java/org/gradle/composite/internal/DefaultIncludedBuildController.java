@@ -147,6 +147,9 @@ class DefaultIncludedBuildController implements Runnable, Stoppable, IncludedBui
         lock.lock();
         try {
             TaskState taskState = tasks.get(task);
+            if (taskState == null || taskState.status == TaskStatus.SUCCESS || taskState.status == TaskStatus.FAILED) {
+                return;
+            }
             taskState.status = failure == null ? TaskStatus.SUCCESS : TaskStatus.FAILED;
             taskState.failure = failure;
             taskCompleted.signalAll();
@@ -257,11 +260,9 @@ class DefaultIncludedBuildController implements Runnable, Stoppable, IncludedBui
         private class TaskCompletionRecorder extends TaskExecutionAdapter {
             @Override
             public void afterExecute(Task task, org.gradle.api.tasks.TaskState state) {
-                String taskPath = task.getPath();
-                if (tasksToExecute.contains(taskPath)) {
-                    Throwable failure = state.getFailure();
-                    taskCompleted(taskPath, failure);
-                }
+                // Also record the tasks that were queued after this build started, so that they complete
+                // as soon as this build executes them, rather than waiting for another build to run them
+                taskCompleted(task.getPath(), state.getFailure());
             }
         }
     }
@@ -23,20 +23,24 @@ import org.gradle.includedbuild.internal.IncludedBuildController;
 import org.gradle.includedbuild.internal.IncludedBuildControllers;
 import org.gradle.includedbuild.internal.IncludedBuilds;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
 import org.gradle.internal.concurrent.Stoppable;
 
 import java.util.Map;
 
 class DefaultIncludedBuildControllers implements Stoppable, IncludedBuildControllers {
     private final Map<BuildIdentifier, IncludedBuildController> buildControllers = Maps.newHashMap();
+    private final ManagedExecutor executorService;
     private final IncludedBuilds includedBuilds;
     private boolean taskExecutionStarted;
 
-    DefaultIncludedBuildControllers(IncludedBuilds includedBuilds) {
+    DefaultIncludedBuildControllers(ExecutorFactory executorFactory, IncludedBuilds includedBuilds) {
+        this.executorService = executorFactory.create("included builds");
         this.includedBuilds = includedBuilds;
     }
 
-    public IncludedBuildController getBuildController(BuildIdentifier buildId) {
+    public synchronized IncludedBuildController getBuildController(BuildIdentifier buildId) {
         IncludedBuildController buildController = buildControllers.get(buildId);
         if (buildController != null) {
             return buildController;
@@ -46,8 +50,7 @@ class DefaultIncludedBuildControllers implements Stoppable, IncludedBuildControl
         DefaultIncludedBuildController newBuildController = new DefaultIncludedBuildController(build);
         buildControllers.put(buildId, newBuildController);
 
-        // TODO:DAZ Do this properly
-        new Thread(newBuildController).start();
+        executorService.submit(newBuildController);
 
         // Required for build controllers created after initial start
         if (taskExecutionStarted) {
@@ -58,7 +61,7 @@ class DefaultIncludedBuildControllers implements Stoppable, IncludedBuildControl
     }
 
     @Override
-    public void startTaskExecution() {
+    public synchronized void startTaskExecution() {
         for (IncludedBuildController buildController : buildControllers.values()) {
             buildController.startTaskExecution();
         }
@@ -66,7 +69,7 @@ class DefaultIncludedBuildControllers implements Stoppable, IncludedBuildControl
     }
 
     @Override
-    public void stop() {
-        CompositeStoppable.stoppable(buildControllers.values()).stop();
+    public synchronized void stop() {
+        CompositeStoppable.stoppable(buildControllers.values()).add(executorService).stop();
     }
 }
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.composite.internal
+
+import org.gradle.BuildListener
+import org.gradle.BuildResult
+import org.gradle.api.Task
+import org.gradle.api.execution.TaskExecutionGraph
+import org.gradle.api.execution.TaskExecutionGraphListener
+import org.gradle.api.execution.TaskExecutionListener
+import org.gradle.api.tasks.TaskState
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.util.concurrent.CountDownLatch
+
+@Timeout(60)
+class DefaultIncludedBuildControllerTest extends Specification {
+    def includedBuild = Mock(IncludedBuildInternal)
+    def controller = new DefaultIncludedBuildController(includedBuild)
+
+    def setup() {
+        _ * includedBuild.name >> "included"
+        new Thread(controller).start()
+    }
+
+    def cleanup() {
+        controller.stop()
+    }
+
+    def "executes queued tasks once task execution has started"() {
+        when:
+        controller.queueForExecution(":a")
+        controller.queueForExecution(":b")
+        controller.startTaskExecution()
+        controller.awaitCompletion(":a")
+        controller.awaitCompletion(":b")
+
+        then:
+        1 * includedBuild.execute([":a", ":b"] as Set, _) >> { Iterable<String> tasks, Object listener ->
+            runBuild(listener, [":a", ":b"])
+        }
+        0 * includedBuild.execute(_, _)
+
+        and:
+        controller.isComplete(":a")
+        controller.isComplete(":b")
+    }
+
+    def "completes a task queued while the build is running as soon as the running build executes it"() {
+        def buildStarted = new CountDownLatch(1)
+        def taskQueued = new CountDownLatch(1)
+
+        when:
+        controller.queueForExecution(":a")
+        controller.startTaskExecution()
+        buildStarted.await()
+        controller.queueForExecution(":b")
+        taskQueued.countDown()
+        controller.awaitCompletion(":b")
+        controller.awaitCompletion(":a")
+
+        then:
+        1 * includedBuild.execute([":a"] as Set, _) >> { Iterable<String> tasks, Object listener ->
+            buildStarted.countDown()
+            taskQueued.await()
+            runBuild(listener, [":b", ":a"])
+        }
+        0 * includedBuild.execute(_, _)
+    }
+
+    def "runs a task queued while the build is running in another build when the running build does not execute it"() {
+        def buildStarted = new CountDownLatch(1)
+        def taskQueued = new CountDownLatch(1)
+
+        when:
+        controller.queueForExecution(":a")
+        controller.startTaskExecution()
+        buildStarted.await()
+        controller.queueForExecution(":b")
+        taskQueued.countDown()
+        controller.awaitCompletion(":a")
+        controller.awaitCompletion(":b")
+
+        then:
+        1 * includedBuild.execute([":a"] as Set, _) >> { Iterable<String> tasks, Object listener ->
+            buildStarted.countDown()
+            taskQueued.await()
+            runBuild(listener, [":a"])
+        }
+
+        then:
+        1 * includedBuild.execute([":b"] as Set, _) >> { Iterable<String> tasks, Object listener ->
+            runBuild(listener, [":b"])
+        }
+        0 * includedBuild.execute(_, _)
+    }
+
+    def "rethrows failure of a task to every thread that waits for it"() {
+        def failure = new RuntimeException("broken")
+        def otherThreadFailure = null
+        def otherThread = new Thread({
+            try {
+                controller.awaitCompletion(":a")
+            } catch (Throwable t) {
+                otherThreadFailure = t
+            }
+        })
+
+        when:
+        controller.queueForExecution(":a")
+        otherThread.start()
+        controller.startTaskExecution()
+        controller.awaitCompletion(":a")
+
+        then:
+        1 * includedBuild.execute([":a"] as Set, _) >> { Iterable<String> tasks, Object listener ->
+            runBuild(listener, [":a"], [(":a"): failure], failure)
+        }
+        def e = thrown(RuntimeException)
+        e.is(failure)
+
+        when:
+        otherThread.join()
+
+        then:
+        otherThreadFailure.is(failure)
+    }
+
+    def "fails queued tasks that were not executed when the build fails"() {
+        def failure = new RuntimeException("broken")
+
+        when:
+        controller.queueForExecution(":a")
+        controller.queueForExecution(":b")
+        controller.startTaskExecution()
+        controller.awaitCompletion(":a")
+
+        then:
+        1 * includedBuild.execute([":a", ":b"] as Set, _) >> { Iterable<String> tasks, Object listener ->
+            runBuild(listener, [":a"], [:], failure)
+        }
+        controller.isComplete(":a")
+
+        when:
+        controller.awaitCompletion(":b")
+
+        then:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+    }
+
+    def "does not fail a task that completed before the build failed"() {
+        def failure = new RuntimeException("broken")
+
+        when:
+        controller.queueForExecution(":a")
+        controller.startTaskExecution()
+        controller.awaitCompletion(":a")
+
+        then:
+        1 * includedBuild.execute([":a"] as Set, _) >> { Iterable<String> tasks, Object listener ->
+            runBuild(listener, [":a"], [:], failure)
+        }
+        controller.isComplete(":a")
+    }
+
+    def "cannot wait for a task that was never queued"() {
+        when:
+        controller.awaitCompletion(":a")
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message == "Included build task ':a' was never scheduled for execution."
+    }
+
+    /**
+     * Notifies the listener in the same way that a build that executes the given tasks does.
+     */
+    private static void runBuild(Object listener, Collection<String> executedTasks, Map<String, Throwable> taskFailures = [:], Throwable buildFailure = null) {
+        TaskExecutionListener recorder = null
+        def graph = [hasTask: { true }, addTaskExecutionListener: { TaskExecutionListener l -> recorder = l }] as TaskExecutionGraph
+        ((TaskExecutionGraphListener) listener).graphPopulated(graph)
+        for (String path : executedTasks) {
+            def task = [getPath: { path }] as Task
+            def failure = taskFailures[path]
+            def state = [getFailure: { failure }] as TaskState
+            recorder.afterExecute(task, state)
+        }
+        ((BuildListener) listener).buildFinished(new BuildResult(null, buildFailure))
+    }
+}
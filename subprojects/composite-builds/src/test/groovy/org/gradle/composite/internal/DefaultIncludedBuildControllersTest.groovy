@@ -0,0 +1,166 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.composite.internal
+
+import org.gradle.BuildListener
+import org.gradle.BuildResult
+import org.gradle.api.Task
+import org.gradle.api.artifacts.component.BuildIdentifier
+import org.gradle.api.execution.TaskExecutionGraph
+import org.gradle.api.execution.TaskExecutionGraphListener
+import org.gradle.api.execution.TaskExecutionListener
+import org.gradle.api.internal.artifacts.component.DefaultBuildIdentifier
+import org.gradle.api.tasks.TaskState
+import org.gradle.includedbuild.internal.IncludedBuildController
+import org.gradle.includedbuild.internal.IncludedBuilds
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+
+@Timeout(60)
+class DefaultIncludedBuildControllersTest extends Specification {
+    def executorFactory = new DefaultExecutorFactory()
+    def includedBuilds = Mock(IncludedBuilds)
+    def buildA = Mock(IncludedBuildInternal)
+    def buildB = Mock(IncludedBuildInternal)
+    def controllers = new DefaultIncludedBuildControllers(executorFactory, includedBuilds)
+
+    def setup() {
+        _ * includedBuilds.getBuild("a") >> buildA
+        _ * includedBuilds.getBuild("b") >> buildB
+        _ * buildA.name >> "a"
+        _ * buildB.name >> "b"
+    }
+
+    def cleanup() {
+        controllers.stop()
+        executorFactory.stop()
+    }
+
+    def "creates one controller for each included build"() {
+        expect:
+        def controllerA = controllers.getBuildController(id("a"))
+        def controllerB = controllers.getBuildController(id("b"))
+        controllerA instanceof DefaultIncludedBuildController
+        !controllerA.is(controllerB)
+        controllers.getBuildController(id("a")).is(controllerA)
+    }
+
+    def "creates a single controller for a build requested from multiple threads at the same time"() {
+        def start = new CountDownLatch(1)
+        def results = new CopyOnWriteArrayList<IncludedBuildController>()
+        def threads = (1..4).collect {
+            new Thread({
+                start.await()
+                results << controllers.getBuildController(id("a"))
+            })
+        }
+
+        when:
+        threads*.start()
+        start.countDown()
+        threads*.join()
+
+        then:
+        results.size() == 4
+        results.every { it.is(results[0]) }
+    }
+
+    def "executes tasks of builds whose controller is created before or after task execution has started"() {
+        given:
+        def controllerA = controllers.getBuildController(id("a"))
+        controllerA.queueForExecution(":a")
+
+        when:
+        controllers.startTaskExecution()
+        def controllerB = controllers.getBuildController(id("b"))
+        controllerB.queueForExecution(":b")
+        controllerA.awaitCompletion(":a")
+        controllerB.awaitCompletion(":b")
+
+        then:
+        1 * buildA.execute([":a"] as Set, _) >> { Iterable<String> tasks, Object listener ->
+            runBuild(listener, [":a"])
+        }
+        1 * buildB.execute([":b"] as Set, _) >> { Iterable<String> tasks, Object listener ->
+            runBuild(listener, [":b"])
+        }
+    }
+
+    def "propagates failure of a task in one build without affecting the tasks of another build"() {
+        def failure = new RuntimeException("broken")
+
+        given:
+        def controllerA = controllers.getBuildController(id("a"))
+        def controllerB = controllers.getBuildController(id("b"))
+        controllerA.queueForExecution(":a")
+        controllerB.queueForExecution(":b")
+
+        when:
+        controllers.startTaskExecution()
+        controllerB.awaitCompletion(":b")
+        controllerA.awaitCompletion(":a")
+
+        then:
+        1 * buildA.execute([":a"] as Set, _) >> { Iterable<String> tasks, Object listener ->
+            runBuild(listener, [":a"], [(":a"): failure], failure)
+        }
+        1 * buildB.execute([":b"] as Set, _) >> { Iterable<String> tasks, Object listener ->
+            runBuild(listener, [":b"])
+        }
+        def e = thrown(RuntimeException)
+        e.is(failure)
+        controllerB.isComplete(":b")
+    }
+
+    def "stops controllers that are waiting for tasks"() {
+        given:
+        controllers.getBuildController(id("a"))
+        controllers.getBuildController(id("b"))
+        controllers.startTaskExecution()
+
+        when:
+        controllers.stop()
+
+        then:
+        0 * buildA.execute(_, _)
+        0 * buildB.execute(_, _)
+    }
+
+    private static BuildIdentifier id(String name) {
+        return new DefaultBuildIdentifier(name)
+    }
+
+    /**
+     * Notifies the listener in the same way that a build that executes the given tasks does.
+     */
+    private static void runBuild(Object listener, Collection<String> executedTasks, Map<String, Throwable> taskFailures = [:], Throwable buildFailure = null) {
+        TaskExecutionListener recorder = null
+        def graph = [hasTask: { true }, addTaskExecutionListener: { TaskExecutionListener l -> recorder = l }] as TaskExecutionGraph
+        ((TaskExecutionGraphListener) listener).graphPopulated(graph)
+        for (String path : executedTasks) {
+            def task = [getPath: { path }] as Task
+            def failure = taskFailures[path]
+            def state = [getFailure: { failure }] as TaskState
+            recorder.afterExecute(task, state)
+        }
+        ((BuildListener) listener).buildFinished(new BuildResult(null, buildFailure))
+    }
+}
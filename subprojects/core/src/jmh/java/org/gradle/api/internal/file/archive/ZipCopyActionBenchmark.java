@@ -0,0 +1,260 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.tools.zip.ZipOutputStream;
+import org.gradle.api.file.DuplicatesStrategy;
+import org.gradle.api.file.EmptyFileVisitor;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
+import org.gradle.api.internal.file.DefaultFileVisitDetails;
+import org.gradle.api.internal.file.copy.CopyAction;
+import org.gradle.api.internal.file.copy.CopyActionProcessingStream;
+import org.gradle.api.internal.file.copy.CopySpecResolver;
+import org.gradle.api.internal.file.copy.DefaultFileCopyDetails;
+import org.gradle.api.internal.file.copy.DefaultZipCompressor;
+import org.gradle.api.Action;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.nativeintegration.filesystem.Chmod;
+import org.gradle.internal.nativeintegration.filesystem.FileMetadataSnapshot;
+import org.gradle.internal.nativeintegration.filesystem.Stat;
+import org.gradle.internal.operations.BuildOperation;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.BuildOperationWorker;
+import org.gradle.internal.operations.CallableBuildOperation;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.progress.BuildOperationState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Packages a jar with a few thousand class-sized files, and then repackages it, as done when merging jars.
+ */
+@State(Scope.Benchmark)
+public class ZipCopyActionBenchmark {
+    private static final int FILE_COUNT = 4000;
+    private static final String[] WORDS = {"java/lang/Object", "java/lang/String", "<init>", "()V", "Code", "LineNumberTable", "LocalVariableTable", "this", "org/gradle/api/Action", "execute"};
+
+    @Param({"ZipCopyAction", "ParallelZipCopyAction"})
+    String actionType;
+
+    private final DefaultExecutorFactory executorFactory = new DefaultExecutorFactory();
+    private final ManagedExecutor executor = executorFactory.create("compress", Runtime.getRuntime().availableProcessors());
+    private final CopySpecResolver specResolver = createSpecResolver();
+    private final Chmod chmod = new Chmod() {
+        @Override
+        public void chmod(File file, int mode) {
+        }
+    };
+    private final Stat stat = new Stat() {
+        @Override
+        public int getUnixMode(File f) {
+            return 0644;
+        }
+
+        @Override
+        public FileMetadataSnapshot stat(File f) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    private File tmpDir;
+    private List<DefaultFileVisitDetails> files;
+    private File sourceJar;
+    private File targetJar;
+
+    @Setup
+    public void prepare() throws IOException {
+        tmpDir = File.createTempFile("jmh", "zip");
+        tmpDir.delete();
+        File classesDir = new File(tmpDir, "classes");
+        Random random = new Random(42);
+        files = new ArrayList<DefaultFileVisitDetails>();
+        for (int i = 0; i < FILE_COUNT; i++) {
+            StringBuilder content = new StringBuilder();
+            int length = 2048 + random.nextInt(16 * 1024);
+            while (content.length() < length) {
+                content.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(1000));
+            }
+            RelativePath path = RelativePath.parse(true, "org/gradle/package" + (i % 50) + "/Class" + i + ".class");
+            File file = path.getFile(classesDir);
+            FileUtils.writeStringToFile(file, content.toString(), "UTF-8");
+            files.add(new DefaultFileVisitDetails(file, path, new AtomicBoolean(), chmod, stat, false, file.lastModified(), file.length()));
+        }
+        sourceJar = new File(tmpDir, "source.jar");
+        createAction(sourceJar).execute(new CopyActionProcessingStream() {
+            @Override
+            public void process(CopyActionProcessingStreamAction action) {
+                for (DefaultFileVisitDetails file : files) {
+                    action.processFile(new DefaultFileCopyDetails(file, specResolver, chmod));
+                }
+            }
+        });
+        targetJar = new File(tmpDir, "target.jar");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        executorFactory.stop();
+        FileUtils.deleteDirectory(tmpDir);
+    }
+
+    @Benchmark
+    public void package_files() {
+        createAction(targetJar).execute(new CopyActionProcessingStream() {
+            @Override
+            public void process(CopyActionProcessingStreamAction action) {
+                for (DefaultFileVisitDetails file : files) {
+                    action.processFile(new DefaultFileCopyDetails(file, specResolver, chmod));
+                }
+            }
+        });
+    }
+
+    @Benchmark
+    public void repackage_jar() {
+        final ZipFileTree sourceTree = new ZipFileTree(sourceJar, new File(tmpDir, "expanded"), chmod, null);
+        createAction(targetJar).execute(new CopyActionProcessingStream() {
+            @Override
+            public void process(final CopyActionProcessingStreamAction action) {
+                sourceTree.visit(new EmptyFileVisitor() {
+                    @Override
+                    public void visitFile(FileVisitDetails fileDetails) {
+                        action.processFile(new DefaultFileCopyDetails(fileDetails, specResolver, chmod));
+                    }
+                });
+            }
+        });
+    }
+
+    private CopyAction createAction(File zipFile) {
+        if (actionType.equals("ParallelZipCopyAction")) {
+            return new ParallelZipCopyAction(zipFile, ZipOutputStream.DEFLATED, false, new DocumentationRegistry(), "UTF-8", false, new ExecutorBackedBuildOperationExecutor(executor));
+        }
+        return new ZipCopyAction(zipFile, new DefaultZipCompressor(false, ZipOutputStream.DEFLATED), new DocumentationRegistry(), "UTF-8", false);
+    }
+
+    private static CopySpecResolver createSpecResolver() {
+        return (CopySpecResolver) Proxy.newProxyInstance(CopySpecResolver.class.getClassLoader(), new Class<?>[]{CopySpecResolver.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("getDestPath")) {
+                    return new RelativePath(false);
+                }
+                if (method.getName().equals("getFilteringCharset")) {
+                    return "UTF-8";
+                }
+                if (method.getName().equals("getDuplicatesStrategy")) {
+                    return DuplicatesStrategy.INCLUDE;
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Runs queued operations on a fixed size executor, standing in for the worker leases of a build.
+     */
+    private static class ExecutorBackedBuildOperationExecutor implements BuildOperationExecutor {
+        private final ManagedExecutor executor;
+
+        ExecutorBackedBuildOperationExecutor(ManagedExecutor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void run(RunnableBuildOperation buildOperation) {
+            buildOperation.run(null);
+        }
+
+        @Override
+        public <T> T call(CallableBuildOperation<T> buildOperation) {
+            return buildOperation.call(null);
+        }
+
+        @Override
+        public <O extends RunnableBuildOperation> void runAll(Action<BuildOperationQueue<O>> schedulingAction) {
+            final List<Future<?>> futures = new ArrayList<Future<?>>();
+            schedulingAction.execute(new BuildOperationQueue<O>() {
+                @Override
+                public void add(final O operation) {
+                    futures.add(executor.submit(new Runnable() {
+                        @Override
+                        public void run() {
+                            operation.run(null);
+                        }
+                    }));
+                }
+
+                @Override
+                public void cancel() {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public void waitForCompletion() {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public void setLogLocation(String logLocation) {
+                    throw new UnsupportedOperationException();
+                }
+            });
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+
+        @Override
+        public <O extends BuildOperation> void runAll(BuildOperationWorker<O> worker, Action<BuildOperationQueue<O>> schedulingAction) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public BuildOperationState getCurrentOperation() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
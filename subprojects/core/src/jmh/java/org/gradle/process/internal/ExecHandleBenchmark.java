@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal;
+
+import org.apache.commons.io.FileUtils;
+import org.gradle.internal.nativeintegration.services.NativeServices;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Runs short-lived processes, as done by native compile and link tasks, and a process that writes a lot of output.
+ * Requires a unix-like platform.
+ */
+@State(Scope.Benchmark)
+public class ExecHandleBenchmark {
+    private File tmpDir;
+
+    @Setup
+    public void prepare() throws IOException {
+        tmpDir = File.createTempFile("jmh", "exec");
+        tmpDir.delete();
+        NativeServices.initialize(tmpDir);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tmpDir);
+    }
+
+    @Benchmark
+    public long spawn_process() {
+        CountingOutputStream output = new CountingOutputStream();
+        new DefaultExecHandleBuilder().commandLine("echo", "hello").setStandardOutput(output).build().start().waitForFinish().assertNormalExitValue();
+        return output.count;
+    }
+
+    @Benchmark
+    public long forward_output() {
+        CountingOutputStream output = new CountingOutputStream();
+        new DefaultExecHandleBuilder().commandLine("head", "-c", "50000000", "/dev/zero").setStandardOutput(output).build().start().waitForFinish().assertNormalExitValue();
+        return output.count;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
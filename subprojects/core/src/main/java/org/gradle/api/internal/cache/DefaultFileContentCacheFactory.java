@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.cache;
 
+import com.google.common.collect.Iterables;
 import com.google.common.hash.HashCode;
 import org.gradle.api.internal.changedetection.state.FileSnapshot;
 import org.gradle.api.internal.changedetection.state.FileSystemSnapshotter;
@@ -27,7 +28,10 @@ import org.gradle.cache.PersistentCache;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.PersistentIndexedCacheParameters;
 import org.gradle.cache.internal.FileLockManager;
+import org.gradle.internal.FileUtils;
 import org.gradle.internal.event.ListenerManager;
+import org.gradle.internal.file.DefaultFileHierarchySet;
+import org.gradle.internal.file.FileHierarchySet;
 import org.gradle.internal.nativeintegration.filesystem.FileType;
 import org.gradle.internal.serialize.HashCodeSerializer;
 import org.gradle.internal.serialize.Serializer;
@@ -35,6 +39,7 @@ import org.gradle.internal.serialize.Serializer;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -99,6 +104,27 @@ public class DefaultFileContentCacheFactory implements FileContentCacheFactory,
             cache.clear();
         }
 
+        @Override
+        public void beforeTaskOutputsGenerated(Iterable<String> affectedOutputPaths) {
+            if (Iterables.isEmpty(affectedOutputPaths)) {
+                // The locations the task writes to are unknown
+                beforeTaskOutputsGenerated();
+                return;
+            }
+            FileHierarchySet affectedTrees = DefaultFileHierarchySet.of();
+            for (String affectedOutputPath : affectedOutputPaths) {
+                affectedTrees = affectedTrees.plus(new File(affectedOutputPath));
+            }
+            // Drop the values for the files the task writes to, and for the directories that contain them
+            Iterator<File> files = cache.keySet().iterator();
+            while (files.hasNext()) {
+                String path = files.next().getAbsolutePath();
+                if (affectedTrees.contains(path) || FileUtils.isAncestorOfAny(path, affectedOutputPaths)) {
+                    files.remove();
+                }
+            }
+        }
+
         @Override
         public V get(File file) {
             // TODO - don't calculate the same value concurrently
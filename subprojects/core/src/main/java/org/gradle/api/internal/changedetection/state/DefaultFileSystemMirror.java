@@ -16,14 +16,17 @@
 
 package org.gradle.api.internal.changedetection.state;
 
+import com.google.common.collect.Iterables;
 import org.gradle.api.Nullable;
 import org.gradle.api.internal.tasks.execution.TaskOutputsGenerationListener;
 import org.gradle.initialization.RootBuildLifecycleListener;
+import org.gradle.internal.FileUtils;
 import org.gradle.internal.classpath.CachedJarFileStore;
 import org.gradle.internal.file.DefaultFileHierarchySet;
 import org.gradle.internal.file.FileHierarchySet;
 
 import java.io.File;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -123,6 +126,34 @@ public class DefaultFileSystemMirror implements FileSystemMirror, TaskOutputsGen
         snapshots.clear();
     }
 
+    @Override
+    public void beforeTaskOutputsGenerated(Iterable<String> affectedOutputPaths) {
+        if (Iterables.isEmpty(affectedOutputPaths)) {
+            // The locations the task writes to are unknown
+            beforeTaskOutputsGenerated();
+            return;
+        }
+        // Throw away the state for the files the task writes to, and for the directories that contain them.
+        // The state for all other files can be kept, even when they are not in an append-only cache.
+        FileHierarchySet affectedTrees = DefaultFileHierarchySet.of();
+        for (String affectedOutputPath : affectedOutputPaths) {
+            affectedTrees = affectedTrees.plus(new File(affectedOutputPath));
+        }
+        invalidate(files, affectedTrees, affectedOutputPaths);
+        invalidate(trees, affectedTrees, affectedOutputPaths);
+        invalidate(snapshots, affectedTrees, affectedOutputPaths);
+    }
+
+    private static void invalidate(Map<String, ?> state, FileHierarchySet affectedTrees, Iterable<String> affectedOutputPaths) {
+        Iterator<String> paths = state.keySet().iterator();
+        while (paths.hasNext()) {
+            String path = paths.next();
+            if (affectedTrees.contains(path) || FileUtils.isAncestorOfAny(path, affectedOutputPaths)) {
+                paths.remove();
+            }
+        }
+    }
+
     @Override
     public void afterStart() {
     }
@@ -21,13 +21,13 @@ import com.google.common.collect.Lists;
 import com.google.common.hash.HashCode;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.file.FileVisitDetails;
-import org.gradle.api.file.FileVisitor;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.api.internal.file.FileTreeInternal;
 import org.gradle.api.internal.file.collections.DirectoryFileTree;
 import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
 import org.gradle.api.internal.file.collections.SimpleFileCollection;
+import org.gradle.api.internal.file.collections.ThreadSafeFileVisitor;
 import org.gradle.api.internal.hash.FileHasher;
 import org.gradle.cache.internal.ProducerGuard;
 import org.gradle.caching.internal.BuildCacheHasher;
@@ -38,6 +38,8 @@ import org.gradle.internal.nativeintegration.filesystem.FileSystem;
 import org.gradle.normalization.internal.InputNormalizationStrategy;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -157,14 +159,25 @@ public class DefaultFileSystemSnapshotter implements FileSystemSnapshotter {
     public List<FileSnapshot> snapshotTree(FileTreeInternal tree) {
         List<FileSnapshot> elements = Lists.newArrayList();
         tree.visitTreeOrBackingFile(new FileVisitorImpl(elements));
-        return elements;
+        return sortIfWalkedInParallel(elements);
     }
 
     private FileTreeSnapshot doSnapshot(DirectoryFileTree directoryTree) {
         String path = getPath(directoryTree.getDir());
         List<FileSnapshot> elements = Lists.newArrayList();
         directoryTree.visit(new FileVisitorImpl(elements));
-        return new DirectoryTreeDetails(path, ImmutableList.copyOf(elements));
+        return new DirectoryTreeDetails(path, ImmutableList.copyOf(sortIfWalkedInParallel(elements)));
+    }
+
+    /**
+     * When walking in parallel, the elements are collected in the order in which the walking threads happen to visit them.
+     * Sort them so that snapshots, and fingerprints calculated from them, are the same from one run to the next.
+     */
+    private static List<FileSnapshot> sortIfWalkedInParallel(List<FileSnapshot> elements) {
+        if (DirectoryFileTree.isWalkingInParallel()) {
+            Collections.sort(elements, FileSnapshotPathComparator.INSTANCE);
+        }
+        return elements;
     }
 
     private String getPath(File file) {
@@ -207,21 +220,57 @@ public class DefaultFileSystemSnapshotter implements FileSystemSnapshotter {
         }
     }
 
-    private class FileVisitorImpl implements FileVisitor {
+    /**
+     * Orders by relative path, segment by segment, so that a directory is followed by its contents.
+     */
+    private static class FileSnapshotPathComparator implements Comparator<FileSnapshot> {
+        private static final FileSnapshotPathComparator INSTANCE = new FileSnapshotPathComparator();
+
+        @Override
+        public int compare(FileSnapshot left, FileSnapshot right) {
+            String[] leftSegments = left.getRelativePath().getSegments();
+            String[] rightSegments = right.getRelativePath().getSegments();
+            int commonLength = Math.min(leftSegments.length, rightSegments.length);
+            for (int i = 0; i < commonLength; i++) {
+                int result = leftSegments[i].compareTo(rightSegments[i]);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            if (leftSegments.length != rightSegments.length) {
+                return leftSegments.length < rightSegments.length ? -1 : 1;
+            }
+            return left.getPath().compareTo(right.getPath());
+        }
+    }
+
+    private class FileVisitorImpl implements ThreadSafeFileVisitor {
         private final List<FileSnapshot> fileTreeElements;
 
         FileVisitorImpl(List<FileSnapshot> fileTreeElements) {
             this.fileTreeElements = fileTreeElements;
         }
 
+        @Override
+        public boolean isThreadSafe() {
+            return true;
+        }
+
         @Override
         public void visitDir(FileVisitDetails dirDetails) {
-            fileTreeElements.add(new DirectoryFileSnapshot(getPath(dirDetails.getFile()), dirDetails.getRelativePath(), false));
+            add(new DirectoryFileSnapshot(getPath(dirDetails.getFile()), dirDetails.getRelativePath(), false));
         }
 
         @Override
         public void visitFile(FileVisitDetails fileDetails) {
-            fileTreeElements.add(new RegularFileSnapshot(getPath(fileDetails.getFile()), fileDetails.getRelativePath(), false, fileSnapshot(fileDetails)));
+            // Hash outside the lock, so that files can be hashed concurrently when the tree is walked in parallel
+            add(new RegularFileSnapshot(getPath(fileDetails.getFile()), fileDetails.getRelativePath(), false, fileSnapshot(fileDetails)));
+        }
+
+        private void add(FileSnapshot snapshot) {
+            synchronized (fileTreeElements) {
+                fileTreeElements.add(snapshot);
+            }
         }
     }
 }
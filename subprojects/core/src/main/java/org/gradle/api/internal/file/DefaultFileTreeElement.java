@@ -22,9 +22,16 @@ import org.gradle.internal.nativeintegration.filesystem.Stat;
 import org.gradle.util.GFileUtils;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 public class DefaultFileTreeElement extends AbstractFileTreeElement {
+    private static final int COMPARE_BUFFER_SIZE = 64 * 1024;
+
     private final File file;
     private final RelativePath relativePath;
     private final Stat stat;
@@ -65,6 +72,77 @@ public class DefaultFileTreeElement extends AbstractFileTreeElement {
         return GFileUtils.openInputStream(file);
     }
 
+    /**
+     * Copies the file using {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}, which lets the
+     * operating system copy the content without moving it through the heap. Leaves the target alone when it already has the same content.
+     *
+     * <p>{@code java.nio.file.Files.copy()} is not used: it would have to live behind the {@code jdk7} split, it copies through a user-space buffer
+     * on the JDKs we run on, and it replaces an existing target by deleting it rather than writing into it.</p>
+     */
+    @Override
+    protected void copyFile(File target) throws IOException {
+        FileInputStream inputStream = new FileInputStream(file);
+        try {
+            FileChannel source = inputStream.getChannel();
+            if (hasSameContent(source, target)) {
+                return;
+            }
+            FileOutputStream outputStream = new FileOutputStream(target);
+            try {
+                FileChannel destination = outputStream.getChannel();
+                long size = source.size();
+                long position = 0;
+                while (position < size) {
+                    long transferred = source.transferTo(position, size - position, destination);
+                    if (transferred <= 0) {
+                        // The file has been truncated while copying
+                        break;
+                    }
+                    position += transferred;
+                }
+            } finally {
+                outputStream.close();
+            }
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private static boolean hasSameContent(FileChannel source, File target) throws IOException {
+        if (!target.isFile() || target.length() != source.size()) {
+            return false;
+        }
+        FileInputStream targetStream = new FileInputStream(target);
+        try {
+            FileChannel targetChannel = targetStream.getChannel();
+            ByteBuffer sourceBuffer = ByteBuffer.allocate(COMPARE_BUFFER_SIZE);
+            ByteBuffer targetBuffer = ByteBuffer.allocate(COMPARE_BUFFER_SIZE);
+            long position = 0;
+            while (true) {
+                sourceBuffer.clear();
+                targetBuffer.clear();
+                int read = source.read(sourceBuffer, position);
+                if (read < 0) {
+                    return targetChannel.read(targetBuffer, position) < 0;
+                }
+                while (targetBuffer.position() < read) {
+                    if (targetChannel.read(targetBuffer, position + targetBuffer.position()) < 0) {
+                        return false;
+                    }
+                }
+                sourceBuffer.flip();
+                targetBuffer.limit(read);
+                targetBuffer.position(0);
+                if (!sourceBuffer.equals(targetBuffer)) {
+                    return false;
+                }
+                position += read;
+            }
+        } finally {
+            targetStream.close();
+        }
+    }
+
     public RelativePath getRelativePath() {
         return relativePath;
     }
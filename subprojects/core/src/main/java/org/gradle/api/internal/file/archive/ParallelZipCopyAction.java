@@ -0,0 +1,283 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import org.apache.tools.zip.Zip64RequiredException;
+import org.apache.tools.zip.ZipOutputStream;
+import org.gradle.api.Action;
+import org.gradle.api.GradleException;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.file.FileCopyDetails;
+import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
+import org.gradle.api.internal.file.copy.CopyAction;
+import org.gradle.api.internal.file.copy.CopyActionProcessingStream;
+import org.gradle.api.internal.file.copy.FileCopyDetailsInternal;
+import org.gradle.api.internal.tasks.SimpleWorkResult;
+import org.gradle.api.tasks.WorkResult;
+import org.gradle.api.tasks.bundling.Zip;
+import org.gradle.internal.IoActions;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.progress.BuildOperationDescriptor;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link CopyAction} that creates a ZIP archive, compressing the files that are copied from the file system concurrently.
+ *
+ * <p>Files are collected in batches of bounded size. The files of a batch are compressed into memory independently of each other by build
+ * operations, so that the work shares the worker leases of the build, and the compressed entries are then appended to the archive in the order in which
+ * the files were visited, so that the archive does not depend on how the work was scheduled. Files that cannot be copied concurrently, or that are
+ * too large to be buffered, are compressed on the visiting thread once the preceding entries have been written. Unchanged stored files that come from
+ * another ZIP archive are copied straight from that archive when the archive is stored, too.</p>
+ *
+ * <p>The archive is written by a {@link ZipArchiveWriter}, which lays out the archive in the same way as Ant's {@link org.apache.tools.zip.ZipOutputStream},
+ * so the archive is byte for byte the same as the one created by {@link ZipCopyAction}. Compressed entries of other archives are not reused, as the
+ * compressed data depends on the tool and settings that created them.</p>
+ */
+public class ParallelZipCopyAction implements CopyAction {
+    public static final String PARALLEL_ZIP_PROPERTY = "org.gradle.internal.zip.parallel";
+
+    private static final int FILES_PER_OPERATION = 50;
+    private static final int MAX_PENDING_ENTRIES = 1000;
+    private static final long MAX_BUFFERED_FILE_SIZE = 8 * 1024 * 1024;
+    private static final long MAX_PENDING_BYTES = 64 * 1024 * 1024;
+
+    private final File zipFile;
+    private final int entryCompressionMethod;
+    private final boolean allowZip64;
+    private final DocumentationRegistry documentationRegistry;
+    private final String encoding;
+    private final boolean preserveFileTimestamps;
+    private final BuildOperationExecutor buildOperationExecutor;
+
+    public ParallelZipCopyAction(File zipFile, int entryCompressionMethod, boolean allowZip64, DocumentationRegistry documentationRegistry, String encoding, boolean preserveFileTimestamps, BuildOperationExecutor buildOperationExecutor) {
+        this.zipFile = zipFile;
+        this.entryCompressionMethod = entryCompressionMethod;
+        this.allowZip64 = allowZip64;
+        this.documentationRegistry = documentationRegistry;
+        this.encoding = encoding;
+        this.preserveFileTimestamps = preserveFileTimestamps;
+        this.buildOperationExecutor = buildOperationExecutor;
+    }
+
+    public WorkResult execute(final CopyActionProcessingStream stream) {
+        final ZipArchiveWriter writer;
+        try {
+            writer = new ZipArchiveWriter(zipFile, encoding, allowZip64);
+        } catch (Exception e) {
+            throw new GradleException(String.format("Could not create ZIP '%s'.", zipFile), e);
+        }
+
+        try {
+            IoActions.withResource(writer, new Action<ZipArchiveWriter>() {
+                public void execute(ZipArchiveWriter writer) {
+                    StreamAction action = new StreamAction(writer);
+                    stream.process(action);
+                    action.writePending();
+                }
+            });
+        } catch (UncheckedIOException e) {
+            if (e.getCause() instanceof Zip64RequiredException) {
+                throw new org.gradle.api.tasks.bundling.internal.Zip64RequiredException(
+                        String.format("%s\n\nTo build this archive, please enable the zip64 extension.\nSee: %s", e.getCause().getMessage(), documentationRegistry.getDslRefForProperty(Zip.class, "zip64"))
+                );
+            }
+            throw e;
+        }
+
+        return new SimpleWorkResult(true);
+    }
+
+    private class StreamAction implements CopyActionProcessingStreamAction {
+        private final ZipArchiveWriter writer;
+        private final List<PendingEntry> pending = new ArrayList<PendingEntry>();
+        private final List<PendingEntry> toCompress = new ArrayList<PendingEntry>();
+        private long pendingBytes;
+
+        public StreamAction(ZipArchiveWriter writer) {
+            this.writer = writer;
+        }
+
+        public void processFile(FileCopyDetailsInternal details) {
+            if (details.isDirectory()) {
+                // Trailing slash in name indicates that entry is a directory
+                enqueue(new PendingEntry(details, details.getRelativePath().getPathString() + '/', false, 0));
+                return;
+            }
+
+            RawZipEntry rawEntry = details instanceof RawZipEntrySource ? ((RawZipEntrySource) details).getRawZipEntry() : null;
+            if (rawEntry != null && rawEntry.getMethod() == ZipOutputStream.STORED && entryCompressionMethod == ZipOutputStream.STORED) {
+                writePending();
+                try {
+                    writer.writeFile(details.getRelativePath().getPathString(), getArchiveTimeFor(details), details.getMode(), rawEntry);
+                } catch (Exception e) {
+                    throw failure(details, e);
+                }
+                return;
+            }
+
+            if (details.isCopyableConcurrently()) {
+                long size = details.getSize();
+                if (size <= MAX_BUFFERED_FILE_SIZE) {
+                    enqueue(new PendingEntry(details, details.getRelativePath().getPathString(), true, size));
+                    return;
+                }
+            }
+
+            writePending();
+            try {
+                writer.writeFile(details.getRelativePath().getPathString(), getArchiveTimeFor(details), details.getMode(), entryCompressionMethod, new CopyContent(details));
+            } catch (Exception e) {
+                throw failure(details, e);
+            }
+        }
+
+        private void enqueue(PendingEntry entry) {
+            pending.add(entry);
+            if (entry.compress) {
+                toCompress.add(entry);
+            }
+            pendingBytes += entry.size;
+            if (pending.size() >= MAX_PENDING_ENTRIES || pendingBytes >= MAX_PENDING_BYTES) {
+                writePending();
+            }
+        }
+
+        /**
+         * Compresses the pending files, using build operations when there are enough of them, and then writes all pending entries in order.
+         */
+        void writePending() {
+            if (toCompress.size() <= FILES_PER_OPERATION) {
+                new CompressFiles(toCompress).compress();
+            } else {
+                buildOperationExecutor.runAll(new Action<BuildOperationQueue<CompressFiles>>() {
+                    @Override
+                    public void execute(BuildOperationQueue<CompressFiles> queue) {
+                        for (int i = 0; i < toCompress.size(); i += FILES_PER_OPERATION) {
+                            queue.add(new CompressFiles(toCompress.subList(i, Math.min(i + FILES_PER_OPERATION, toCompress.size()))));
+                        }
+                    }
+                });
+            }
+            for (PendingEntry entry : pending) {
+                entry.write(writer);
+            }
+            pending.clear();
+            toCompress.clear();
+            pendingBytes = 0;
+        }
+    }
+
+    private class PendingEntry {
+        private final FileCopyDetails details;
+        private final String name;
+        private final long time;
+        private final int mode;
+        private final boolean compress;
+        private final long size;
+        private ZipArchiveWriter.CompressedContent content;
+        private Throwable failure;
+
+        PendingEntry(FileCopyDetails details, String name, boolean compress, long size) {
+            this.details = details;
+            this.name = name;
+            this.time = getArchiveTimeFor(details);
+            this.mode = details.getMode();
+            this.compress = compress;
+            this.size = size;
+        }
+
+        void compress() {
+            try {
+                content = ZipArchiveWriter.compress(entryCompressionMethod, new CopyContent(details));
+            } catch (Throwable e) {
+                // Report the failure when the entry is written, so that the archive fails in the same way as when compressing serially
+                failure = e;
+            }
+        }
+
+        void write(ZipArchiveWriter writer) {
+            if (failure != null) {
+                throw failure(details, failure);
+            }
+            try {
+                if (!compress) {
+                    writer.writeDirectory(name, time, mode, entryCompressionMethod);
+                } else {
+                    writer.writeFile(name, time, mode, content);
+                }
+            } catch (Exception e) {
+                throw failure(details, e);
+            }
+        }
+    }
+
+    private class CompressFiles implements RunnableBuildOperation {
+        private final List<PendingEntry> entries;
+
+        CompressFiles(List<PendingEntry> entries) {
+            this.entries = entries;
+        }
+
+        void compress() {
+            for (PendingEntry entry : entries) {
+                entry.compress();
+            }
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            compress();
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Compress " + entries.size() + " entries of " + zipFile.getName());
+        }
+    }
+
+    private static class CopyContent implements Action<OutputStream> {
+        private final FileCopyDetails details;
+
+        CopyContent(FileCopyDetails details) {
+            this.details = details;
+        }
+
+        @Override
+        public void execute(OutputStream outputStream) {
+            details.copyTo(outputStream);
+        }
+    }
+
+    private RuntimeException failure(FileCopyDetails details, Throwable e) {
+        if (e instanceof Zip64RequiredException) {
+            return new UncheckedIOException((Zip64RequiredException) e);
+        }
+        return new GradleException(String.format("Could not add %s to ZIP '%s'.", details, zipFile), e);
+    }
+
+    private long getArchiveTimeFor(FileCopyDetails details) {
+        return preserveFileTimestamps ? details.getLastModified() : ZipCopyAction.CONSTANT_TIME_FOR_ZIP_ENTRIES;
+    }
+}
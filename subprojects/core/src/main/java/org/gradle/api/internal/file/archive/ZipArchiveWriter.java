@@ -0,0 +1,525 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import org.apache.tools.zip.UnixStat;
+import org.apache.tools.zip.Zip64RequiredException;
+import org.apache.tools.zip.ZipOutputStream;
+import org.gradle.api.Action;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a ZIP archive whose entries have been compressed up front, possibly concurrently.
+ *
+ * <p>As the content of each entry is compressed independently of the others, the archive is the same regardless of how and in which order the entries
+ * were compressed. The archive is laid out in the same way as {@link ZipOutputStream} lays out an archive that it writes to a file: the method of
+ * directories, the version needed to extract, the general purpose flags, the ZIP64 extra fields reserved in local headers and the unix permissions
+ * are the same, so that the archive is byte for byte the same as one written by {@link ZipOutputStream} with the same settings.</p>
+ */
+public class ZipArchiveWriter implements Closeable {
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final int UTF8_FLAG = 0x0800;
+    private static final int PLATFORM_UNIX = 3;
+    private static final int INITIAL_VERSION = 10;
+    private static final int DEFLATE_VERSION = 20;
+    private static final int ZIP64_VERSION = 45;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_MAGIC_SHORT = 0xFFFF;
+    private static final long DOS_TIME_MIN = 0x00002100L;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Action<OutputStream> NO_CONTENT = new Action<OutputStream>() {
+        @Override
+        public void execute(OutputStream outputStream) {
+        }
+    };
+
+    private final File zipFile;
+    private final FileOutputStream fileOutputStream;
+    private final OutputStream out;
+    private final Charset charset;
+    private final boolean useUtf8Flag;
+    private final boolean allowZip64;
+    private final List<CentralEntry> entries = new ArrayList<CentralEntry>();
+    private final ByteBuffer header = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+    private long position;
+    private boolean usedZip64;
+
+    public ZipArchiveWriter(File zipFile, String encoding, boolean allowZip64) throws IOException {
+        this.zipFile = zipFile;
+        this.charset = encoding == null ? Charset.defaultCharset() : Charset.forName(encoding);
+        // Same as Ant, which only clears the flag when an encoding other than UTF-8 is set
+        this.useUtf8Flag = encoding == null || charset.name().equals("UTF-8");
+        this.allowZip64 = allowZip64;
+        this.fileOutputStream = new FileOutputStream(zipFile);
+        this.out = new BufferedOutputStream(fileOutputStream, BUFFER_SIZE);
+    }
+
+    /**
+     * Compresses the given content into memory, using the given method.
+     */
+    public static CompressedContent compress(int method, Action<? super OutputStream> content) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        CrcOutputStream crcOutputStream;
+        if (method == ZipOutputStream.DEFLATED) {
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            try {
+                DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(buffer, deflater, BUFFER_SIZE);
+                crcOutputStream = new CrcOutputStream(deflaterOutputStream);
+                content.execute(crcOutputStream);
+                deflaterOutputStream.finish();
+            } finally {
+                deflater.end();
+            }
+        } else {
+            crcOutputStream = new CrcOutputStream(buffer);
+            content.execute(crcOutputStream);
+        }
+        return new CompressedContent(method, crcOutputStream.crc.getValue(), crcOutputStream.count, buffer.toByteArray());
+    }
+
+    public void writeDirectory(String name, long time, int mode, int method) throws IOException {
+        CompressedContent content = compress(method, NO_CONTENT);
+        writeFile(new CentralEntry(encode(name), method, time, UnixStat.DIR_FLAG | mode, true, content.crc, content.data.length, content.size, position), content.data);
+    }
+
+    public void writeFile(String name, long time, int mode, CompressedContent content) throws IOException {
+        writeFile(new CentralEntry(encode(name), content.method, time, UnixStat.FILE_FLAG | mode, false, content.crc, content.data.length, content.size, position), content.data);
+    }
+
+    public void writeFile(String name, long time, int mode, RawZipEntry content) throws IOException {
+        CentralEntry entry = new CentralEntry(encode(name), content.getMethod(), time, UnixStat.FILE_FLAG | mode, false, content.getCrc(), content.getCompressedSize(), content.getSize(), position);
+        checkSizes(entry);
+        writeLocalHeader(entry);
+        content.copyCompressedTo(out);
+        position += content.getCompressedSize();
+    }
+
+    private void writeFile(CentralEntry entry, byte[] data) throws IOException {
+        checkSizes(entry);
+        writeLocalHeader(entry);
+        out.write(data);
+        position += data.length;
+    }
+
+    /**
+     * Writes an entry whose content is compressed while it is being written. The sizes and CRC of the entry are filled in afterwards.
+     */
+    public void writeFile(String name, long time, int mode, int method, Action<? super OutputStream> content) throws IOException {
+        CentralEntry entry = new CentralEntry(encode(name), method, time, UnixStat.FILE_FLAG | mode, false, 0, 0, 0, position);
+        entry.sizesKnown = false;
+        writeLocalHeader(entry);
+        long start = position;
+        CountingOutputStream countingOutputStream = new CountingOutputStream(out);
+        CrcOutputStream crcOutputStream;
+        if (method == ZipOutputStream.DEFLATED) {
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            try {
+                DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(countingOutputStream, deflater, BUFFER_SIZE);
+                crcOutputStream = new CrcOutputStream(deflaterOutputStream);
+                content.execute(crcOutputStream);
+                deflaterOutputStream.finish();
+            } finally {
+                deflater.end();
+            }
+        } else {
+            crcOutputStream = new CrcOutputStream(countingOutputStream);
+            content.execute(crcOutputStream);
+        }
+        position += countingOutputStream.count;
+
+        entry.crc = crcOutputStream.crc.getValue();
+        entry.size = crcOutputStream.count;
+        entry.compressedSize = countingOutputStream.count;
+        entry.sizesKnown = true;
+        checkSizes(entry);
+        rewriteLocalHeader(entry, start);
+    }
+
+    private void checkSizes(CentralEntry entry) throws Zip64RequiredException {
+        if (entry.needsZip64Sizes()) {
+            if (!allowZip64) {
+                throw new Zip64RequiredException(entryTooBigMessage(entry));
+            }
+            usedZip64 = true;
+        }
+    }
+
+    /**
+     * Writes the local header of the given entry. Like Ant, which does not know the size of an entry when it starts writing it, a ZIP64 extra
+     * field is reserved for every entry when ZIP64 is allowed.
+     */
+    private void writeLocalHeader(CentralEntry entry) throws IOException {
+        entry.localZip64Extra = allowZip64;
+        header.clear();
+        header.putInt(LOCAL_HEADER_SIGNATURE);
+        header.putShort((short) entry.localVersionNeeded());
+        header.putShort((short) flags());
+        header.putShort((short) entry.method);
+        header.putInt((int) toDosTime(entry.time));
+        putLocalSizes(entry);
+        header.putShort((short) entry.name.length);
+        header.putShort((short) (entry.localZip64Extra ? 20 : 0));
+        write(header);
+        write(entry.name);
+        if (entry.localZip64Extra) {
+            header.clear();
+            header.putShort((short) ZIP64_EXTRA_ID);
+            header.putShort((short) 16);
+            header.putLong(entry.size);
+            header.putLong(entry.compressedSize);
+            write(header);
+        }
+        entries.add(entry);
+    }
+
+    private void rewriteLocalHeader(CentralEntry entry, long dataStart) throws IOException {
+        out.flush();
+        header.clear();
+        header.putShort((short) entry.localVersionNeeded());
+        header.flip();
+        writeAt(header, entry.offset + 4);
+        header.clear();
+        putLocalSizes(entry);
+        header.flip();
+        writeAt(header, entry.offset + 14);
+        if (entry.localZip64Extra) {
+            header.clear();
+            header.putLong(entry.size);
+            header.putLong(entry.compressedSize);
+            header.flip();
+            writeAt(header, dataStart - 16);
+        }
+    }
+
+    private void writeAt(ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            offset += fileOutputStream.getChannel().write(buffer, offset);
+        }
+    }
+
+    private void putLocalSizes(CentralEntry entry) {
+        header.putInt((int) entry.crc);
+        if (entry.localZip64Sizes()) {
+            header.putInt((int) ZIP64_MAGIC);
+            header.putInt((int) ZIP64_MAGIC);
+        } else {
+            header.putInt((int) entry.compressedSize);
+            header.putInt((int) entry.size);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            writeCentralDirectory();
+            out.flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        long centralDirectoryStart = position;
+        for (CentralEntry entry : entries) {
+            writeCentralHeader(entry);
+        }
+        long centralDirectorySize = position - centralDirectoryStart;
+
+        boolean zip64 = usedZip64 || entries.size() >= ZIP64_MAGIC_SHORT || centralDirectoryStart >= ZIP64_MAGIC || centralDirectorySize >= ZIP64_MAGIC;
+        if (zip64) {
+            if (!allowZip64) {
+                throw new Zip64RequiredException(entries.size() >= ZIP64_MAGIC_SHORT ? "archive contains more than 65535 entries." : "archive's size exceeds the limit of 4GByte.");
+            }
+            long zip64EndStart = position;
+            header.clear();
+            header.putInt(ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+            header.putLong(44);
+            header.putShort((short) ZIP64_VERSION);
+            header.putShort((short) ZIP64_VERSION);
+            header.putInt(0);
+            header.putInt(0);
+            header.putLong(entries.size());
+            header.putLong(entries.size());
+            header.putLong(centralDirectorySize);
+            header.putLong(centralDirectoryStart);
+            write(header);
+
+            header.clear();
+            header.putInt(ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE);
+            header.putInt(0);
+            header.putLong(zip64EndStart);
+            header.putInt(1);
+            write(header);
+        }
+
+        header.clear();
+        header.putInt(END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+        header.putShort((short) 0);
+        header.putShort((short) 0);
+        header.putShort((short) Math.min(entries.size(), ZIP64_MAGIC_SHORT));
+        header.putShort((short) Math.min(entries.size(), ZIP64_MAGIC_SHORT));
+        header.putInt((int) Math.min(centralDirectorySize, ZIP64_MAGIC));
+        header.putInt((int) Math.min(centralDirectoryStart, ZIP64_MAGIC));
+        header.putShort((short) 0);
+        write(header);
+    }
+
+    private void writeCentralHeader(CentralEntry entry) throws IOException {
+        boolean zip64Sizes = entry.needsZip64Sizes();
+        boolean zip64Offset = entry.offset >= ZIP64_MAGIC;
+        if (zip64Offset && !allowZip64) {
+            throw new Zip64RequiredException("archive's size exceeds the limit of 4GByte.");
+        }
+        if (zip64Offset) {
+            usedZip64 = true;
+        }
+        int extraLength = (zip64Sizes ? 16 : 0) + (zip64Offset ? 8 : 0);
+
+        header.clear();
+        header.putInt(CENTRAL_HEADER_SIGNATURE);
+        header.putShort((short) ((PLATFORM_UNIX << 8) | (usedZip64 ? ZIP64_VERSION : DEFLATE_VERSION)));
+        header.putShort((short) (extraLength > 0 ? ZIP64_VERSION : entry.versionNeeded()));
+        header.putShort((short) flags());
+        header.putShort((short) entry.method);
+        header.putInt((int) toDosTime(entry.time));
+        header.putInt((int) entry.crc);
+        if (zip64Sizes) {
+            header.putInt((int) ZIP64_MAGIC);
+            header.putInt((int) ZIP64_MAGIC);
+        } else {
+            header.putInt((int) entry.compressedSize);
+            header.putInt((int) entry.size);
+        }
+        header.putShort((short) entry.name.length);
+        header.putShort((short) (extraLength == 0 ? 0 : extraLength + 4));
+        header.putShort((short) 0);
+        header.putShort((short) 0);
+        header.putShort((short) 0);
+        header.putInt(entry.externalAttributes());
+        header.putInt((int) Math.min(entry.offset, ZIP64_MAGIC));
+        write(header);
+        write(entry.name);
+        if (extraLength > 0) {
+            header.clear();
+            header.putShort((short) ZIP64_EXTRA_ID);
+            header.putShort((short) extraLength);
+            if (zip64Sizes) {
+                header.putLong(entry.size);
+                header.putLong(entry.compressedSize);
+            }
+            if (zip64Offset) {
+                header.putLong(entry.offset);
+            }
+            write(header);
+        }
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        out.write(buffer.array(), 0, buffer.position());
+        position += buffer.position();
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        out.write(bytes);
+        position += bytes.length;
+    }
+
+    private int flags() {
+        return useUtf8Flag ? UTF8_FLAG : 0;
+    }
+
+    private byte[] encode(String name) {
+        return name.getBytes(charset);
+    }
+
+    private String entryTooBigMessage(CentralEntry entry) {
+        return new String(entry.name, charset) + "'s size exceeds the limit of 4GByte.";
+    }
+
+    /**
+     * Converts the given time to a MS-DOS date and time, in the default time zone, in the same way as {@link ZipOutputStream} does.
+     */
+    private static long toDosTime(long time) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(time);
+        int year = calendar.get(Calendar.YEAR);
+        if (year < 1980) {
+            return DOS_TIME_MIN;
+        }
+        return ((year - 1980) << 25)
+            | ((calendar.get(Calendar.MONTH) + 1) << 21)
+            | (calendar.get(Calendar.DAY_OF_MONTH) << 16)
+            | (calendar.get(Calendar.HOUR_OF_DAY) << 11)
+            | (calendar.get(Calendar.MINUTE) << 5)
+            | (calendar.get(Calendar.SECOND) >> 1);
+    }
+
+    @Override
+    public String toString() {
+        return "ZIP '" + zipFile + "'";
+    }
+
+    /**
+     * The content of an entry, compressed independently of the other entries.
+     */
+    public static class CompressedContent {
+        private final int method;
+        private final long crc;
+        private final long size;
+        private final byte[] data;
+
+        private CompressedContent(int method, long crc, long size, byte[] data) {
+            this.method = method;
+            this.crc = crc;
+            this.size = size;
+            this.data = data;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getCompressedSize() {
+            return data.length;
+        }
+    }
+
+    private static class CentralEntry {
+        private final byte[] name;
+        private final int method;
+        private final long time;
+        private final int unixMode;
+        private final boolean directory;
+        private final long offset;
+        private long crc;
+        private long compressedSize;
+        private long size;
+        private boolean localZip64Extra;
+        private boolean sizesKnown = true;
+
+        CentralEntry(byte[] name, int method, long time, int unixMode, boolean directory, long crc, long compressedSize, long size, long offset) {
+            this.name = name;
+            this.method = method;
+            this.time = time;
+            this.unixMode = unixMode;
+            this.directory = directory;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.offset = offset;
+        }
+
+        boolean needsZip64Sizes() {
+            return size >= ZIP64_MAGIC || compressedSize >= ZIP64_MAGIC;
+        }
+
+        int versionNeeded() {
+            return INITIAL_VERSION;
+        }
+
+        /**
+         * Whether the local header uses the ZIP64 sizes. Like Ant, they are used while the sizes are not known yet.
+         */
+        boolean localZip64Sizes() {
+            return localZip64Extra && (!sizesKnown || needsZip64Sizes());
+        }
+
+        int localVersionNeeded() {
+            return localZip64Sizes() ? ZIP64_VERSION : versionNeeded();
+        }
+
+        int externalAttributes() {
+            // Same as org.apache.tools.zip.ZipEntry.setUnixMode()
+            return (unixMode << 16) | ((unixMode & 0200) == 0 ? 1 : 0) | (directory ? 0x10 : 0);
+        }
+    }
+
+    private static class CrcOutputStream extends FilterOutputStream {
+        private final CRC32 crc = new CRC32();
+        private long count;
+
+        CrcOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            crc.update(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            crc.update(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() {
+            // The entry is finished by the writer
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() {
+            // The archive is closed by the writer
+        }
+    }
+}
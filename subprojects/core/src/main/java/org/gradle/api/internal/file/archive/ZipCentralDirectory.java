@@ -0,0 +1,405 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import org.gradle.api.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * The entries of a ZIP archive, as read from its central directory, with the same details as {@link org.apache.tools.zip.ZipFile} provides.
+ *
+ * <p>Unlike {@link org.apache.tools.zip.ZipFile}, the local headers of the entries are only read when the content of an entry is requested,
+ * and the content is read through a {@link FileChannel} without decompressing it to a file. The entries of an archive can be reused for as long as
+ * the length and last modified time of the archive do not change, see {@link ZipCentralDirectoryCache}.</p>
+ */
+public class ZipCentralDirectory {
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_LENGTH = 22;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LENGTH = 56;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_LENGTH = 20;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+    private static final int LOCAL_HEADER_LENGTH = 30;
+    private static final int CENTRAL_HEADER_LENGTH = 46;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_MAGIC_SHORT = 0xFFFF;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final int UNICODE_PATH_EXTRA_ID = 0x7075;
+    private static final int EXTENDED_TIMESTAMP_EXTRA_ID = 0x5455;
+    private static final int NTFS_EXTRA_ID = 0x000a;
+    private static final long WINDOWS_EPOCH_OFFSET_MILLIS = 11644473600000L;
+    private static final int ENCRYPTED_FLAG = 0x0001;
+    private static final int UTF8_FLAG = 0x0800;
+    private static final int PLATFORM_UNIX = 3;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Charset charset;
+    private final List<Entry> entries;
+
+    private ZipCentralDirectory(Charset charset, List<Entry> entries) {
+        this.charset = charset;
+        this.entries = entries;
+    }
+
+    /**
+     * Returns the entries of the given archive, or null when the archive cannot be read this way, such as when it is not a ZIP archive or spans
+     * several disks.
+     *
+     * @param channel A channel to read the archive from.
+     * @param charset The charset used to decode entry names that are not flagged as UTF-8, as given to {@link org.apache.tools.zip.ZipFile}.
+     */
+    @Nullable
+    public static ZipCentralDirectory read(FileChannel channel, Charset charset) throws IOException {
+        List<Entry> entries = readEntries(channel, charset);
+        return entries == null ? null : new ZipCentralDirectory(charset, entries);
+    }
+
+    /**
+     * Returns the charset that was used to decode the names of the entries.
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Returns the entries of the archive, in alphabetical order of their names. When several entries have the same name, only the last one is included.
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    @Nullable
+    private static List<Entry> readEntries(FileChannel channel, Charset charset) throws IOException {
+        long length = channel.size();
+        int tailLength = (int) Math.min(length, END_OF_CENTRAL_DIRECTORY_LENGTH + MAX_COMMENT_LENGTH);
+        ByteBuffer tail = read(channel, length - tailLength, tailLength);
+        if (tail == null) {
+            return null;
+        }
+        int end = -1;
+        for (int i = tailLength - END_OF_CENTRAL_DIRECTORY_LENGTH; i >= 0; i--) {
+            if (tail.getInt(i) == END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+                end = i;
+                break;
+            }
+        }
+        if (end < 0 || unsignedShort(tail, end + 4) != 0) {
+            return null;
+        }
+        long entryCount = unsignedShort(tail, end + 10);
+        long centralDirectorySize = unsignedInt(tail, end + 12);
+        long centralDirectoryOffset = unsignedInt(tail, end + 16);
+
+        if (entryCount == ZIP64_MAGIC_SHORT || centralDirectorySize == ZIP64_MAGIC || centralDirectoryOffset == ZIP64_MAGIC) {
+            long locatorOffset = length - tailLength + end - ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_LENGTH;
+            ByteBuffer locator = locatorOffset < 0 ? null : read(channel, locatorOffset, ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_LENGTH);
+            if (locator != null && locator.getInt(0) == ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE) {
+                ByteBuffer zip64End = read(channel, locator.getLong(8), ZIP64_END_OF_CENTRAL_DIRECTORY_LENGTH);
+                if (zip64End == null || zip64End.getInt(0) != ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+                    return null;
+                }
+                entryCount = zip64End.getLong(32);
+                centralDirectorySize = zip64End.getLong(40);
+                centralDirectoryOffset = zip64End.getLong(48);
+            }
+        }
+        if (centralDirectorySize > Integer.MAX_VALUE || centralDirectoryOffset < 0 || centralDirectoryOffset + centralDirectorySize > length) {
+            return null;
+        }
+
+        ByteBuffer centralDirectory = read(channel, centralDirectoryOffset, (int) centralDirectorySize);
+        if (centralDirectory == null) {
+            return null;
+        }
+        // The order of the entries in the archive isn't much use to us, so sort them by name
+        Map<String, Entry> entriesByName = new TreeMap<String, Entry>();
+        int pos = 0;
+        for (long i = 0; i < entryCount; i++) {
+            if (pos + CENTRAL_HEADER_LENGTH > centralDirectorySize || centralDirectory.getInt(pos) != CENTRAL_HEADER_SIGNATURE) {
+                return null;
+            }
+            int versionMadeBy = unsignedShort(centralDirectory, pos + 4);
+            int flags = unsignedShort(centralDirectory, pos + 8);
+            int method = unsignedShort(centralDirectory, pos + 10);
+            long time = dosToJavaTime(unsignedInt(centralDirectory, pos + 12));
+            long crc = unsignedInt(centralDirectory, pos + 16);
+            long compressedSize = unsignedInt(centralDirectory, pos + 20);
+            long size = unsignedInt(centralDirectory, pos + 24);
+            int nameLength = unsignedShort(centralDirectory, pos + 28);
+            int extraLength = unsignedShort(centralDirectory, pos + 30);
+            int commentLength = unsignedShort(centralDirectory, pos + 32);
+            long externalAttributes = unsignedInt(centralDirectory, pos + 38);
+            long localHeaderOffset = unsignedInt(centralDirectory, pos + 42);
+            int nameStart = pos + CENTRAL_HEADER_LENGTH;
+            int extraStart = nameStart + nameLength;
+            int next = extraStart + extraLength + commentLength;
+            if (next > centralDirectorySize) {
+                return null;
+            }
+            String name = new String(centralDirectory.array(), nameStart, nameLength, (flags & UTF8_FLAG) != 0 ? UTF_8 : charset);
+
+            // Apply the extra fields
+            for (int extra = extraStart; extra + 4 <= extraStart + extraLength;) {
+                int id = unsignedShort(centralDirectory, extra);
+                int dataLength = unsignedShort(centralDirectory, extra + 2);
+                int data = extra + 4;
+                if (data + dataLength > extraStart + extraLength) {
+                    break;
+                }
+                if (id == ZIP64_EXTRA_ID) {
+                    int field = data;
+                    if (size == ZIP64_MAGIC && field + 8 <= data + dataLength) {
+                        size = centralDirectory.getLong(field);
+                        field += 8;
+                    }
+                    if (compressedSize == ZIP64_MAGIC && field + 8 <= data + dataLength) {
+                        compressedSize = centralDirectory.getLong(field);
+                        field += 8;
+                    }
+                    if (localHeaderOffset == ZIP64_MAGIC && field + 8 <= data + dataLength) {
+                        localHeaderOffset = centralDirectory.getLong(field);
+                    }
+                } else if (id == EXTENDED_TIMESTAMP_EXTRA_ID && dataLength >= 5 && (centralDirectory.get(data) & 1) != 0) {
+                    // Same as java.util.zip.ZipEntry, which the entries of org.apache.tools.zip.ZipFile extend
+                    time = centralDirectory.getInt(data + 1) * 1000L;
+                } else if (id == NTFS_EXTRA_ID && dataLength >= 32 && unsignedShort(centralDirectory, data + 4) == 1 && unsignedShort(centralDirectory, data + 6) == 24) {
+                    time = centralDirectory.getLong(data + 8) / 10000 - WINDOWS_EPOCH_OFFSET_MILLIS;
+                } else if (id == UNICODE_PATH_EXTRA_ID && (flags & UTF8_FLAG) == 0 && dataLength > 5 && centralDirectory.get(data) == 1) {
+                    // Same as org.apache.tools.zip.ZipFile, which uses the unicode name when it was created from the same name
+                    CRC32 nameCrc = new CRC32();
+                    nameCrc.update(centralDirectory.array(), nameStart, nameLength);
+                    if (nameCrc.getValue() == unsignedInt(centralDirectory, data + 1)) {
+                        name = new String(centralDirectory.array(), data + 5, dataLength - 5, UTF_8);
+                    }
+                }
+                extra = data + dataLength;
+            }
+
+            int unixMode = ((versionMadeBy >> 8) & 0x0F) == PLATFORM_UNIX ? (int) ((externalAttributes >> 16) & 0xFFFF) : 0;
+            entriesByName.put(name, new Entry(name, flags, method, time, crc, compressedSize, size, unixMode, localHeaderOffset));
+            pos = next;
+        }
+        return Collections.unmodifiableList(new ArrayList<Entry>(entriesByName.values()));
+    }
+
+    @Nullable
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return null;
+            }
+        }
+        return buffer;
+    }
+
+    private static int unsignedShort(ByteBuffer buffer, int index) {
+        return buffer.getShort(index) & 0xFFFF;
+    }
+
+    private static long unsignedInt(ByteBuffer buffer, int index) {
+        return buffer.getInt(index) & ZIP64_MAGIC;
+    }
+
+    /**
+     * Converts a MS-DOS date and time to a Java time, in the default time zone, in the same way as {@link org.apache.tools.zip.ZipUtil} does.
+     */
+    private static long dosToJavaTime(long dosTime) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(Calendar.YEAR, (int) ((dosTime >> 25) & 0x7f) + 1980);
+        calendar.set(Calendar.MONTH, (int) ((dosTime >> 21) & 0x0f) - 1);
+        calendar.set(Calendar.DATE, (int) (dosTime >> 16) & 0x1f);
+        calendar.set(Calendar.HOUR_OF_DAY, (int) (dosTime >> 11) & 0x1f);
+        calendar.set(Calendar.MINUTE, (int) (dosTime >> 5) & 0x3f);
+        calendar.set(Calendar.SECOND, (int) (dosTime << 1) & 0x3e);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar.getTimeInMillis();
+    }
+
+    /**
+     * An entry of an archive. The content of the entry is read from a channel for the archive, which must be kept open while the content is being read.
+     */
+    public static class Entry {
+        private final String name;
+        private final int flags;
+        private final int method;
+        private final long time;
+        private final long crc;
+        private final long compressedSize;
+        private final long size;
+        private final int unixMode;
+        private final long localHeaderOffset;
+
+        private Entry(String name, int flags, int method, long time, long crc, long compressedSize, long size, int unixMode, long localHeaderOffset) {
+            this.name = name;
+            this.flags = flags;
+            this.method = method;
+            this.time = time;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.unixMode = unixMode;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isDirectory() {
+            return name.endsWith("/");
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Returns the unix mode of this entry, or 0 when the entry was not created on a unix platform.
+         */
+        public int getUnixMode() {
+            return unixMode;
+        }
+
+        public InputStream open(FileChannel channel) throws IOException {
+            if ((flags & ENCRYPTED_FLAG) != 0) {
+                throw new ZipException(String.format("Entry '%s' of the archive is encrypted, which is not supported.", name));
+            }
+            if (method == STORED) {
+                return new ChannelInputStream(channel, getDataOffset(channel), compressedSize, false);
+            }
+            if (method == DEFLATED) {
+                final Inflater inflater = new Inflater(true);
+                // The inflater needs an extra dummy byte after the compressed data
+                return new InflaterInputStream(new ChannelInputStream(channel, getDataOffset(channel), compressedSize, true), inflater, 8192) {
+                    private boolean closed;
+
+                    @Override
+                    public void close() throws IOException {
+                        if (!closed) {
+                            closed = true;
+                            inflater.end();
+                        }
+                    }
+                };
+            }
+            throw new ZipException(String.format("Entry '%s' of the archive uses unsupported compression method %s.", name, method));
+        }
+
+        /**
+         * Returns the compressed content of this entry, or null when it cannot be copied as is.
+         */
+        @Nullable
+        public RawZipEntry getRawEntry(FileChannel channel) throws IOException {
+            if ((flags & ENCRYPTED_FLAG) != 0 || (method != STORED && method != DEFLATED)) {
+                return null;
+            }
+            return new RawZipEntry(channel, method, crc, compressedSize, size, getDataOffset(channel));
+        }
+
+        private long getDataOffset(FileChannel channel) throws IOException {
+            ByteBuffer localHeader = read(channel, localHeaderOffset, LOCAL_HEADER_LENGTH);
+            if (localHeader == null || localHeader.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+                throw new ZipException(String.format("Could not find the local header of entry '%s' of the archive.", name));
+            }
+            return localHeaderOffset + LOCAL_HEADER_LENGTH + unsignedShort(localHeader, 26) + unsignedShort(localHeader, 28);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private static class ChannelInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+        private boolean addDummyByte;
+
+        ChannelInputStream(FileChannel channel, long start, long length, boolean addDummyByte) {
+            this.channel = channel;
+            this.position = start;
+            this.end = start + length;
+            this.addDummyByte = addDummyByte;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] buffer = new byte[1];
+            return read(buffer, 0, 1) < 0 ? -1 : buffer[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (position >= end) {
+                if (addDummyByte) {
+                    addDummyByte = false;
+                    buffer[offset] = 0;
+                    return 1;
+                }
+                return -1;
+            }
+            int count = channel.read(ByteBuffer.wrap(buffer, offset, (int) Math.min(length, end - position)), position);
+            if (count < 0) {
+                throw new ZipException("Unexpected end of ZIP archive.");
+            }
+            position += count;
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, end - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, end - position);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.cache.CrossBuildInMemoryCache;
+import org.gradle.api.internal.cache.CrossBuildInMemoryCacheFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Retains the central directories of ZIP archives across builds, so that visiting an archive that has not changed does not read its central directory again.
+ *
+ * <p>An archive is identified by its absolute path, length and last modified time, the same way that {@link org.gradle.api.internal.changedetection.state.CachingFileHasher}
+ * decides whether to hash a file again. Checking this costs a single file system lookup, whereas hashing the archive would read all of it.</p>
+ */
+public class ZipCentralDirectoryCache {
+    private final CrossBuildInMemoryCache<ArchiveKey, ZipCentralDirectory> cache;
+
+    public ZipCentralDirectoryCache(CrossBuildInMemoryCacheFactory cacheFactory) {
+        this.cache = cacheFactory.newCache();
+    }
+
+    /**
+     * Returns the central directory of the given archive, reading it from the given channel when the archive has changed since it was last read.
+     *
+     * @see ZipCentralDirectory#read(FileChannel, Charset)
+     */
+    @Nullable
+    public ZipCentralDirectory get(File zipFile, FileChannel channel, Charset charset) throws IOException {
+        ArchiveKey key = new ArchiveKey(zipFile.getAbsolutePath(), channel.size(), zipFile.lastModified());
+        ZipCentralDirectory directory = cache.get(key);
+        if (directory != null && directory.getCharset().equals(charset)) {
+            return directory;
+        }
+        directory = ZipCentralDirectory.read(channel, charset);
+        if (directory != null) {
+            cache.put(key, directory);
+        }
+        return directory;
+    }
+
+    private static class ArchiveKey {
+        private final String path;
+        private final long length;
+        private final long lastModified;
+
+        ArchiveKey(String path, long length, long lastModified) {
+            this.path = path;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ArchiveKey other = (ArchiveKey) o;
+            return length == other.length && lastModified == other.lastModified && path.equals(other.path);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = path.hashCode();
+            result = 31 * result + (int) (length ^ (length >>> 32));
+            result = 31 * result + (int) (lastModified ^ (lastModified >>> 32));
+            return result;
+        }
+    }
+}
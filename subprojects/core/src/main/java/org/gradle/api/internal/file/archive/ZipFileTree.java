@@ -19,6 +19,7 @@ import org.apache.tools.zip.ZipEntry;
 import org.apache.tools.zip.ZipFile;
 import org.gradle.api.GradleException;
 import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.Nullable;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
@@ -33,6 +34,9 @@ import org.gradle.internal.nativeintegration.filesystem.FileSystem;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.Map;
@@ -43,12 +47,21 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
     private final File zipFile;
     private final Chmod chmod;
     private final DirectoryFileTreeFactory directoryFileTreeFactory;
+    private final ZipCentralDirectoryCache centralDirectoryCache;
     private final File tmpDir;
 
     public ZipFileTree(File zipFile, File tmpDir, Chmod chmod, DirectoryFileTreeFactory directoryFileTreeFactory) {
+        this(zipFile, tmpDir, chmod, directoryFileTreeFactory, null);
+    }
+
+    /**
+     * Creates a tree that looks up the central directory of the archive in the given cache.
+     */
+    public ZipFileTree(File zipFile, File tmpDir, Chmod chmod, DirectoryFileTreeFactory directoryFileTreeFactory, @Nullable ZipCentralDirectoryCache centralDirectoryCache) {
         this.zipFile = zipFile;
         this.chmod = chmod;
         this.directoryFileTreeFactory = directoryFileTreeFactory;
+        this.centralDirectoryCache = centralDirectoryCache;
         String expandDirName = zipFile.getName() + "_" + HashUtil.createCompactMD5(zipFile.getAbsolutePath());
         this.tmpDir = new File(tmpDir, expandDirName);
     }
@@ -72,52 +85,82 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
         AtomicBoolean stopFlag = new AtomicBoolean();
 
         try {
-            ZipFile zip = new ZipFile(zipFile);
+            RandomAccessFile file = new RandomAccessFile(zipFile, "r");
             try {
-                // The iteration order of zip.getEntries() is based on the hash of the zip entry. This isn't much use
-                // to us. So, collect the entries in a map and iterate over them in alphabetical order.
-                Map<String, ZipEntry> entriesByName = new TreeMap<String, ZipEntry>();
-                Enumeration entries = zip.getEntries();
-                while (entries.hasMoreElements()) {
-                    ZipEntry entry = (ZipEntry) entries.nextElement();
-                    entriesByName.put(entry.getName(), entry);
-                }
-                Iterator<ZipEntry> sortedEntries = entriesByName.values().iterator();
-                while (!stopFlag.get() && sortedEntries.hasNext()) {
-                    ZipEntry entry = sortedEntries.next();
-                    if (entry.isDirectory()) {
-                        visitor.visitDir(new DetailsImpl(entry, zip, stopFlag, chmod));
-                    } else {
-                        visitor.visitFile(new DetailsImpl(entry, zip, stopFlag, chmod));
+                FileChannel channel = file.getChannel();
+                ZipCentralDirectory centralDirectory = readCentralDirectory(channel);
+                if (centralDirectory != null) {
+                    Iterator<ZipCentralDirectory.Entry> sortedEntries = centralDirectory.getEntries().iterator();
+                    while (!stopFlag.get() && sortedEntries.hasNext()) {
+                        ZipCentralDirectory.Entry entry = sortedEntries.next();
+                        if (entry.isDirectory()) {
+                            visitor.visitDir(new DetailsImpl(entry, channel, stopFlag, chmod));
+                        } else {
+                            visitor.visitFile(new DetailsImpl(entry, channel, stopFlag, chmod));
+                        }
                     }
+                    return;
                 }
             } finally {
-                zip.close();
+                file.close();
             }
+            // Not an archive that can be read from its central directory, so let Ant have a go at it
+            visitWithZipFile(visitor, stopFlag);
         } catch (Exception e) {
             throw new GradleException(String.format("Could not expand %s.", getDisplayName()), e);
         }
     }
 
+    @Nullable
+    private ZipCentralDirectory readCentralDirectory(FileChannel channel) throws IOException {
+        if (centralDirectoryCache == null) {
+            return ZipCentralDirectory.read(channel, Charset.defaultCharset());
+        }
+        return centralDirectoryCache.get(zipFile, channel, Charset.defaultCharset());
+    }
+
+    private void visitWithZipFile(FileVisitor visitor, AtomicBoolean stopFlag) throws IOException {
+        ZipFile zip = new ZipFile(zipFile);
+        try {
+            // The iteration order of zip.getEntries() is based on the hash of the zip entry. This isn't much use
+            // to us. So, collect the entries in a map and iterate over them in alphabetical order.
+            Map<String, ZipEntry> entriesByName = new TreeMap<String, ZipEntry>();
+            Enumeration entries = zip.getEntries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = (ZipEntry) entries.nextElement();
+                entriesByName.put(entry.getName(), entry);
+            }
+            Iterator<ZipEntry> sortedEntries = entriesByName.values().iterator();
+            while (!stopFlag.get() && sortedEntries.hasNext()) {
+                ZipEntry entry = sortedEntries.next();
+                if (entry.isDirectory()) {
+                    visitor.visitDir(new ZipFileDetails(entry, zip, stopFlag, chmod));
+                } else {
+                    visitor.visitFile(new ZipFileDetails(entry, zip, stopFlag, chmod));
+                }
+            }
+        } finally {
+            zip.close();
+        }
+    }
+
     private File getBackingFile() {
         return zipFile;
     }
 
-    private class DetailsImpl extends AbstractFileTreeElement implements FileVisitDetails {
-        private final ZipEntry entry;
-        private final ZipFile zip;
+    private abstract class AbstractDetails extends AbstractFileTreeElement implements FileVisitDetails {
+        private final String name;
         private final AtomicBoolean stopFlag;
         private File file;
 
-        public DetailsImpl(ZipEntry entry, ZipFile zip, AtomicBoolean stopFlag, Chmod chmod) {
+        protected AbstractDetails(String name, AtomicBoolean stopFlag, Chmod chmod) {
             super(chmod);
-            this.entry = entry;
-            this.zip = zip;
+            this.name = name;
             this.stopFlag = stopFlag;
         }
 
         public String getDisplayName() {
-            return String.format("zip entry %s!%s", zipFile, entry.getName());
+            return String.format("zip entry %s!%s", zipFile, name);
         }
 
         public void stopVisiting() {
@@ -126,7 +169,7 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
 
         public File getFile() {
             if (file == null) {
-                file = new File(tmpDir, entry.getName());
+                file = new File(tmpDir, name);
                 if (file.exists()) {
                     file.setWritable(true);
                 }
@@ -135,6 +178,36 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
             return file;
         }
 
+        public RelativePath getRelativePath() {
+            return new RelativePath(!isDirectory(), name.split("/"));
+        }
+
+        public int getMode() {
+            int unixMode = getUnixMode() & 0777;
+            if (unixMode == 0) {
+                //no mode infos available - fall back to defaults
+                if (isDirectory()) {
+                    unixMode = FileSystem.DEFAULT_DIR_MODE;
+                } else {
+                    unixMode = FileSystem.DEFAULT_FILE_MODE;
+                }
+            }
+            return unixMode;
+        }
+
+        protected abstract int getUnixMode();
+    }
+
+    private class DetailsImpl extends AbstractDetails implements RawZipEntrySource {
+        private final ZipCentralDirectory.Entry entry;
+        private final FileChannel channel;
+
+        public DetailsImpl(ZipCentralDirectory.Entry entry, FileChannel channel, AtomicBoolean stopFlag, Chmod chmod) {
+            super(entry.getName(), stopFlag, chmod);
+            this.entry = entry;
+            this.channel = channel;
+        }
+
         public long getLastModified() {
             return entry.getTime();
         }
@@ -149,27 +222,62 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
 
         public InputStream open() {
             try {
-                return zip.getInputStream(entry);
+                return entry.open(channel);
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
             }
         }
 
-        public RelativePath getRelativePath() {
-            return new RelativePath(!entry.isDirectory(), entry.getName().split("/"));
+        public RawZipEntry getRawZipEntry() {
+            if (entry.isDirectory()) {
+                return null;
+            }
+            try {
+                return entry.getRawEntry(channel);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
         }
 
-        public int getMode() {
-            int unixMode = entry.getUnixMode() & 0777;
-            if (unixMode == 0) {
-                //no mode infos available - fall back to defaults
-                if (isDirectory()) {
-                    unixMode = FileSystem.DEFAULT_DIR_MODE;
-                } else {
-                    unixMode = FileSystem.DEFAULT_FILE_MODE;
-                }
+        @Override
+        protected int getUnixMode() {
+            return entry.getUnixMode();
+        }
+    }
+
+    private class ZipFileDetails extends AbstractDetails {
+        private final ZipEntry entry;
+        private final ZipFile zip;
+
+        public ZipFileDetails(ZipEntry entry, ZipFile zip, AtomicBoolean stopFlag, Chmod chmod) {
+            super(entry.getName(), stopFlag, chmod);
+            this.entry = entry;
+            this.zip = zip;
+        }
+
+        public long getLastModified() {
+            return entry.getTime();
+        }
+
+        public boolean isDirectory() {
+            return entry.isDirectory();
+        }
+
+        public long getSize() {
+            return entry.getSize();
+        }
+
+        public InputStream open() {
+            try {
+                return zip.getInputStream(entry);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
-            return unixMode;
+        }
+
+        @Override
+        protected int getUnixMode() {
+            return entry.getUnixMode();
         }
     }
 
@@ -24,6 +24,7 @@ import org.gradle.api.file.RelativePath;
 import org.gradle.api.file.ReproducibleFileVisitor;
 import org.gradle.api.internal.file.DefaultFileVisitDetails;
 import org.gradle.api.internal.file.FileSystemSubset;
+import org.gradle.api.internal.file.collections.jdk7.ParallelDirectoryWalker;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.specs.Spec;
@@ -52,6 +53,9 @@ public class DirectoryFileTree implements MinimalFileTree, PatternFilterableFile
     private static final Logger LOGGER = Logging.getLogger(DirectoryFileTree.class);
     private static final Factory<DirectoryWalker> DEFAULT_DIRECTORY_WALKER_FACTORY = new DefaultDirectoryWalkerFactory();
     private static final DirectoryWalker REPRODUCIBLE_DIRECTORY_WALKER = new ReproducibleDirectoryWalker(FileSystems.getDefault());
+    private static final boolean PARALLEL_WALKING = Boolean.getBoolean(ParallelDirectoryWalker.PARALLEL_WALKING_PROPERTY);
+    private static final DirectoryWalker ORDERED_PARALLEL_DIRECTORY_WALKER = PARALLEL_WALKING ? new ParallelDirectoryWalker(FileSystems.getDefault(), true) : null;
+    private static final DirectoryWalker UNORDERED_PARALLEL_DIRECTORY_WALKER = PARALLEL_WALKING ? new ParallelDirectoryWalker(FileSystems.getDefault(), false) : null;
 
     private final File dir;
     private final PatternSet patternSet;
@@ -71,6 +75,13 @@ public class DirectoryFileTree implements MinimalFileTree, PatternFilterableFile
         this.postfix = postfix;
     }
 
+    /**
+     * Returns true when thread-safe visitors may be called concurrently, in no particular order.
+     */
+    public static boolean isWalkingInParallel() {
+        return PARALLEL_WALKING;
+    }
+
     public String getDisplayName() {
         String includes = patternSet.getIncludes().isEmpty() ? "" : String.format(" include %s", GUtil.toString(patternSet.getIncludes()));
         String excludes = patternSet.getExcludes().isEmpty() ? "" : String.format(" exclude %s", GUtil.toString(patternSet.getExcludes()));
@@ -148,7 +159,9 @@ public class DirectoryFileTree implements MinimalFileTree, PatternFilterableFile
     private void walkDir(File file, RelativePath path, FileVisitor visitor, Spec<FileTreeElement> spec, AtomicBoolean stopFlag) {
         DirectoryWalker directoryWalker;
         if (visitor instanceof ReproducibleFileVisitor && ((ReproducibleFileVisitor) visitor).isReproducibleFileOrder()) {
-            directoryWalker = REPRODUCIBLE_DIRECTORY_WALKER;
+            directoryWalker = PARALLEL_WALKING ? ORDERED_PARALLEL_DIRECTORY_WALKER : REPRODUCIBLE_DIRECTORY_WALKER;
+        } else if (PARALLEL_WALKING && visitor instanceof ThreadSafeFileVisitor && ((ThreadSafeFileVisitor) visitor).isThreadSafe()) {
+            directoryWalker = UNORDERED_PARALLEL_DIRECTORY_WALKER;
         } else {
             directoryWalker = directoryWalkerFactory.create();
         }
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.collections;
+
+import org.gradle.api.file.FileVisitor;
+
+/**
+ * Visitor which can receive files and directories from multiple threads at once.
+ */
+public interface ThreadSafeFileVisitor extends FileVisitor {
+    /**
+     * Whether the {@link FileVisitor} can be called concurrently. Directories are still visited before their contents, unless visiting in postfix order.
+     *
+     * @return <tt>true</tt> if the visitor can be called concurrently.
+     */
+    boolean isThreadSafe();
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.collections.jdk7;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.file.DefaultFileVisitDetails;
+import org.gradle.api.internal.file.collections.DirectoryWalker;
+import org.gradle.api.specs.Spec;
+import org.gradle.internal.nativeintegration.filesystem.FileSystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link DirectoryWalker} that lists directories concurrently using a fork-join pool.
+ *
+ * <p>In ordered mode, the visitor is only called from the walking thread, in the same order as
+ * {@link org.gradle.api.internal.file.collections.ReproducibleDirectoryWalker}. The listings of the child directories of a
+ * directory are fetched concurrently while the directory is being visited.</p>
+ *
+ * <p>In unordered mode, each directory is listed and visited by a separate task, so the visitor must be thread-safe.
+ * A directory is visited before its contents, or after them when walking in postfix order.</p>
+ *
+ * <p>Symbolic links are followed. As with {@link Jdk7DirectoryWalker}, a directory that is the same as one of its ancestors is skipped, so that link cycles
+ * do not recurse without bound.</p>
+ */
+public class ParallelDirectoryWalker implements DirectoryWalker {
+    public static final String PARALLEL_WALKING_PROPERTY = "org.gradle.internal.file.parallel.walk";
+
+    private static final ForkJoinPool POOL = new ForkJoinPool();
+
+    private final FileSystem fileSystem;
+    private final boolean ordered;
+
+    public ParallelDirectoryWalker(FileSystem fileSystem, boolean ordered) {
+        this.fileSystem = fileSystem;
+        this.ordered = ordered;
+    }
+
+    @Override
+    public void walkDir(File file, RelativePath path, FileVisitor visitor, Spec<? super FileTreeElement> spec, AtomicBoolean stopFlag, boolean postfix) {
+        if (ordered) {
+            Children children = listChildren(file, true);
+            walkOrdered(children, new Ancestors(children.key, null), path, visitor, spec, stopFlag, postfix);
+            return;
+        }
+        AtomicReference<RuntimeException> failure = new AtomicReference<RuntimeException>();
+        POOL.invoke(new WalkDirectory(file, path, null, null, visitor, spec, stopFlag, postfix, failure));
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    private void walkOrdered(Children children, Ancestors ancestors, RelativePath path, FileVisitor visitor, Spec<? super FileTreeElement> spec, AtomicBoolean stopFlag, boolean postfix) {
+        children.rethrowFailure();
+        List<FileVisitDetails> dirs = new ArrayList<FileVisitDetails>();
+        List<ForkJoinTask<Children>> listings = new ArrayList<ForkJoinTask<Children>>();
+        for (int i = 0; !stopFlag.get() && i < children.files.length; i++) {
+            File child = children.files[i];
+            boolean isFile = children.isFile[i];
+            RelativePath childPath = path.append(isFile, child.getName());
+            FileVisitDetails details = new DefaultFileVisitDetails(child, childPath, stopFlag, fileSystem, fileSystem, !isFile);
+            if (spec.isSatisfiedBy(details)) {
+                if (isFile) {
+                    visitor.visitFile(details);
+                } else {
+                    dirs.add(details);
+                    listings.add(POOL.submit(new ListDirectory(child)));
+                }
+            }
+        }
+
+        // now handle dirs, the listings of which are being fetched concurrently
+        for (int i = 0; !stopFlag.get() && i < dirs.size(); i++) {
+            FileVisitDetails dir = dirs.get(i);
+            Children dirChildren = listings.get(i).join();
+            if (ancestors.contains(dirChildren.key)) {
+                continue;
+            }
+            Ancestors dirAncestors = new Ancestors(dirChildren.key, ancestors);
+            if (postfix) {
+                walkOrdered(dirChildren, dirAncestors, dir.getRelativePath(), visitor, spec, stopFlag, postfix);
+                visitor.visitDir(dir);
+            } else {
+                visitor.visitDir(dir);
+                walkOrdered(dirChildren, dirAncestors, dir.getRelativePath(), visitor, spec, stopFlag, postfix);
+            }
+        }
+    }
+
+    private static Children listChildren(File file, boolean sorted) {
+        Object key = fileKey(file);
+        File[] files = file.listFiles();
+        if (files == null) {
+            if (file.isDirectory() && !file.canRead()) {
+                return new Children(key, new GradleException(String.format("Could not list contents of directory '%s' as it is not readable.", file)));
+            }
+            // else, might be a link which points to nothing, or has been removed while we're visiting, or ...
+            return new Children(key, new GradleException(String.format("Could not list contents of '%s'.", file)));
+        }
+        if (sorted) {
+            Arrays.sort(files);
+        }
+        boolean[] isFile = new boolean[files.length];
+        for (int i = 0; i < files.length; i++) {
+            isFile[i] = files[i].isFile();
+        }
+        return new Children(key, files, isFile);
+    }
+
+    /**
+     * Returns a key that identifies the given directory after following symbolic links, in the same way that {@link Files#walkFileTree} detects cycles.
+     */
+    private static Object fileKey(File dir) {
+        try {
+            Object key = Files.readAttributes(dir.toPath(), BasicFileAttributes.class).fileKey();
+            return key != null ? key : dir.getCanonicalFile();
+        } catch (IOException e) {
+            // Cannot be read, and listing will fail too
+            return dir.getAbsoluteFile();
+        }
+    }
+
+    private static class Ancestors {
+        private final Object key;
+        private final Ancestors parent;
+
+        Ancestors(Object key, Ancestors parent) {
+            this.key = key;
+            this.parent = parent;
+        }
+
+        boolean contains(Object key) {
+            for (Ancestors ancestor = this; ancestor != null; ancestor = ancestor.parent) {
+                if (ancestor.key.equals(key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class Children {
+        private static final File[] NO_FILES = new File[0];
+
+        private final Object key;
+        private final File[] files;
+        private final boolean[] isFile;
+        private final RuntimeException failure;
+
+        Children(Object key, File[] files, boolean[] isFile) {
+            this.key = key;
+            this.files = files;
+            this.isFile = isFile;
+            this.failure = null;
+        }
+
+        Children(Object key, RuntimeException failure) {
+            this.key = key;
+            this.files = NO_FILES;
+            this.isFile = new boolean[0];
+            this.failure = failure;
+        }
+
+        void rethrowFailure() {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private static class ListDirectory extends RecursiveTask<Children> {
+        private final File dir;
+
+        ListDirectory(File dir) {
+            this.dir = dir;
+        }
+
+        @Override
+        protected Children compute() {
+            return listChildren(dir, true);
+        }
+    }
+
+    private class WalkDirectory extends RecursiveAction {
+        private final File dir;
+        private final RelativePath path;
+        private final FileVisitDetails details;
+        private final Ancestors ancestors;
+        private final FileVisitor visitor;
+        private final Spec<? super FileTreeElement> spec;
+        private final AtomicBoolean stopFlag;
+        private final boolean postfix;
+        private final AtomicReference<RuntimeException> failure;
+
+        WalkDirectory(File dir, RelativePath path, FileVisitDetails details, Ancestors ancestors, FileVisitor visitor, Spec<? super FileTreeElement> spec, AtomicBoolean stopFlag, boolean postfix, AtomicReference<RuntimeException> failure) {
+            this.dir = dir;
+            this.path = path;
+            this.details = details;
+            this.ancestors = ancestors;
+            this.visitor = visitor;
+            this.spec = spec;
+            this.stopFlag = stopFlag;
+            this.postfix = postfix;
+            this.failure = failure;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                walk();
+            } catch (RuntimeException e) {
+                // Keep the original exception, rather than the copy that the fork-join framework would rethrow
+                failure.compareAndSet(null, e);
+                stopFlag.set(true);
+            }
+        }
+
+        private void walk() {
+            if (stopFlag.get()) {
+                return;
+            }
+            Children children = listChildren(dir, false);
+            if (ancestors != null && ancestors.contains(children.key)) {
+                return;
+            }
+            Ancestors dirAncestors = new Ancestors(children.key, ancestors);
+            if (details != null && !postfix) {
+                visitor.visitDir(details);
+            }
+            children.rethrowFailure();
+            List<WalkDirectory> subdirs = new ArrayList<WalkDirectory>();
+            for (int i = 0; !stopFlag.get() && i < children.files.length; i++) {
+                File child = children.files[i];
+                boolean isFile = children.isFile[i];
+                RelativePath childPath = path.append(isFile, child.getName());
+                FileVisitDetails childDetails = new DefaultFileVisitDetails(child, childPath, stopFlag, fileSystem, fileSystem, !isFile);
+                if (spec.isSatisfiedBy(childDetails)) {
+                    if (isFile) {
+                        visitor.visitFile(childDetails);
+                    } else {
+                        subdirs.add(new WalkDirectory(child, childPath, childDetails, dirAncestors, visitor, spec, stopFlag, postfix, failure));
+                    }
+                }
+            }
+            invokeAll(subdirs);
+            if (details != null && postfix && !stopFlag.get()) {
+                visitor.visitDir(details);
+            }
+        }
+    }
+}
@@ -23,12 +23,15 @@ import org.gradle.api.file.DuplicatesStrategy;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.file.AbstractFileTreeElement;
+import org.gradle.api.internal.file.DefaultFileVisitDetails;
+import org.gradle.api.internal.file.archive.RawZipEntry;
+import org.gradle.api.internal.file.archive.RawZipEntrySource;
 import org.gradle.internal.nativeintegration.filesystem.Chmod;
 
 import java.io.*;
 import java.util.Map;
 
-public class DefaultFileCopyDetails extends AbstractFileTreeElement implements FileVisitDetails, FileCopyDetailsInternal {
+public class DefaultFileCopyDetails extends AbstractFileTreeElement implements FileVisitDetails, FileCopyDetailsInternal, RawZipEntrySource {
     private final FileVisitDetails fileDetails;
     private final CopySpecResolver specResolver;
     private final FilterChain filterChain;
@@ -109,6 +112,17 @@ public class DefaultFileCopyDetails extends AbstractFileTreeElement implements F
         }
     }
 
+    public boolean isCopyableConcurrently() {
+        return !filterChain.hasFilters() && fileDetails instanceof DefaultFileVisitDetails;
+    }
+
+    public RawZipEntry getRawZipEntry() {
+        if (!filterChain.hasFilters() && fileDetails instanceof RawZipEntrySource) {
+            return ((RawZipEntrySource) fileDetails).getRawZipEntry();
+        }
+        return null;
+    }
+
     private void adaptPermissions(File target) {
         int specMode = getMode();
         getChmod().chmod(target, specMode);
@@ -32,6 +32,14 @@ public class DefaultZipCompressor implements ZipCompressor {
         zip64Mode = allowZip64Mode ? Zip64Mode.AsNeeded : Zip64Mode.Never;
     }
 
+    public int getEntryCompressionMethod() {
+        return entryCompressionMethod;
+    }
+
+    public boolean isZip64Allowed() {
+        return zip64Mode == Zip64Mode.AsNeeded;
+    }
+
     public ZipOutputStream createArchiveOutputStream(File destination) throws IOException {
         ZipOutputStream outStream = new ZipOutputStream(destination);
         try {
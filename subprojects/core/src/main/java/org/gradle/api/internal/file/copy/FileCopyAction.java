@@ -15,25 +15,57 @@
  */
 package org.gradle.api.internal.file.copy;
 
+import org.gradle.api.Action;
 import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
 import org.gradle.api.internal.tasks.SimpleWorkResult;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.internal.file.PathToFileResolver;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.progress.BuildOperationDescriptor;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Copies each file to the destination as it is processed.
+ *
+ * <p>When a {@link BuildOperationExecutor} is given, directories are still created as they are processed, but the files that
+ * can be copied concurrently are collected and copied in batches, once all files have been processed. Files with the same target are copied
+ * one after the other, in processing order, so that the last one wins as when copying serially.</p>
+ */
 public class FileCopyAction implements CopyAction {
+    private static final int FILES_PER_BATCH = 100;
 
     private final PathToFileResolver fileResolver;
+    private final BuildOperationExecutor buildOperationExecutor;
 
     public FileCopyAction(PathToFileResolver fileResolver) {
+        this(fileResolver, null);
+    }
+
+    public FileCopyAction(PathToFileResolver fileResolver, BuildOperationExecutor buildOperationExecutor) {
         this.fileResolver = fileResolver;
+        this.buildOperationExecutor = buildOperationExecutor;
     }
 
     public WorkResult execute(CopyActionProcessingStream stream) {
-        FileCopyDetailsInternalAction action = new FileCopyDetailsInternalAction();
+        if (buildOperationExecutor == null) {
+            FileCopyDetailsInternalAction action = new FileCopyDetailsInternalAction();
+            stream.process(action);
+            return new SimpleWorkResult(action.didWork);
+        }
+
+        DeferringFileCopyDetailsInternalAction action = new DeferringFileCopyDetailsInternalAction();
         stream.process(action);
-        return new SimpleWorkResult(action.didWork);
+        action.copyFiles();
+        return new SimpleWorkResult(action.didWork.get());
     }
 
     private class FileCopyDetailsInternalAction implements CopyActionProcessingStreamAction {
@@ -47,4 +79,87 @@ public class FileCopyAction implements CopyAction {
             }
         }
     }
+
+    private class DeferringFileCopyDetailsInternalAction implements CopyActionProcessingStreamAction {
+        private final AtomicBoolean didWork = new AtomicBoolean();
+        private final Map<File, List<FileCopyDetailsInternal>> filesByTarget = new LinkedHashMap<File, List<FileCopyDetailsInternal>>();
+
+        public void processFile(FileCopyDetailsInternal details) {
+            File target = fileResolver.resolve(details.getRelativePath().getPathString());
+            if (details.isDirectory() || !details.isCopyableConcurrently()) {
+                // Create directories in order, before any file is copied into them, and copy other files while they can still be read.
+                // Copy the files already collected for the same target first, so that the last one still wins.
+                List<FileCopyDetailsInternal> pending = filesByTarget.remove(target);
+                if (pending != null) {
+                    for (FileCopyDetailsInternal pendingDetails : pending) {
+                        copy(pendingDetails, target);
+                    }
+                }
+                copy(details, target);
+                return;
+            }
+            List<FileCopyDetailsInternal> files = filesByTarget.get(target);
+            if (files == null) {
+                files = new ArrayList<FileCopyDetailsInternal>(1);
+                filesByTarget.put(target, files);
+            }
+            files.add(details);
+        }
+
+        void copyFiles() {
+            if (filesByTarget.size() <= FILES_PER_BATCH) {
+                new CopyFiles(new ArrayList<Map.Entry<File, List<FileCopyDetailsInternal>>>(filesByTarget.entrySet())).copy();
+                return;
+            }
+            buildOperationExecutor.runAll(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
+                @Override
+                public void execute(BuildOperationQueue<RunnableBuildOperation> queue) {
+                    List<Map.Entry<File, List<FileCopyDetailsInternal>>> batch = new ArrayList<Map.Entry<File, List<FileCopyDetailsInternal>>>(FILES_PER_BATCH);
+                    for (Map.Entry<File, List<FileCopyDetailsInternal>> entry : filesByTarget.entrySet()) {
+                        batch.add(entry);
+                        if (batch.size() == FILES_PER_BATCH) {
+                            queue.add(new CopyFiles(batch));
+                            batch = new ArrayList<Map.Entry<File, List<FileCopyDetailsInternal>>>(FILES_PER_BATCH);
+                        }
+                    }
+                    if (!batch.isEmpty()) {
+                        queue.add(new CopyFiles(batch));
+                    }
+                }
+            });
+        }
+
+        private void copy(FileCopyDetailsInternal details, File target) {
+            boolean copied = details.copyTo(target);
+            if (copied) {
+                didWork.set(true);
+            }
+        }
+
+        private class CopyFiles implements RunnableBuildOperation {
+            private final List<Map.Entry<File, List<FileCopyDetailsInternal>>> files;
+
+            CopyFiles(List<Map.Entry<File, List<FileCopyDetailsInternal>>> files) {
+                this.files = files;
+            }
+
+            void copy() {
+                for (Map.Entry<File, List<FileCopyDetailsInternal>> entry : files) {
+                    for (FileCopyDetailsInternal details : entry.getValue()) {
+                        DeferringFileCopyDetailsInternalAction.this.copy(details, entry.getKey());
+                    }
+                }
+            }
+
+            @Override
+            public void run(BuildOperationContext context) {
+                copy();
+            }
+
+            @Override
+            public BuildOperationDescriptor.Builder description() {
+                return BuildOperationDescriptor.displayName("Copy " + files.size() + " files to " + files.get(0).getKey().getParentFile());
+            }
+        }
+    }
 }
@@ -22,4 +22,10 @@ public interface FileCopyDetailsInternal extends FileCopyDetails {
 
     boolean isIncludeEmptyDirs();
 
+    /**
+     * Returns true when this file can still be copied after the visit of its source has moved on, from any thread.
+     * This is not the case for entries streamed from an archive, or when filters are applied.
+     */
+    boolean isCopyableConcurrently();
+
 }
@@ -118,6 +118,10 @@ public class NormalizingCopyActionDecorator implements CopyAction {
             return includeEmptyDirs;
         }
 
+        public boolean isCopyableConcurrently() {
+            return false;
+        }
+
         @Override
         public String getDisplayName() {
             return path.toString();
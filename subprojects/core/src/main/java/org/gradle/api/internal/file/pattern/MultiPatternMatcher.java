@@ -0,0 +1,186 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.pattern;
+
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.specs.Spec;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Matches a path against a collection of patterns at once, and is satisfied when any of the patterns matches.
+ *
+ * <p>The leading literal segments of the patterns are merged into a trie, so that each segment of the path is looked up once
+ * regardless of the number of patterns, and paths that leave the trie are rejected without evaluating the remaining patterns.
+ * Patterns of the form {@code **}{@code /name} and {@code **}{@code /name/**}, such as most of the default excludes,
+ * are reduced to a set lookup.</p>
+ */
+public class MultiPatternMatcher implements Spec<RelativePath> {
+    private final boolean partialMatchDirs;
+    private final boolean caseSensitive;
+    private final Node root = new Node();
+    private final Set<String> anyLastSegment = new HashSet<String>();
+    private final Set<String> anySegment = new HashSet<String>();
+
+    MultiPatternMatcher(boolean partialMatchDirs, boolean caseSensitive, Iterable<String> patterns) {
+        this.partialMatchDirs = partialMatchDirs;
+        this.caseSensitive = caseSensitive;
+        for (String pattern : patterns) {
+            add(pattern);
+        }
+    }
+
+    private void add(String pattern) {
+        String[] parts = PatternMatcherFactory.split(pattern);
+        if (parts.length == 2 && isGreedy(parts[0]) && isLiteral(parts[1])) {
+            anyLastSegment.add(key(parts[1]));
+            return;
+        }
+        if (parts.length == 3 && isGreedy(parts[0]) && isLiteral(parts[1]) && isGreedy(parts[2])) {
+            anySegment.add(key(parts[1]));
+            return;
+        }
+        Node node = root;
+        int pos = 0;
+        while (pos < parts.length && isLiteral(parts[pos])) {
+            node = node.child(key(parts[pos]));
+            pos++;
+        }
+        node.addRemainder(PatternMatcherFactory.compile(parts, pos, caseSensitive));
+    }
+
+    public boolean isSatisfiedBy(RelativePath element) {
+        if (element.isFile() || !partialMatchDirs) {
+            return matches(element.getSegments());
+        } else {
+            return isPrefix(element.getSegments());
+        }
+    }
+
+    private boolean matches(String[] segments) {
+        if (!anySegment.isEmpty()) {
+            for (String segment : segments) {
+                if (anySegment.contains(key(segment))) {
+                    return true;
+                }
+            }
+        }
+        if (!anyLastSegment.isEmpty() && segments.length > 0 && anyLastSegment.contains(key(segments[segments.length - 1]))) {
+            return true;
+        }
+        Node node = root;
+        for (int i = 0;; i++) {
+            for (PathMatcher remainder : node.remainders) {
+                if (remainder.matches(segments, i)) {
+                    return true;
+                }
+            }
+            if (i == segments.length) {
+                return false;
+            }
+            node = node.children.get(key(segments[i]));
+            if (node == null) {
+                return false;
+            }
+        }
+    }
+
+    private boolean isPrefix(String[] segments) {
+        if (!anySegment.isEmpty() || !anyLastSegment.isEmpty()) {
+            // These patterns might match any path once more segments are added
+            return true;
+        }
+        Node node = root;
+        for (int i = 0;; i++) {
+            if (i == segments.length) {
+                if (!node.children.isEmpty()) {
+                    // Some pattern has more literal segments, might match when more elements added
+                    return true;
+                }
+                for (PathMatcher remainder : node.remainders) {
+                    // A pattern whose last literal segment matched the last segment of the path might match when more elements added
+                    if (i > 0 || remainder.isPrefix(segments, i)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            for (PathMatcher remainder : node.remainders) {
+                if (remainder.isPrefix(segments, i)) {
+                    return true;
+                }
+            }
+            node = node.children.get(key(segments[i]));
+            if (node == null) {
+                return false;
+            }
+        }
+    }
+
+    private String key(String segment) {
+        if (caseSensitive) {
+            return segment;
+        }
+        // Folds each character the same way String.equalsIgnoreCase() compares them
+        char[] chars = new char[segment.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(segment.charAt(i)));
+        }
+        return new String(chars);
+    }
+
+    private static boolean isGreedy(String part) {
+        return part.equals("**");
+    }
+
+    private static boolean isLiteral(String part) {
+        return part.indexOf('*') < 0 && part.indexOf('?') < 0;
+    }
+
+    @Override
+    public String toString() {
+        return "{any-last-segment: " + anyLastSegment + ", any-segment: " + anySegment + ", patterns: " + root + "}";
+    }
+
+    private static class Node {
+        private final Map<String, Node> children = new HashMap<String, Node>();
+        private final List<PathMatcher> remainders = new ArrayList<PathMatcher>();
+
+        Node child(String key) {
+            Node child = children.get(key);
+            if (child == null) {
+                child = new Node();
+                children.put(key, child);
+            }
+            return child;
+        }
+
+        void addRemainder(PathMatcher matcher) {
+            remainders.add(matcher);
+        }
+
+        @Override
+        public String toString() {
+            return "{remainders: " + remainders + ", children: " + children + "}";
+        }
+    }
+}
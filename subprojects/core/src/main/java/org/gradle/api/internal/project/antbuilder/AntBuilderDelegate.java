@@ -28,6 +28,8 @@ import org.gradle.internal.metaobject.DynamicObject;
 
 import java.io.InputStream;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -36,11 +38,21 @@ public class AntBuilderDelegate extends BuilderSupport {
     private final Object originalBuilder;
     private final DynamicObject builder;
     private final ClassLoader antlibClassLoader;
+    private final Map<String, Map<String, String>> antlibTaskDefinitions;
 
     public AntBuilderDelegate(Object builder, ClassLoader antlibClassLoader) {
+        this(builder, antlibClassLoader, new HashMap<String, Map<String, String>>());
+    }
+
+    /**
+     * @param antlibTaskDefinitions the task definitions already read from antlib resources of the given class loader, keyed by resource name.
+     * Antlib resources not found here are read and added to it.
+     */
+    AntBuilderDelegate(Object builder, ClassLoader antlibClassLoader, Map<String, Map<String, String>> antlibTaskDefinitions) {
         this.originalBuilder = builder;
         this.builder = DynamicObjectUtil.asDynamicObject(builder);
         this.antlibClassLoader = antlibClassLoader;
+        this.antlibTaskDefinitions = antlibTaskDefinitions;
     }
 
     public AntBuilderDelegate getAnt() {
@@ -58,25 +70,38 @@ public class AntBuilderDelegate extends BuilderSupport {
                 throw new RuntimeException(ex);
             }
         } else if (argNames.equals(Collections.singleton("resource"))) {
-            InputStream instr = antlibClassLoader.getResourceAsStream(args.get("resource"));
             try {
-                Node xml = new XmlParser().parse(instr);
-                for (Object taskdefObject : (NodeList) xml.get("taskdef")) {
-                    Node taskdef = (Node) taskdefObject;
-                    String name = (String) taskdef.get("@name");
-                    String className = (String) taskdef.get("@classname");
-                    addTaskDefinition(name, className);
+                for (Map.Entry<String, String> taskdef : getAntlibTaskDefinitions(args.get("resource")).entrySet()) {
+                    addTaskDefinition(taskdef.getKey(), taskdef.getValue());
                 }
             } catch (Exception ex) {
                 throw UncheckedException.throwAsUncheckedException(ex);
-            } finally {
-                IOUtils.closeQuietly(instr);
             }
         } else {
             throw new RuntimeException("Unsupported parameters for taskdef(): " + args);
         }
     }
 
+    private Map<String, String> getAntlibTaskDefinitions(String resource) throws Exception {
+        Map<String, String> taskdefs = antlibTaskDefinitions.get(resource);
+        if (taskdefs != null) {
+            return taskdefs;
+        }
+        taskdefs = new LinkedHashMap<String, String>();
+        InputStream instr = antlibClassLoader.getResourceAsStream(resource);
+        try {
+            Node xml = new XmlParser().parse(instr);
+            for (Object taskdefObject : (NodeList) xml.get("taskdef")) {
+                Node taskdef = (Node) taskdefObject;
+                taskdefs.put((String) taskdef.get("@name"), (String) taskdef.get("@classname"));
+            }
+        } finally {
+            IOUtils.closeQuietly(instr);
+        }
+        antlibTaskDefinitions.put(resource, taskdefs);
+        return taskdefs;
+    }
+
     private void addTaskDefinition(String name, String className) throws ClassNotFoundException {
         DynamicObject project = DynamicObjectUtil.asDynamicObject(builder.getProperty("project"));
         project.invokeMethod("addTaskDefinition", name, antlibClassLoader.loadClass(className));
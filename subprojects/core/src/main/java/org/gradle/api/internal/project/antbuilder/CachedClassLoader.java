@@ -15,12 +15,16 @@
  */
 package org.gradle.api.internal.project.antbuilder;
 
+import com.google.common.collect.Maps;
 import org.gradle.internal.classpath.ClassPath;
 
+import java.util.Map;
+
 class CachedClassLoader {
 
     private final ClassPath key;
     private ClassLoader classLoader;
+    private final Map<String, Map<String, String>> antlibTaskDefinitions = Maps.newConcurrentMap();
 
     CachedClassLoader(ClassPath key, ClassLoader classLoader) {
         this.key = key;
@@ -35,4 +39,11 @@ class CachedClassLoader {
         return key;
     }
 
+    /**
+     * The task definitions read from the antlib resources of this class loader, keyed by resource name.
+     */
+    public Map<String, Map<String, String>> getAntlibTaskDefinitions() {
+        return antlibTaskDefinitions;
+    }
+
 }
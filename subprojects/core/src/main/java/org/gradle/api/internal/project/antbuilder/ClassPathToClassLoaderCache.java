@@ -27,6 +27,7 @@ import org.gradle.internal.UncheckedException;
 import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.concurrent.Stoppable;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.Lock;
@@ -40,9 +41,14 @@ import java.util.concurrent.locks.ReentrantLock;
  * the cached classloader as a value of the map, then it cannot be reclaimed, and will never be cleaned up. If we just use a SoftReference to the cached class loader, then the reference will be
  * cleared before we have a chance to clean it up. So we use a PhantomReference to the cached class loader, in addition to the soft reference, to finalize the class loader before it gets kicked off
  * the cache.
+ *
+ * Soft references are cleared easily under memory pressure, so the most recently used class loaders are also strongly referenced, up to a fixed
+ * number of class loaders. A class loader that is evicted from this set only remains softly referenced, and is cleaned up as above once it has
+ * been collected.
  */
 public class ClassPathToClassLoaderCache implements Stoppable {
     private final static Logger LOG = Logging.getLogger(ClassPathToClassLoaderCache.class);
+    private final static int MAX_RETAINED_CLASS_LOADERS = 8;
 
     private final FinalizerThread finalizerThread;
 
@@ -50,10 +56,27 @@ public class ClassPathToClassLoaderCache implements Stoppable {
     private final Lock lock = new ReentrantLock();
     private final Map<ClassPath, CacheEntry> cacheEntries = Maps.newConcurrentMap();
     private final Set<CachedClassLoader> inUseClassLoaders = Sets.newHashSet();
+    private final Map<ClassPath, CachedClassLoader> recentlyUsedClassLoaders;
     private final GroovySystemLoaderFactory groovySystemLoaderFactory;
 
     public ClassPathToClassLoaderCache(GroovySystemLoaderFactory groovySystemLoaderFactory) {
+        this(groovySystemLoaderFactory, MAX_RETAINED_CLASS_LOADERS);
+    }
+
+    ClassPathToClassLoaderCache(GroovySystemLoaderFactory groovySystemLoaderFactory, final int maxRetainedClassLoaders) {
         this.groovySystemLoaderFactory = groovySystemLoaderFactory;
+        this.recentlyUsedClassLoaders = new LinkedHashMap<ClassPath, CachedClassLoader>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ClassPath, CachedClassLoader> eldest) {
+                if (size() > maxRetainedClassLoaders) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Classloader no longer retained in cache: {}", eldest.getKey().getAsURIs());
+                    }
+                    return true;
+                }
+                return false;
+            }
+        };
         this.finalizerThread = new FinalizerThread(cacheEntries, lock);
         this.finalizerThread.start();
     }
@@ -126,6 +149,7 @@ public class ClassPathToClassLoaderCache implements Stoppable {
             // while the cached class loader is still in use, we need to keep a strong reference onto
             // the cached class loader as long as the action is executed
             inUseClassLoaders.add(cachedClassLoader);
+            recentlyUsedClassLoaders.put(libClasspath, cachedClassLoader);
         } finally {
             lock.unlock();
         }
@@ -147,7 +147,7 @@ public class DefaultIsolatedAntBuilder implements IsolatedAntBuilder, Stoppable
                         // Ideally, we'd delegate directly to the AntBuilder, but its Closure class is different to our caller's
                         // Closure class, so the AntBuilder's methodMissing() doesn't work. It just converts our Closures to String
                         // because they are not an instanceof its Closure class.
-                        Object delegate = new AntBuilderDelegate(antBuilder, classLoader);
+                        Object delegate = new AntBuilderDelegate(antBuilder, classLoader, cachedClassLoader.getAntlibTaskDefinitions());
                         ClosureBackedAction.execute(delegate, antClosure);
                     } finally {
                         Thread.currentThread().setContextClassLoader(originalLoader);
@@ -52,15 +52,18 @@ class FinalizerThread extends Thread {
 
         try {
             while (!stopped.get()) {
-                Cleanup entry = (Cleanup) referenceQueue.remove();
-                ClassPath key = entry.getKey();
-                removeCacheEntry(key, entry, DONT_CLOSE_CLASSLOADER);
+                // Don't keep the cleanup in a local variable of this loop, as it would retain the class loader while waiting for the next one
+                removeCacheEntry((Cleanup) referenceQueue.remove(), DONT_CLOSE_CLASSLOADER);
             }
         } catch (InterruptedException ex) {
             LOG.debug("Shutdown of classloader cache in progress");
         }
     }
 
+    private void removeCacheEntry(Cleanup entry, Cleanup.Mode mode) {
+        removeCacheEntry(entry.getKey(), entry, mode);
+    }
+
     private void removeCacheEntry(ClassPath key, Cleanup entry, Cleanup.Mode mode) {
         if (LOG.isDebugEnabled()) {
             LOG.debug("Removing classloader from cache, classpath = {}", key.getAsURIs());
@@ -19,10 +19,13 @@ import com.google.common.collect.Lists;
 import org.gradle.api.GradleException;
 import org.gradle.api.execution.TaskActionListener;
 import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.TaskOutputsInternal;
 import org.gradle.api.internal.tasks.ContextAwareTaskAction;
+import org.gradle.api.internal.tasks.TaskDestroyablesInternal;
 import org.gradle.api.internal.tasks.TaskExecuter;
 import org.gradle.api.internal.tasks.TaskExecutionContext;
 import org.gradle.api.internal.tasks.TaskExecutionOutcome;
+import org.gradle.api.internal.tasks.TaskOutputFilePropertySpec;
 import org.gradle.api.internal.tasks.TaskStateInternal;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
@@ -40,6 +43,7 @@ import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.progress.BuildOperationDescriptor;
 import org.gradle.internal.work.AsyncWorkTracker;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -63,7 +67,7 @@ public class ExecuteActionsTaskExecuter implements TaskExecuter {
     public void execute(TaskInternal task, TaskStateInternal state, TaskExecutionContext context) {
         listener.beforeActions(task);
         if (!task.getTaskActions().isEmpty()) {
-            outputsGenerationListener.beforeTaskOutputsGenerated();
+            beforeTaskOutputsGenerated(task);
         }
         state.setExecuting(true);
         try {
@@ -81,6 +85,30 @@ public class ExecuteActionsTaskExecuter implements TaskExecuter {
         }
     }
 
+    private void beforeTaskOutputsGenerated(TaskInternal task) {
+        TaskOutputsInternal outputs = task.getOutputs();
+        if (!outputs.hasDeclaredOutputs()) {
+            // Without declared outputs, the task may write anywhere
+            outputsGenerationListener.beforeTaskOutputsGenerated();
+            return;
+        }
+        List<String> affectedOutputPaths = new ArrayList<String>();
+        for (TaskOutputFilePropertySpec outputProperty : outputs.getFileProperties()) {
+            for (File outputFile : outputProperty.getPropertyFiles()) {
+                affectedOutputPaths.add(outputFile.getAbsolutePath());
+            }
+        }
+        if (affectedOutputPaths.isEmpty()) {
+            // The declared outputs do not resolve to any location, so the locations the task writes to are unknown
+            outputsGenerationListener.beforeTaskOutputsGenerated();
+            return;
+        }
+        for (File destroyable : ((TaskDestroyablesInternal) task.getDestroyables()).getFilesReadOnly()) {
+            affectedOutputPaths.add(destroyable.getAbsolutePath());
+        }
+        outputsGenerationListener.beforeTaskOutputsGenerated(affectedOutputPaths);
+    }
+
     private GradleException executeActions(TaskInternal task, TaskStateInternal state, TaskExecutionContext context) {
         LOGGER.debug("Executing actions for {}.", task);
         final List<ContextAwareTaskAction> actions = new ArrayList<ContextAwareTaskAction>(task.getTaskActions());
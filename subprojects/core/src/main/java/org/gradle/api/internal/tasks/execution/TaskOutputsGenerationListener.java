@@ -22,4 +22,14 @@ public interface TaskOutputsGenerationListener {
      * This is for example just before the task actions are executed or the outputs are loaded from the cache.
      */
     void beforeTaskOutputsGenerated();
+
+    /**
+     * Invoked when the outputs for a task are about to be generated, and the task is known to write only to the given locations.
+     * This is for example just before the actions of a task with declared outputs are executed or the outputs are loaded from the cache.
+     *
+     * When no paths are given, the locations are treated as unknown, the same as for {@link #beforeTaskOutputsGenerated()}.
+     *
+     * @param affectedOutputPaths The absolute paths of the files and directories the task writes to or deletes.
+     */
+    void beforeTaskOutputsGenerated(Iterable<String> affectedOutputPaths);
 }
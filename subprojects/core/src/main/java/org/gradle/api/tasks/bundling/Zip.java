@@ -19,6 +19,7 @@ import org.apache.tools.zip.ZipOutputStream;
 import org.gradle.api.Incubating;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.internal.file.archive.ParallelZipCopyAction;
 import org.gradle.api.internal.file.archive.ZipCopyAction;
 import org.gradle.api.internal.file.copy.CopyAction;
 import org.gradle.api.internal.file.copy.DefaultZipCompressor;
@@ -26,6 +27,7 @@ import org.gradle.api.internal.file.copy.ZipCompressor;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Optional;
+import org.gradle.internal.operations.BuildOperationExecutor;
 
 import java.nio.charset.Charset;
 
@@ -60,7 +62,13 @@ public class Zip extends AbstractArchiveTask {
     @Override
     protected CopyAction createCopyAction() {
         DocumentationRegistry documentationRegistry = getServices().get(DocumentationRegistry.class);
-        return new ZipCopyAction(getArchivePath(), getCompressor(), documentationRegistry, metadataCharset, isPreserveFileTimestamps());
+        ZipCompressor compressor = getCompressor();
+        if (compressor instanceof DefaultZipCompressor && Boolean.getBoolean(ParallelZipCopyAction.PARALLEL_ZIP_PROPERTY)) {
+            DefaultZipCompressor defaultCompressor = (DefaultZipCompressor) compressor;
+            BuildOperationExecutor buildOperationExecutor = getServices().get(BuildOperationExecutor.class);
+            return new ParallelZipCopyAction(getArchivePath(), defaultCompressor.getEntryCompressionMethod(), defaultCompressor.isZip64Allowed(), documentationRegistry, metadataCharset, isPreserveFileTimestamps(), buildOperationExecutor);
+        }
+        return new ZipCopyAction(getArchivePath(), compressor, documentationRegistry, metadataCharset, isPreserveFileTimestamps());
     }
 
     /**
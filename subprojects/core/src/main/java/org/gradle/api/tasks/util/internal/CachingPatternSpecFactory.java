@@ -21,7 +21,6 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import org.gradle.api.file.FileTreeElement;
-import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.cache.HeapProportionalCacheSizer;
 import org.gradle.api.specs.Spec;
 import org.gradle.internal.Cast;
@@ -31,15 +30,15 @@ import java.util.Collection;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 
+/**
+ * Reuses the compiled spec for a given collection of patterns. Matching a path against a compiled spec is cheap, so results are not cached.
+ */
 public class CachingPatternSpecFactory extends PatternSpecFactory {
-    private static final int RESULTS_CACHE_MAX_SIZE = 1200000;
     private static final int INSTANCES_MAX_SIZE = 30000;
-    private final Cache<CacheKey, Boolean> specResultCache;
     private final Cache<SpecKey, Spec> specInstanceCache;
 
     public CachingPatternSpecFactory() {
         HeapProportionalCacheSizer cacheSizer = new HeapProportionalCacheSizer();
-        specResultCache = CacheBuilder.newBuilder().maximumSize(cacheSizer.scaleCacheSize(RESULTS_CACHE_MAX_SIZE)).build();
         specInstanceCache = CacheBuilder.newBuilder().maximumSize(cacheSizer.scaleCacheSize(INSTANCES_MAX_SIZE)).build();
     }
 
@@ -50,8 +49,7 @@ public class CachingPatternSpecFactory extends PatternSpecFactory {
             return Cast.uncheckedCast(specInstanceCache.get(key, new Callable<Spec<FileTreeElement>>() {
                 @Override
                 public Spec<FileTreeElement> call() throws Exception {
-                    Spec<FileTreeElement> spec = CachingPatternSpecFactory.super.createSpec(patterns, include, caseSensitive);
-                    return new CachingSpec(key, spec);
+                    return CachingPatternSpecFactory.super.createSpec(patterns, include, caseSensitive);
                 }
             }));
         } catch (ExecutionException e) {
@@ -59,81 +57,6 @@ public class CachingPatternSpecFactory extends PatternSpecFactory {
         }
     }
 
-    private class CachingSpec implements Spec<FileTreeElement> {
-        private final SpecKey key;
-        private final Spec<FileTreeElement> spec;
-
-        CachingSpec(SpecKey key, Spec<FileTreeElement> spec) {
-            this.key = key;
-            this.spec = spec;
-        }
-
-        @Override
-        public boolean isSatisfiedBy(final FileTreeElement element) {
-            CacheKey cacheKey = new CacheKey(element.getRelativePath(), key);
-            try {
-                return specResultCache.get(cacheKey, new Callable<Boolean>() {
-                    @Override
-                    public Boolean call() throws Exception {
-                        return spec.isSatisfiedBy(element);
-                    }
-                });
-            } catch (ExecutionException e) {
-                throw UncheckedException.throwAsUncheckedException(e);
-            }
-        }
-
-        @Override
-        public String toString() {
-            return Objects.toStringHelper(this)
-                .add("key", key)
-                .add("spec", spec)
-                .toString();
-        }
-    }
-
-    private static class CacheKey {
-        private final RelativePath relativePath;
-        private final SpecKey specKey;
-        private final int hashCode;
-
-
-        private CacheKey(RelativePath relativePath, SpecKey specKey) {
-            this.relativePath = relativePath;
-            this.specKey = specKey;
-            this.hashCode = Objects.hashCode(relativePath, specKey);
-        }
-
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) {
-                return true;
-            }
-            if (o == null || getClass() != o.getClass()) {
-                return false;
-            }
-
-            CacheKey that = (CacheKey) o;
-
-            return Objects.equal(this.relativePath, that.relativePath)
-                && Objects.equal(this.specKey, that.specKey);
-        }
-
-        @Override
-        public int hashCode() {
-            return hashCode;
-        }
-
-        @Override
-        public String toString() {
-            return Objects.toStringHelper(this)
-                .add("relativePath", relativePath)
-                .add("specKey", specKey)
-                .toString();
-        }
-    }
-
     private static class SpecKey {
         private final ImmutableList<String> patterns;
         private final boolean include;
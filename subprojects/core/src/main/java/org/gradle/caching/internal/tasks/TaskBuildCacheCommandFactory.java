@@ -28,9 +28,12 @@ import org.gradle.caching.internal.tasks.origin.TaskOutputOriginFactory;
 import org.gradle.caching.internal.tasks.origin.TaskOutputOriginMetadata;
 import org.gradle.internal.time.Timer;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.SortedSet;
 
 public class TaskBuildCacheCommandFactory {
@@ -76,7 +79,7 @@ public class TaskBuildCacheCommandFactory {
 
         @Override
         public BuildCacheLoadCommand.Result<TaskOutputOriginMetadata> load(InputStream input) {
-            taskOutputsGenerationListener.beforeTaskOutputsGenerated();
+            taskOutputsGenerationListener.beforeTaskOutputsGenerated(getOutputPaths(outputProperties));
             final TaskOutputPacker.UnpackResult unpackResult = packer.unpack(outputProperties, input, taskOutputOriginFactory.createReader(task));
             LOGGER.info("Unpacked output for {} from cache (took {}).", task, clock.getElapsed());
 
@@ -94,6 +97,17 @@ public class TaskBuildCacheCommandFactory {
         }
     }
 
+    private static Iterable<String> getOutputPaths(SortedSet<ResolvedTaskOutputFilePropertySpec> outputProperties) {
+        List<String> outputPaths = new ArrayList<String>(outputProperties.size());
+        for (ResolvedTaskOutputFilePropertySpec outputProperty : outputProperties) {
+            File outputFile = outputProperty.getOutputFile();
+            if (outputFile != null) {
+                outputPaths.add(outputFile.getAbsolutePath());
+            }
+        }
+        return outputPaths;
+    }
+
     private class StoreCommand implements BuildCacheStoreCommand {
 
         private final TaskOutputCachingBuildCacheKey cacheKey;
@@ -15,10 +15,12 @@
  */
 package org.gradle.configuration.project;
 
+import org.gradle.api.Nullable;
 import org.gradle.api.ProjectConfigurationException;
 import org.gradle.api.ProjectEvaluationListener;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.project.ProjectStateInternal;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.operations.RunnableBuildOperation;
@@ -27,14 +29,25 @@ import org.gradle.internal.progress.BuildOperationDescriptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Manages lifecycle concerns while delegating actual evaluation to another evaluator
+ *
+ * <p>Projects can be configured from several threads at the same time. A project is claimed by a thread before it is configured, so
+ * that it is configured only once. A thread that asks for a project being configured by another thread waits for that configuration to
+ * complete, unless that would never happen because the other thread is itself waiting for the current thread. In that case, as for a
+ * project being configured by the current thread, the request returns straight away.</p>
  */
 public class LifecycleProjectEvaluator implements ProjectEvaluator {
     private static final Logger LOGGER = LoggerFactory.getLogger(LifecycleProjectEvaluator.class);
 
     private final BuildOperationExecutor buildOperationExecutor;
     private final ProjectEvaluator delegate;
+    private final Object lock = new Object();
+    private final Map<ProjectStateInternal, Thread> configuringThreads = new HashMap<ProjectStateInternal, Thread>();
+    private final Map<Thread, ProjectStateInternal> waitingThreads = new HashMap<Thread, ProjectStateInternal>();
 
     public LifecycleProjectEvaluator(BuildOperationExecutor buildOperationExecutor, ProjectEvaluator delegate) {
         this.buildOperationExecutor = buildOperationExecutor;
@@ -42,11 +55,80 @@ public class LifecycleProjectEvaluator implements ProjectEvaluator {
     }
 
     public void evaluate(final ProjectInternal project, final ProjectStateInternal state) {
-        if (state.getExecuted() || state.getExecuting()) {
+        if (!claim(state)) {
             return;
         }
+        try {
+            buildOperationExecutor.run(new ConfigureProject(project, state));
+        } finally {
+            release(state);
+        }
+    }
+
+    /**
+     * Returns the build operation that configures the given project, for callers that schedule the configuration of projects themselves.
+     * Returns null when the project has already been configured. The project is claimed when the operation runs, so the operation does nothing
+     * when the project has been configured in the meantime, and waits when the project is being configured by another thread.
+     */
+    @Nullable
+    public RunnableBuildOperation configureProjectOperation(ProjectInternal project) {
+        ProjectStateInternal state = project.getState();
+        if (state.getExecuted()) {
+            return null;
+        }
+        return new ClaimAndConfigureProject(project, state);
+    }
+
+    /**
+     * Claims the given project for configuration by the current thread. Returns false when the project does not need to be configured by the current thread.
+     */
+    private boolean claim(ProjectStateInternal state) {
+        Thread currentThread = Thread.currentThread();
+        synchronized (lock) {
+            while (true) {
+                if (state.getExecuted()) {
+                    return false;
+                }
+                Thread configuringThread = configuringThreads.get(state);
+                if (configuringThread == null) {
+                    configuringThreads.put(state, currentThread);
+                    return true;
+                }
+                if (waitsFor(configuringThread, currentThread)) {
+                    return false;
+                }
+                waitingThreads.put(currentThread, state);
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                } finally {
+                    waitingThreads.remove(currentThread);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns true when the given thread is, directly or through other threads, waiting for the target thread. A thread always waits for itself.
+     */
+    private boolean waitsFor(Thread thread, Thread target) {
+        Thread current = thread;
+        while (current != null) {
+            if (current == target) {
+                return true;
+            }
+            ProjectStateInternal awaited = waitingThreads.get(current);
+            current = awaited == null ? null : configuringThreads.get(awaited);
+        }
+        return false;
+    }
 
-        buildOperationExecutor.run(new ConfigureProject(project, state));
+    private void release(ProjectStateInternal state) {
+        synchronized (lock) {
+            configuringThreads.remove(state);
+            lock.notifyAll();
+        }
     }
 
     private void doConfigure(ProjectInternal project, ProjectStateInternal state) {
@@ -90,8 +172,8 @@ public class LifecycleProjectEvaluator implements ProjectEvaluator {
 
     private class ConfigureProject implements RunnableBuildOperation {
 
-        private ProjectInternal project;
-        private ProjectStateInternal state;
+        final ProjectInternal project;
+        final ProjectStateInternal state;
 
         private ConfigureProject(ProjectInternal project, ProjectStateInternal state) {
             this.project = project;
@@ -114,4 +196,22 @@ public class LifecycleProjectEvaluator implements ProjectEvaluator {
         }
 
     }
+
+    private class ClaimAndConfigureProject extends ConfigureProject {
+        private ClaimAndConfigureProject(ProjectInternal project, ProjectStateInternal state) {
+            super(project, state);
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            if (!claim(state)) {
+                return;
+            }
+            try {
+                super.run(context);
+            } finally {
+                release(state);
+            }
+        }
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution;
+
+import org.gradle.api.Action;
+import org.gradle.api.BuildCancelledException;
+import org.gradle.api.Project;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.configuration.project.LifecycleProjectEvaluator;
+import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.progress.BuildOperationDescriptor;
+import org.gradle.internal.work.WorkerLeaseService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * A {@link ProjectConfigurer} that configures the projects of a hierarchy concurrently, one level of the hierarchy at a time, so
+ * that a project is always configured after its parent. Each project is configured while holding its project lock.
+ *
+ * <p>This is only safe for decoupled projects, which do not read or change the state of other projects while they are being
+ * configured. This applies to their build scripts, to the scripts and plugins they apply, and to the project hooks registered by
+ * init scripts, the settings script and parent projects, which all run concurrently. As this cannot be reliably told from the build,
+ * this configurer is only used when explicitly enabled with the {@value #SYSPROP} system property, and it is up to the build to keep
+ * its projects decoupled.</p>
+ *
+ * <p>A project that is configured by another one, for example through {@link Project#evaluationDependsOn(String)}, is still
+ * only configured once. See {@link LifecycleProjectEvaluator}.</p>
+ */
+public class ParallelTaskPathProjectEvaluator extends TaskPathProjectEvaluator {
+    public static final String SYSPROP = "org.gradle.internal.configure.parallel";
+
+    private final BuildCancellationToken cancellationToken;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final WorkerLeaseService workerLeaseService;
+    private final LifecycleProjectEvaluator projectEvaluator;
+
+    public ParallelTaskPathProjectEvaluator(BuildCancellationToken cancellationToken, BuildOperationExecutor buildOperationExecutor, WorkerLeaseService workerLeaseService, LifecycleProjectEvaluator projectEvaluator) {
+        super(cancellationToken);
+        this.cancellationToken = cancellationToken;
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.workerLeaseService = workerLeaseService;
+        this.projectEvaluator = projectEvaluator;
+    }
+
+    @Override
+    public void configureHierarchy(ProjectInternal project) {
+        SortedMap<Integer, List<ProjectInternal>> levels = new TreeMap<Integer, List<ProjectInternal>>();
+        for (Project sub : project.getSubprojects()) {
+            List<ProjectInternal> level = levels.get(sub.getDepth());
+            if (level == null) {
+                level = new ArrayList<ProjectInternal>();
+                levels.put(sub.getDepth(), level);
+            }
+            level.add((ProjectInternal) sub);
+        }
+
+        configure(project);
+        for (List<ProjectInternal> level : levels.values()) {
+            configureConcurrently(level);
+        }
+    }
+
+    private void configureConcurrently(final List<ProjectInternal> projects) {
+        buildOperationExecutor.runAll(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
+            @Override
+            public void execute(BuildOperationQueue<RunnableBuildOperation> queue) {
+                for (ProjectInternal project : projects) {
+                    RunnableBuildOperation configureProject = projectEvaluator.configureProjectOperation(project);
+                    if (configureProject != null) {
+                        queue.add(new ConfigureProjectWithLock(project, configureProject));
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs the operation that configures a project while holding the lock of the project, so that the configuration of the
+     * project shows up as a single build operation.
+     */
+    private class ConfigureProjectWithLock implements RunnableBuildOperation {
+        private final ProjectInternal project;
+        private final RunnableBuildOperation configureProject;
+
+        private ConfigureProjectWithLock(ProjectInternal project, RunnableBuildOperation configureProject) {
+            this.project = project;
+            this.configureProject = configureProject;
+        }
+
+        @Override
+        public void run(final BuildOperationContext context) {
+            if (cancellationToken.isCancellationRequested()) {
+                throw new BuildCancelledException();
+            }
+            String gradlePath = ((GradleInternal) project.getGradle()).getIdentityPath().toString();
+            String projectPath = project.getIdentityPath().toString();
+            workerLeaseService.withLocks(Collections.singleton(workerLeaseService.getProjectLock(gradlePath, projectPath)), new Runnable() {
+                @Override
+                public void run() {
+                    configureProject.run(context);
+                }
+            });
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return configureProject.description();
+        }
+    }
+}
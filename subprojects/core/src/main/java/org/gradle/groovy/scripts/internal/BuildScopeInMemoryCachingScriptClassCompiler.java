@@ -15,7 +15,6 @@
  */
 package org.gradle.groovy.scripts.internal;
 
-import com.google.common.collect.Maps;
 import groovy.lang.Script;
 import org.codehaus.groovy.ast.ClassNode;
 import org.gradle.api.Action;
@@ -23,17 +22,21 @@ import org.gradle.api.internal.initialization.loadercache.ClassLoaderId;
 import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.internal.Cast;
 
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * This in-memory cache is responsible for caching compiled build scripts during a build session.
  * If the compiled script is not found in this cache, it will try to find it in the global cache,
  * which will use the delegate script class compiler in case of a miss.
+ *
+ * This cache is thread-safe. Different scripts can be compiled in parallel, while concurrent requests for the same script wait
+ * for a single compilation.
  */
 public class BuildScopeInMemoryCachingScriptClassCompiler implements ScriptClassCompiler {
     private final CrossBuildInMemoryCachingScriptClassCache cache;
     private final ScriptClassCompiler scriptClassCompiler;
-    private final Map<ScriptCacheKey, CompiledScript<?, ?>> cachedCompiledScripts = Maps.newHashMap();
+    private final ConcurrentMap<ScriptCacheKey, CachedCompiledScript> cachedCompiledScripts = new ConcurrentHashMap<ScriptCacheKey, CachedCompiledScript>();
 
     public BuildScopeInMemoryCachingScriptClassCompiler(CrossBuildInMemoryCachingScriptClassCache cache, ScriptClassCompiler scriptClassCompiler) {
         this.cache = cache;
@@ -43,12 +46,26 @@ public class BuildScopeInMemoryCachingScriptClassCompiler implements ScriptClass
     @Override
     public <T extends Script, M> CompiledScript<T, M> compile(ScriptSource source, ClassLoader classLoader, ClassLoaderId classLoaderId, CompileOperation<M> operation, Class<T> scriptBaseClass, Action<? super ClassNode> verifier) {
         ScriptCacheKey key = new ScriptCacheKey(source.getClassName(), classLoader, operation.getId());
-        CompiledScript<T, M> compiledScript = Cast.uncheckedCast(cachedCompiledScripts.get(key));
-        if (compiledScript == null) {
-            compiledScript = cache.getOrCompile(source, classLoader, classLoaderId, operation, scriptBaseClass, verifier, scriptClassCompiler);
-            cachedCompiledScripts.put(key, compiledScript);
+        CachedCompiledScript cached = cachedCompiledScripts.get(key);
+        if (cached == null) {
+            CachedCompiledScript newEntry = new CachedCompiledScript();
+            cached = cachedCompiledScripts.putIfAbsent(key, newEntry);
+            if (cached == null) {
+                cached = newEntry;
+            }
+        }
+        synchronized (cached) {
+            CompiledScript<T, M> compiledScript = Cast.uncheckedCast(cached.compiledScript);
+            if (compiledScript == null) {
+                compiledScript = cache.getOrCompile(source, classLoader, classLoaderId, operation, scriptBaseClass, verifier, scriptClassCompiler);
+                cached.compiledScript = compiledScript;
+            }
+            return compiledScript;
         }
-        return compiledScript;
+    }
+
+    private static class CachedCompiledScript {
+        private CompiledScript<?, ?> compiledScript;
     }
 
 }
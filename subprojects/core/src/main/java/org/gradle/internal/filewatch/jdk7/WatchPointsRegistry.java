@@ -29,6 +29,7 @@ import org.gradle.internal.FileUtils;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
 
 import java.io.File;
+import java.util.Set;
 
 class WatchPointsRegistry {
     private final static Logger LOG = Logging.getLogger(WatchPointsRegistry.class);
@@ -43,8 +44,11 @@ class WatchPointsRegistry {
         allRequestedRoots = ImmutableSet.of();
     }
 
-    public Delta appendFileSystemSubset(FileSystemSubset fileSystemSubset, Iterable<? extends File> currentWatchPoints) {
-        return new Delta(fileSystemSubset, ImmutableSet.copyOf(currentWatchPoints));
+    /**
+     * @param currentWatchPoints The directories that are currently watched. Only used while calculating the delta, so it may be a live view.
+     */
+    public Delta appendFileSystemSubset(FileSystemSubset fileSystemSubset, Set<? extends File> currentWatchPoints) {
+        return new Delta(fileSystemSubset, currentWatchPoints);
     }
 
     public boolean shouldFire(File file) {
@@ -64,9 +68,9 @@ class WatchPointsRegistry {
         private Iterable<? extends File> roots;
         private FileSystemSubset combinedRoots;
         private Iterable<? extends File> startingWatchPoints;
-        private ImmutableSet<? extends File> currentWatchPoints;
+        private Set<? extends File> currentWatchPoints;
 
-        private Delta(FileSystemSubset fileSystemSubset, ImmutableSet<? extends File> currentWatchPoints) {
+        private Delta(FileSystemSubset fileSystemSubset, Set<? extends File> currentWatchPoints) {
             this.fileSystemSubset = fileSystemSubset;
             this.currentWatchPoints = currentWatchPoints;
             init();
@@ -79,7 +83,6 @@ class WatchPointsRegistry {
             if (!currentWatchPoints.isEmpty()) {
                 if (createNewStartingPointsUnderExistingRoots) {
                     startingWatchPoints = filterCurrentWatchPoints(startingWatchPointCandidates);
-                    currentWatchPoints = ImmutableSet.<File>builder().addAll(currentWatchPoints).addAll(startingWatchPoints).build();
                 } else {
                     Iterable<? extends File> combinedRoots = FileUtils.calculateRoots(Iterables.concat(currentWatchPoints, startingWatchPointCandidates));
                     startingWatchPoints = filterCurrentWatchPoints(combinedRoots);
@@ -25,25 +25,64 @@ import org.gradle.util.CollectionUtils;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.*;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 class WatchServicePoller {
     private static final int POLL_TIMEOUT_SECONDS = 5;
+    private static final int COALESCE_PERIOD_MILLIS = 10;
+    private static final int MAX_COALESCE_MILLIS = 100;
+    private static final int MAX_COALESCED_EVENTS = 1000;
     private final WatchService watchService;
 
     WatchServicePoller(WatchService watchService) throws IOException {
         this.watchService = watchService;
     }
 
+    /**
+     * Waits for changes, and returns them once no more changes have been signalled for a short period, so that a burst of changes, such as when
+     * a directory tree is copied or a file is written in several steps, is delivered as a single batch. The events are delivered in the order
+     * they were signalled. An event is only dropped when it repeats the previous event for the same file, or is a modification of a file whose
+     * previous event is its creation.
+     */
     @Nullable
     public List<FileWatcherEvent> takeEvents() throws InterruptedException {
         WatchKey watchKey = watchService.poll(POLL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
-        if (watchKey != null) {
-            return handleWatchKey(watchKey);
+        if (watchKey == null) {
+            return null;
         }
-        return null;
+        List<FileWatcherEvent> events = new ArrayList<FileWatcherEvent>();
+        Map<File, FileWatcherEvent.Type> lastEventTypes = new HashMap<File, FileWatcherEvent.Type>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_COALESCE_MILLIS);
+        while (watchKey != null) {
+            for (FileWatcherEvent event : handleWatchKey(watchKey)) {
+                coalesce(events, lastEventTypes, event);
+            }
+            if (events.size() >= MAX_COALESCED_EVENTS || System.nanoTime() - deadline > 0) {
+                break;
+            }
+            watchKey = watchService.poll(COALESCE_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return events;
+    }
+
+    private static void coalesce(List<FileWatcherEvent> events, Map<File, FileWatcherEvent.Type> lastEventTypes, FileWatcherEvent event) {
+        // Undefined events have no file, so are coalesced as well
+        File file = event.getFile();
+        FileWatcherEvent.Type type = event.getType();
+        FileWatcherEvent.Type lastType = lastEventTypes.get(file);
+        if (type == lastType || (type == FileWatcherEvent.Type.MODIFY && lastType == FileWatcherEvent.Type.CREATE)) {
+            // The previous event for the file already reports this change
+            return;
+        }
+        // Otherwise keep the event in place, as a creation followed by a deletion, or the creation of a directory followed by the creation of
+        // its files, must be seen in the order it happened
+        events.add(event);
+        lastEventTypes.put(file, type);
     }
 
     private List<FileWatcherEvent> handleWatchKey(WatchKey watchKey) {
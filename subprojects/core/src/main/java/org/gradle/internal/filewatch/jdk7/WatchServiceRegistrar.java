@@ -17,6 +17,7 @@
 package org.gradle.internal.filewatch.jdk7;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
 import org.gradle.api.JavaVersion;
 import org.gradle.api.internal.file.FileSystemSubset;
 import org.gradle.api.logging.Logger;
@@ -41,10 +42,11 @@ import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.AbstractSet;
 import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -59,6 +61,7 @@ class WatchServiceRegistrar implements FileWatcherListener {
     private final Lock lock = new ReentrantLock(true);
     private final WatchPointsRegistry watchPointsRegistry;
     private final HashMap<Path, WatchKey> watchKeys = new HashMap<Path, WatchKey>();
+    private final Set<File> currentWatchPoints = new CurrentWatchPoints();
 
     WatchServiceRegistrar(WatchService watchService, FileWatcherListener delegate, FileSystem fileSystem) {
         this.watchService = watchService;
@@ -93,7 +96,7 @@ class WatchServiceRegistrar implements FileWatcherListener {
         lock.lock();
         try {
             LOG.debug("Begin - adding watches for {}", fileSystemSubset);
-            final WatchPointsRegistry.Delta delta = watchPointsRegistry.appendFileSystemSubset(fileSystemSubset, getCurrentWatchPoints());
+            final WatchPointsRegistry.Delta delta = watchPointsRegistry.appendFileSystemSubset(fileSystemSubset, currentWatchPoints);
             Iterable<? extends File> startingWatchPoints = delta.getStartingWatchPoints();
 
             for (File dir : startingWatchPoints) {
@@ -126,16 +129,6 @@ class WatchServiceRegistrar implements FileWatcherListener {
         }
     }
 
-    private Iterable<File> getCurrentWatchPoints() {
-        List<File> currentWatchPoints = new LinkedList<File>();
-        for (Map.Entry<Path, WatchKey> entry : watchKeys.entrySet()) {
-            if (entry.getValue().isValid()) {
-                currentWatchPoints.add(entry.getKey().toFile());
-            }
-        }
-        return currentWatchPoints;
-    }
-
     protected void watchDir(Path dir) throws IOException {
         LOG.debug("Registering watch for {}", dir);
         if (Thread.currentThread().isInterrupted()) {
@@ -205,6 +198,10 @@ class WatchServiceRegistrar implements FileWatcherListener {
             File file = event.getFile();
             maybeFire(watcher, event);
 
+            if (event.getType().equals(FileWatcherEvent.Type.DELETE)) {
+                unwatchDeletedDirectory(file.toPath());
+            }
+
             if (event.getType().equals(FileWatcherEvent.Type.CREATE) && file.isDirectory()) {
                 try {
                     maybeWatchNewDirectory(watcher, file);
@@ -273,9 +270,72 @@ class WatchServiceRegistrar implements FileWatcherListener {
         LOG.debug("End - maybeWatchNewDirectory {}", dir);
     }
 
+    /**
+     * Releases the watches of a deleted directory and of the directories under it, so that only that subtree has to be watched again when it is recreated.
+     */
+    private void unwatchDeletedDirectory(Path dir) {
+        if (!watchKeys.containsKey(dir)) {
+            return;
+        }
+        LOG.debug("Removing watches for deleted directory {}", dir);
+        Iterator<Map.Entry<Path, WatchKey>> iterator = watchKeys.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, WatchKey> entry = iterator.next();
+            if (entry.getKey().startsWith(dir)) {
+                entry.getValue().cancel();
+                iterator.remove();
+            }
+        }
+    }
+
     private boolean isStopRequested(FileWatcher watcher) {
         return Thread.currentThread().isInterrupted() || !watcher.isRunning();
     }
 
-}
+    /**
+     * A live view of the directories that are currently watched, which avoids copying the watched directories each time more files are watched.
+     */
+    private class CurrentWatchPoints extends AbstractSet<File> {
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof File)) {
+                return false;
+            }
+            WatchKey watchKey = watchKeys.get(((File) o).toPath());
+            return watchKey != null && watchKey.isValid();
+        }
 
+        @Override
+        public Iterator<File> iterator() {
+            final Iterator<Map.Entry<Path, WatchKey>> entries = watchKeys.entrySet().iterator();
+            return new AbstractIterator<File>() {
+                @Override
+                protected File computeNext() {
+                    while (entries.hasNext()) {
+                        Map.Entry<Path, WatchKey> entry = entries.next();
+                        if (entry.getValue().isValid()) {
+                            return entry.getKey().toFile();
+                        }
+                    }
+                    return endOfData();
+                }
+            };
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return !iterator().hasNext();
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (WatchKey watchKey : watchKeys.values()) {
+                if (watchKey.isValid()) {
+                    size++;
+                }
+            }
+            return size;
+        }
+    }
+}
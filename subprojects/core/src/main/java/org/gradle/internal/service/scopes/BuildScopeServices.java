@@ -84,7 +84,7 @@ import org.gradle.configuration.project.ConfigureActionsProjectEvaluator;
 import org.gradle.configuration.project.DelayedConfigurationActions;
 import org.gradle.configuration.project.LifecycleProjectEvaluator;
 import org.gradle.configuration.project.PluginsProjectConfigureActions;
-import org.gradle.configuration.project.ProjectEvaluator;
+import org.gradle.execution.ParallelTaskPathProjectEvaluator;
 import org.gradle.execution.ProjectConfigurer;
 import org.gradle.execution.TaskPathProjectEvaluator;
 import org.gradle.groovy.scripts.DefaultScriptCompilerFactory;
@@ -149,6 +149,7 @@ import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.time.TimeProvider;
 import org.gradle.internal.time.TrueTimeProvider;
+import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.model.internal.inspect.ModelRuleSourceDetector;
 import org.gradle.plugin.repository.internal.PluginRepositoryFactory;
 import org.gradle.plugin.repository.internal.PluginRepositoryRegistry;
@@ -218,7 +219,7 @@ public class BuildScopeServices extends DefaultServiceRegistry {
             new InstantiatingBuildLoader(get(IProjectFactory.class)));
     }
 
-    protected ProjectEvaluator createProjectEvaluator(BuildOperationExecutor buildOperationExecutor, CachingServiceLocator cachingServiceLocator, ScriptPluginFactory scriptPluginFactory) {
+    protected LifecycleProjectEvaluator createProjectEvaluator(BuildOperationExecutor buildOperationExecutor, CachingServiceLocator cachingServiceLocator, ScriptPluginFactory scriptPluginFactory) {
         ConfigureActionsProjectEvaluator withActionsEvaluator = new ConfigureActionsProjectEvaluator(
             PluginsProjectConfigureActions.from(cachingServiceLocator),
             new BuildScriptProcessor(scriptPluginFactory),
@@ -369,10 +370,21 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         );
     }
 
-    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken) {
+    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken, StartParameter startParameter, BuildOperationExecutor buildOperationExecutor, WorkerLeaseService workerLeaseService, LifecycleProjectEvaluator projectEvaluator) {
+        if (startParameter.isParallelProjectExecutionEnabled() && !startParameter.isConfigureOnDemand() && isParallelConfigurationEnabled(startParameter)) {
+            return new ParallelTaskPathProjectEvaluator(cancellationToken, buildOperationExecutor, workerLeaseService, projectEvaluator);
+        }
         return new TaskPathProjectEvaluator(cancellationToken);
     }
 
+    private static boolean isParallelConfigurationEnabled(StartParameter startParameter) {
+        String value = startParameter.getSystemPropertiesArgs().get(ParallelTaskPathProjectEvaluator.SYSPROP);
+        if (value == null) {
+            value = System.getProperty(ParallelTaskPathProjectEvaluator.SYSPROP);
+        }
+        return Boolean.parseBoolean(value);
+    }
+
     protected BuildConfigurer createBuildConfigurer(ProjectConfigurer projectConfigurer) {
         return new DefaultBuildConfigurer(projectConfigurer);
     }
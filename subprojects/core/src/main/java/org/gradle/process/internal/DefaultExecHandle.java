@@ -87,7 +87,7 @@ public class DefaultExecHandle implements ExecHandle, ProcessSettings {
     private final StreamsHandler streamsHandler;
     private final boolean redirectErrorStream;
     private final ProcessLauncher processLauncher;
-    private final DefaultExecutorFactory executorFactory = new DefaultExecutorFactory();
+    private final DefaultExecutorFactory executorFactory = new SharedThreadPoolExecutorFactory();
     private int timeoutMillis;
     private boolean daemon;
 
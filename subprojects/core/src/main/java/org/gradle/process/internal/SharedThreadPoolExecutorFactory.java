@@ -0,0 +1,170 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal;
+
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.concurrent.ThreadFactoryImpl;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An executor factory whose executors run their jobs on a thread pool that is shared by all instances of this factory. Stopping an executor waits
+ * for the jobs of that executor only.
+ *
+ * <p>Running a process and forwarding its streams takes a few threads that are blocked for as long as the process runs. Sharing the pool means
+ * that these threads are reused by the next processes, rather than started and stopped for every process.</p>
+ */
+class SharedThreadPoolExecutorFactory extends DefaultExecutorFactory {
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    private static final ExecutorService SHARED_POOL = new ThreadPoolExecutor(0, Integer.MAX_VALUE, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+        new SynchronousQueue<Runnable>(), new DaemonThreadFactory(new ThreadFactoryImpl("Process I/O")));
+
+    @Override
+    protected ExecutorService createExecutor(String displayName) {
+        return new SharedPoolExecutorService(displayName);
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final ThreadFactory delegate;
+
+        DaemonThreadFactory(ThreadFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            // Idle threads must not keep the JVM alive
+            Thread thread = delegate.newThread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    private static class SharedPoolExecutorService extends AbstractExecutorService {
+        private final String displayName;
+        private final Object lock = new Object();
+        // Fields guarded by lock
+        private final Set<Thread> runningThreads = new HashSet<Thread>();
+        private int pendingJobs;
+        private boolean shutdown;
+
+        SharedPoolExecutorService(String displayName) {
+            this.displayName = displayName;
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            synchronized (lock) {
+                if (shutdown) {
+                    throw new RejectedExecutionException(String.format("Executor '%s' has been shut down.", displayName));
+                }
+                pendingJobs++;
+            }
+            try {
+                SHARED_POOL.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        Thread thread = Thread.currentThread();
+                        String threadName = thread.getName();
+                        synchronized (lock) {
+                            runningThreads.add(thread);
+                        }
+                        thread.setName(displayName);
+                        try {
+                            command.run();
+                        } finally {
+                            thread.setName(threadName);
+                            synchronized (lock) {
+                                runningThreads.remove(thread);
+                                jobFinished();
+                            }
+                            // Do not leak an interrupt from shutdownNow() to the next job that runs on this thread
+                            Thread.interrupted();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                synchronized (lock) {
+                    jobFinished();
+                }
+                throw e;
+            }
+        }
+
+        private void jobFinished() {
+            pendingJobs--;
+            lock.notifyAll();
+        }
+
+        @Override
+        public void shutdown() {
+            synchronized (lock) {
+                shutdown = true;
+            }
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            synchronized (lock) {
+                shutdown = true;
+                for (Thread thread : runningThreads) {
+                    thread.interrupt();
+                }
+            }
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            synchronized (lock) {
+                return shutdown;
+            }
+        }
+
+        @Override
+        public boolean isTerminated() {
+            synchronized (lock) {
+                return shutdown && pendingJobs == 0;
+            }
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            synchronized (lock) {
+                while (!shutdown || pendingJobs > 0) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                }
+                return true;
+            }
+        }
+    }
+}
@@ -26,6 +26,8 @@ import java.io.OutputStream;
 
 public class ExecOutputHandleRunner implements Runnable {
     private final static Logger LOGGER = Logging.getLogger(ExecOutputHandleRunner.class);
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+    private static final int MAX_BUFFER_SIZE = 64 * 1024;
 
     private final String displayName;
     private final InputStream inputStream;
@@ -33,7 +35,7 @@ public class ExecOutputHandleRunner implements Runnable {
     private final int bufferSize;
 
     public ExecOutputHandleRunner(String displayName, InputStream inputStream, OutputStream outputStream) {
-        this(displayName, inputStream, outputStream, 2048);
+        this(displayName, inputStream, outputStream, INITIAL_BUFFER_SIZE);
     }
 
     ExecOutputHandleRunner(String displayName, InputStream inputStream, OutputStream outputStream, int bufferSize) {
@@ -52,14 +54,29 @@ public class ExecOutputHandleRunner implements Runnable {
                     break;
                 }
                 outputStream.write(buffer, 0, nread);
-                outputStream.flush();
+                // Only flush once everything that is available has been forwarded, so that a process that writes
+                // a lot of output does not cause a flush for every read. Read larger chunks while it does so.
+                if (!isMoreInputAvailable()) {
+                    outputStream.flush();
+                } else if (nread == buffer.length && buffer.length < MAX_BUFFER_SIZE) {
+                    buffer = new byte[Math.min(buffer.length * 2, MAX_BUFFER_SIZE)];
+                }
             }
+            outputStream.flush();
             CompositeStoppable.stoppable(inputStream, outputStream).stop();
         } catch (Throwable t) {
             LOGGER.error(String.format("Could not %s.", displayName), t);
         }
     }
 
+    private boolean isMoreInputAvailable() {
+        try {
+            return inputStream.available() > 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
     public void closeInput() throws IOException {
         inputStream.close();
     }
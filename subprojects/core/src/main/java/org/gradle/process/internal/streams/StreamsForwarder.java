@@ -16,16 +16,20 @@
 
 package org.gradle.process.internal.streams;
 
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.concurrent.ManagedExecutor;
 import org.gradle.internal.operations.BuildOperationIdentifierPreservingRunnable;
 import org.gradle.util.DisconnectableInputStream;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
 public class StreamsForwarder implements StreamsHandler {
+    private static final Logger LOGGER = Logging.getLogger(StreamsForwarder.class);
 
     private final OutputStream standardOutput;
     private final OutputStream errorOutput;
@@ -36,6 +40,8 @@ public class StreamsForwarder implements StreamsHandler {
     private ExecOutputHandleRunner standardOutputRunner;
     private ExecOutputHandleRunner errorOutputRunner;
     private ExecOutputHandleRunner standardInputRunner;
+    private OutputStream processInput;
+    private String processName;
 
     public StreamsForwarder(OutputStream standardOutput, OutputStream errorOutput, InputStream input, boolean readErrorStream) {
         this.standardOutput = standardOutput;
@@ -45,25 +51,44 @@ public class StreamsForwarder implements StreamsHandler {
     }
 
     public void connectStreams(Process process, String processName, ExecutorFactory executorFactory) {
-        /*
-            There's a potential problem here in that DisconnectableInputStream reads from input in the background.
-            This won't automatically stop when the process is over. Therefore, if input is not closed then this thread
-            will run forever. It would be better to ensure that this thread stops when the process does.
-         */
-        InputStream instr = new DisconnectableInputStream(input);
+        if (hasNoInput()) {
+            // Nothing to forward, so close the input of the process straight away rather than using threads to do so
+            processInput = process.getOutputStream();
+            this.processName = processName;
+        } else {
+            /*
+                There's a potential problem here in that DisconnectableInputStream reads from input in the background.
+                This won't automatically stop when the process is over. Therefore, if input is not closed then this thread
+                will run forever. It would be better to ensure that this thread stops when the process does.
+             */
+            InputStream instr = new DisconnectableInputStream(input);
+            standardInputRunner = new ExecOutputHandleRunner("write standard input into: " + processName,
+                    instr, process.getOutputStream());
+        }
 
         standardOutputRunner = new ExecOutputHandleRunner("read standard output of: " + processName,
                 process.getInputStream(), standardOutput);
         errorOutputRunner = new ExecOutputHandleRunner("read error output of: " + processName, process.getErrorStream(),
                 errorOutput);
-        standardInputRunner = new ExecOutputHandleRunner("write standard input into: " + processName,
-                instr, process.getOutputStream());
 
         this.executor = executorFactory.create("Forward streams with process: " + processName);
     }
 
+    private boolean hasNoInput() {
+        // The content of a ByteArrayInputStream is fixed, so once it is exhausted it will not provide any more input
+        return input instanceof ByteArrayInputStream && ((ByteArrayInputStream) input).available() == 0;
+    }
+
     public void start() {
-        executor.execute(standardInputRunner);
+        if (standardInputRunner != null) {
+            executor.execute(standardInputRunner);
+        } else {
+            try {
+                processInput.close();
+            } catch (IOException e) {
+                LOGGER.error(String.format("Could not close standard input of: %s.", processName), e);
+            }
+        }
         if (readErrorStream) {
             executor.execute(wrapInBuildOperation(errorOutputRunner));
         }
@@ -75,10 +100,12 @@ public class StreamsForwarder implements StreamsHandler {
     }
 
     public void stop() {
-        try {
-            standardInputRunner.closeInput();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        if (standardInputRunner != null) {
+            try {
+                standardInputRunner.closeInput();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
         }
         executor.stop();
     }
@@ -237,4 +237,80 @@ class DefaultFileContentCacheFactoryTest extends Specification {
         1 * calculator.calculate(file, FileType.RegularFile) >> 10
         0 * _
     }
+
+    def "discards results for the outputs of a task and for the directories that contain them"() {
+        def dir = tmpDir.file("dir")
+        def output = dir.file("sub/output.txt")
+        def other = tmpDir.file("other")
+        def dirSnapshot = Stub(FileSnapshot)
+        def otherSnapshot = Stub(FileSnapshot)
+        def cache = factory.newCache("cache", 12000, calculator, BaseSerializerFactory.INTEGER_SERIALIZER)
+
+        when:
+        cache.get(dir)
+        cache.get(other)
+
+        then:
+        1 * fileSystemSnapshotter.snapshotSelf(dir) >> dirSnapshot
+        1 * fileSystemSnapshotter.snapshotSelf(other) >> otherSnapshot
+        _ * dirSnapshot.type >> FileType.Directory
+        _ * otherSnapshot.type >> FileType.Directory
+        1 * calculator.calculate(dir, FileType.Directory) >> 12
+        1 * calculator.calculate(other, FileType.Directory) >> 11
+        0 * _
+
+        when:
+        listenerManager.getBroadcaster(TaskOutputsGenerationListener).beforeTaskOutputsGenerated([output.absolutePath])
+        def dirResult = cache.get(dir)
+        def otherResult = cache.get(other)
+
+        then:
+        dirResult == 10
+        otherResult == 11
+
+        and:
+        1 * fileSystemSnapshotter.snapshotSelf(dir) >> dirSnapshot
+        _ * dirSnapshot.type >> FileType.Directory
+        1 * calculator.calculate(dir, FileType.Directory) >> 10
+        0 * _
+    }
+
+    def "discards all results when the locations written by a task are unknown"() {
+        def dir = tmpDir.file("dir")
+        def other = tmpDir.file("other")
+        def dirSnapshot = Stub(FileSnapshot)
+        def otherSnapshot = Stub(FileSnapshot)
+        def cache = factory.newCache("cache", 12000, calculator, BaseSerializerFactory.INTEGER_SERIALIZER)
+
+        when:
+        cache.get(dir)
+        cache.get(other)
+
+        then:
+        1 * fileSystemSnapshotter.snapshotSelf(dir) >> dirSnapshot
+        1 * fileSystemSnapshotter.snapshotSelf(other) >> otherSnapshot
+        _ * dirSnapshot.type >> FileType.Directory
+        _ * otherSnapshot.type >> FileType.Directory
+        1 * calculator.calculate(dir, FileType.Directory) >> 12
+        1 * calculator.calculate(other, FileType.Directory) >> 11
+        0 * _
+
+        when:
+        listenerManager.getBroadcaster(TaskOutputsGenerationListener).beforeTaskOutputsGenerated([])
+        def dirResult = cache.get(dir)
+        def otherResult = cache.get(other)
+
+        then:
+        dirResult == 10
+        otherResult == 9
+
+        and:
+        1 * fileSystemSnapshotter.snapshotSelf(dir) >> dirSnapshot
+        1 * fileSystemSnapshotter.snapshotSelf(other) >> otherSnapshot
+        _ * dirSnapshot.type >> FileType.Directory
+        _ * otherSnapshot.type >> FileType.Directory
+        1 * calculator.calculate(dir, FileType.Directory) >> 10
+        1 * calculator.calculate(other, FileType.Directory) >> 9
+        0 * _
+    }
 }
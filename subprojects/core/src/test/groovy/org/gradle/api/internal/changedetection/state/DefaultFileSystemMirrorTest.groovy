@@ -68,6 +68,47 @@ class DefaultFileSystemMirrorTest extends Specification {
         mirror.getContent(file.path) == null
     }
 
+    def "discards state only about files affected by task outputs when they are known"() {
+        def outputDir = tmpDir.file("project/build")
+        def affected = [outputDir, outputDir.file("classes/A.class"), tmpDir.file("project"), tmpDir.file("project/build")]
+        def unaffected = [tmpDir.file("project/src/A.java"), tmpDir.file("project/build2"), tmpDir.file("other")]
+
+        given:
+        (affected + unaffected).each { file ->
+            mirror.putFile(Stub(FileSnapshot) { getPath() >> file.path })
+            mirror.putDirectory(Stub(FileTreeSnapshot) { getPath() >> file.path })
+            mirror.putContent(file.path, Stub(Snapshot))
+        }
+
+        when:
+        mirror.beforeTaskOutputsGenerated([outputDir.path])
+
+        then:
+        affected.every { mirror.getFile(it.path) == null && mirror.getDirectoryTree(it.path) == null && mirror.getContent(it.path) == null }
+        unaffected.every { mirror.getFile(it.path) != null && mirror.getDirectoryTree(it.path) != null && mirror.getContent(it.path) != null }
+    }
+
+    def "discards state about all files when the locations written by a task are unknown"() {
+        def files = [tmpDir.file("project/build"), tmpDir.file("project/src/A.java"), tmpDir.file("other")]
+        def cachedFile = cacheDir.file("some/dir/a")
+
+        given:
+        (files + cachedFile).each { file ->
+            mirror.putFile(Stub(FileSnapshot) { getPath() >> file.path })
+            mirror.putDirectory(Stub(FileTreeSnapshot) { getPath() >> file.path })
+            mirror.putContent(file.path, Stub(Snapshot))
+        }
+
+        when:
+        mirror.beforeTaskOutputsGenerated([])
+
+        then:
+        files.every { mirror.getFile(it.path) == null && mirror.getDirectoryTree(it.path) == null && mirror.getContent(it.path) == null }
+        mirror.getFile(cachedFile.path) != null
+        mirror.getDirectoryTree(cachedFile.path) != null
+        mirror.getContent(cachedFile.path) != null
+    }
+
     def "keeps state about a file until end of build"() {
         def file = tmpDir.file("a")
         def fileSnapshot = Stub(FileSnapshot)
@@ -36,4 +36,47 @@ class DefaultFileTreeElementTest extends Specification {
         expect:
         e.mode == 0644
     }
+
+    def "copies file content to target"() {
+        def source = tmpDir.createFile("source")
+        source.text = "content" * 20000
+        def target = tmpDir.file("target")
+        FileTreeElement e = new DefaultFileTreeElement(source, null, Stub(Chmod), Stub(Stat))
+
+        when:
+        e.copyTo(target)
+
+        then:
+        target.text == source.text
+    }
+
+    def "overwrites target with different content of the same size"() {
+        def source = tmpDir.createFile("source")
+        source.text = "content"
+        def target = tmpDir.createFile("target")
+        target.text = "CONTENT"
+        FileTreeElement e = new DefaultFileTreeElement(source, null, Stub(Chmod), Stub(Stat))
+
+        when:
+        e.copyTo(target)
+
+        then:
+        target.text == "content"
+    }
+
+    def "does not rewrite target that already has the same content"() {
+        def source = tmpDir.createFile("source")
+        source.text = "content"
+        def target = tmpDir.createFile("target")
+        target.text = "content"
+        target.lastModified = 1000
+        FileTreeElement e = new DefaultFileTreeElement(source, null, Stub(Chmod), Stub(Stat))
+
+        when:
+        e.copyTo(target)
+
+        then:
+        target.text == "content"
+        target.lastModified() == 1000
+    }
 }
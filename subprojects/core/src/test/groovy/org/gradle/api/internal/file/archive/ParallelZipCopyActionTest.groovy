@@ -0,0 +1,240 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive
+
+import org.apache.tools.zip.ZipOutputStream
+import org.gradle.api.file.FileVisitDetails
+import org.gradle.api.file.FileVisitor
+import org.gradle.api.file.RelativePath
+import org.gradle.api.internal.DocumentationRegistry
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction
+import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory
+import org.gradle.api.internal.file.copy.CopyActionProcessingStream
+import org.gradle.api.internal.file.copy.CopyAction
+import org.gradle.api.internal.file.copy.CopySpecResolver
+import org.gradle.api.internal.file.copy.DefaultZipCompressor
+import org.gradle.api.internal.file.copy.DefaultFileCopyDetails
+import org.gradle.api.internal.file.copy.FileCopyDetailsInternal
+import org.gradle.internal.nativeintegration.filesystem.Chmod
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.test.fixtures.archive.ZipTestFixture
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.zip.Deflater
+import java.util.zip.ZipEntry
+import java.util.zip.ZipFile
+
+import static org.hamcrest.Matchers.equalTo
+
+class ParallelZipCopyActionTest extends Specification {
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    TestFile zipFile
+
+    def setup() {
+        zipFile = tmpDir.getTestDirectory().file("test.zip")
+    }
+
+    def "creates zip file"() {
+        when:
+        zip(action(method), dir("dir"), file("dir/file1", concurrent), file("file2", concurrent))
+
+        then:
+        TestFile expandDir = tmpDir.getTestDirectory().file("expanded")
+        zipFile.unzipTo(expandDir)
+        expandDir.file("dir/file1").assertContents(equalTo("contents of dir/file1"))
+        expandDir.file("file2").assertContents(equalTo("contents of file2"))
+
+        and:
+        def zipFixture = new ZipTestFixture(zipFile)
+        zipFixture.assertFileMode("dir/", 2)
+        zipFixture.assertFileMode("dir/file1", 1)
+
+        where:
+        method                   | concurrent
+        ZipOutputStream.DEFLATED | true
+        ZipOutputStream.DEFLATED | false
+        ZipOutputStream.STORED   | true
+        ZipOutputStream.STORED   | false
+    }
+
+    def "creates the same zip file regardless of whether files are compressed concurrently"() {
+        given:
+        def paths = (1..50).collect { "dir/file$it" }
+
+        when:
+        zip(action(ZipOutputStream.DEFLATED), [dir("dir")] + paths.collect { file(it, true) } as FileCopyDetailsInternal[])
+        def concurrentlyCompressed = zipFile.bytes
+        zip(action(ZipOutputStream.DEFLATED), [dir("dir")] + paths.collect { file(it, false) } as FileCopyDetailsInternal[])
+
+        then:
+        zipFile.bytes == concurrentlyCompressed
+    }
+
+    @Unroll
+    def "creates the same zip file as the Ant based action - method: #method, zip64: #allowZip64, encoding: #encoding"() {
+        given:
+        def files = [dir("dir"), file("dir/file1", true), file("dir/file2", false), dir("dir/sub"), file("dir/sub/file3", true), file("dir/sub/\u00e9t\u00e9", true)] as FileCopyDetailsInternal[]
+
+        when:
+        zip(new ZipCopyAction(zipFile, new DefaultZipCompressor(allowZip64, method), new DocumentationRegistry(), encoding, false), files)
+        def antZip = zipFile.bytes
+        zip(new ParallelZipCopyAction(zipFile, method, allowZip64, new DocumentationRegistry(), encoding, false, buildOperationExecutor), files)
+
+        then:
+        zipFile.bytes == antZip
+
+        where:
+        method                   | allowZip64 | encoding
+        ZipOutputStream.DEFLATED | false      | null
+        ZipOutputStream.DEFLATED | true       | null
+        ZipOutputStream.DEFLATED | true       | "UTF-8"
+        ZipOutputStream.DEFLATED | false      | "ISO-8859-1"
+        ZipOutputStream.STORED   | false      | null
+        ZipOutputStream.STORED   | true       | "UTF-8"
+    }
+
+    def "copies the content of stored entries of another zip file"() {
+        given:
+        def content = (1..5000).collect { "line $it" }.join("\n")
+        def source = tmpDir.getTestDirectory().file("source.zip")
+        def sourceOut = new java.util.zip.ZipOutputStream(source.newOutputStream())
+        sourceOut.level = Deflater.BEST_SPEED
+        sourceOut.putNextEntry(new ZipEntry("file"))
+        sourceOut << content
+        sourceOut.close()
+
+        when:
+        copyZipTree(action(ZipOutputStream.DEFLATED), source)
+
+        then:
+        def zip = new ZipFile(zipFile)
+        zip.getInputStream(zip.getEntry("file")).text == content
+        // compressed again, rather than copying the differently compressed content of the source
+        zip.getEntry("file").compressedSize != new ZipFile(source).getEntry("file").compressedSize
+        zip.close()
+
+        when:
+        copyZipTree(action(ZipOutputStream.STORED), source)
+        def stored = tmpDir.getTestDirectory().file("stored.zip")
+        zipFile.copyTo(stored)
+        copyZipTree(action(ZipOutputStream.STORED), stored)
+
+        then:
+        zipFile.bytes == stored.bytes
+        def storedZip = new ZipFile(zipFile)
+        storedZip.getInputStream(storedZip.getEntry("file")).text == content
+        storedZip.getEntry("file").method == ZipEntry.STORED
+        storedZip.close()
+    }
+
+    def "wraps failure to add element"() {
+        given:
+        Throwable failure = new RuntimeException("broken")
+        def brokenFile = brokenFile("dir/file1", failure, concurrent)
+
+        when:
+        zip(action(ZipOutputStream.DEFLATED), file("file", true), brokenFile)
+
+        then:
+        def e = thrown(Exception)
+        e.message == String.format("Could not add $brokenFile to ZIP '%s'.", zipFile)
+        e.cause.is(failure)
+
+        where:
+        concurrent << [true, false]
+    }
+
+    private ParallelZipCopyAction action(int method) {
+        return new ParallelZipCopyAction(zipFile, method, false, new DocumentationRegistry(), "UTF-8", false, buildOperationExecutor)
+    }
+
+    private static void zip(CopyAction visitor, final FileCopyDetailsInternal... files) {
+        visitor.execute(new CopyActionProcessingStream() {
+            void process(CopyActionProcessingStreamAction action) {
+                for (FileCopyDetailsInternal f : files) {
+                    action.processFile(f)
+                }
+            }
+        })
+    }
+
+    private void copyZipTree(ParallelZipCopyAction visitor, File source) {
+        def specResolver = Stub(CopySpecResolver) {
+            getDestPath() >> new RelativePath(false)
+            getFilteringCharset() >> "UTF-8"
+        }
+        def tree = new ZipFileTree(source, tmpDir.getTestDirectory().file("expanded"), Stub(Chmod), Stub(DirectoryFileTreeFactory))
+        visitor.execute(new CopyActionProcessingStream() {
+            void process(CopyActionProcessingStreamAction action) {
+                tree.visit(new FileVisitor() {
+                    void visitDir(FileVisitDetails dirDetails) {
+                    }
+
+                    void visitFile(FileVisitDetails fileDetails) {
+                        action.processFile(new DefaultFileCopyDetails(fileDetails, specResolver, Stub(Chmod)))
+                    }
+                })
+            }
+        })
+    }
+
+    private FileCopyDetailsInternal file(final String path, boolean concurrent) {
+        def content = "contents of $path".toString()
+        def mock = Mock(FileCopyDetailsInternal)
+        mock.getRelativePath() >> RelativePath.parse(true, path)
+        mock.getLastModified() >> 1000L
+        mock.isDirectory() >> false
+        mock.getMode() >> 1
+        mock.getSize() >> content.length()
+        mock.isCopyableConcurrently() >> concurrent
+        mock.copyTo(_ as OutputStream) >> { OutputStream out ->
+            out << content
+        }
+        mock
+    }
+
+    private FileCopyDetailsInternal dir(final String path) {
+        def mock = Mock(FileCopyDetailsInternal)
+        mock.getRelativePath() >> RelativePath.parse(false, path)
+        mock.getLastModified() >> 1000L
+        mock.isDirectory() >> true
+        mock.getMode() >> 2
+        mock
+    }
+
+    private FileCopyDetailsInternal brokenFile(final String path, final Throwable failure, boolean concurrent) {
+        def mock = Mock(FileCopyDetailsInternal)
+        mock.getRelativePath() >> RelativePath.parse(true, path)
+        mock.getLastModified() >> 1000L
+        mock.isDirectory() >> false
+        mock.getMode() >> 1
+        mock.getSize() >> 10
+        mock.isCopyableConcurrently() >> concurrent
+        mock.copyTo(_ as OutputStream) >> { OutputStream out ->
+            failure.fillInStackTrace()
+            throw failure
+        }
+        mock
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive
+
+import org.apache.tools.zip.Zip64RequiredException
+import org.apache.tools.zip.ZipEntry
+import org.apache.tools.zip.ZipOutputStream
+import org.gradle.api.Action
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.zip.ZipFile
+
+class ZipArchiveWriterTest extends Specification {
+    private static final long ZIP64_SIZE = 0x100000000L + 1
+
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    TestFile zipFile
+
+    def setup() {
+        zipFile = tmpDir.getTestDirectory().file("test.zip")
+    }
+
+    @Unroll
+    def "entries can be read back by java.util.zip and Ant - method: #method, zip64: #allowZip64"() {
+        when:
+        def writer = new ZipArchiveWriter(zipFile, "UTF-8", allowZip64)
+        writer.writeDirectory("dir/", 0, 0755, method)
+        writer.writeFile("dir/compressed", 0, 0644, ZipArchiveWriter.compress(method, content("compressed")))
+        writer.writeFile("dir/streamed", 0, 0600, method, content("streamed"))
+        writer.writeFile("dir/empty", 0, 0644, method, content(""))
+        writer.close()
+
+        then:
+        def zip = new ZipFile(zipFile)
+        zip.size() == 4
+        zip.getEntry("dir/").directory
+        zip.getInputStream(zip.getEntry("dir/compressed")).text == "compressed"
+        zip.getInputStream(zip.getEntry("dir/streamed")).text == "streamed"
+        zip.getInputStream(zip.getEntry("dir/empty")).text == ""
+        zip.getEntry("dir/streamed").size == "streamed".length()
+        zip.getEntry("dir/streamed").method == method
+        zip.close()
+
+        and:
+        def antZip = new org.apache.tools.zip.ZipFile(zipFile, "UTF-8")
+        antZip.getEntry("dir/").unixMode == (0755 | 040000)
+        antZip.getEntry("dir/streamed").unixMode == (0600 | 0100000)
+        antZip.getInputStream(antZip.getEntry("dir/streamed")).text == "streamed"
+        antZip.getEntry("dir/streamed").crc == zip.getEntry("dir/streamed").crc
+        antZip.close()
+
+        where:
+        method                   | allowZip64
+        ZipOutputStream.DEFLATED | false
+        ZipOutputStream.DEFLATED | true
+        ZipOutputStream.STORED   | false
+        ZipOutputStream.STORED   | true
+    }
+
+    // Compresses several GB of content, which takes a while
+    @Requires(TestPrecondition.NOT_PULL_REQUEST_BUILD)
+    def "writes zip64 sizes for entries larger than 4GB"() {
+        given:
+        def compressed = ZipArchiveWriter.compress(ZipOutputStream.DEFLATED, zeros(ZIP64_SIZE))
+
+        when:
+        def writer = new ZipArchiveWriter(zipFile, "UTF-8", true)
+        writer.writeFile("compressed", 0, 0644, compressed)
+        writer.writeFile("streamed", 0, 0644, ZipOutputStream.DEFLATED, zeros(ZIP64_SIZE))
+        writer.writeFile("small", 0, 0644, ZipOutputStream.DEFLATED, content("small"))
+        writer.close()
+
+        then:
+        compressed.size == ZIP64_SIZE
+
+        and:
+        def zip = new ZipFile(zipFile)
+        ["compressed", "streamed"].each { name ->
+            def entry = zip.getEntry(name)
+            assert entry.size == ZIP64_SIZE
+            assert entry.compressedSize == compressed.compressedSize
+        }
+        zip.getEntry("streamed").crc == zip.getEntry("compressed").crc
+        zip.getInputStream(zip.getEntry("small")).text == "small"
+        count(zip.getInputStream(zip.getEntry("streamed"))) == ZIP64_SIZE
+        zip.close()
+
+        and:
+        def antZip = new org.apache.tools.zip.ZipFile(zipFile, "UTF-8")
+        antZip.getEntry("compressed").size == ZIP64_SIZE
+        antZip.getEntry("streamed").size == ZIP64_SIZE
+        antZip.getEntry("streamed").compressedSize == compressed.compressedSize
+        antZip.getInputStream(antZip.getEntry("small")).text == "small"
+        antZip.close()
+    }
+
+    // Compresses several GB of content, which takes a while
+    @Requires(TestPrecondition.NOT_PULL_REQUEST_BUILD)
+    def "fails on entries larger than 4GB when zip64 is not allowed"() {
+        given:
+        def writer = new ZipArchiveWriter(zipFile, "UTF-8", false)
+
+        when:
+        writer.writeFile("streamed", 0, 0644, ZipOutputStream.DEFLATED, zeros(ZIP64_SIZE))
+
+        then:
+        def e = thrown(Zip64RequiredException)
+        e.message == "streamed's size exceeds the limit of 4GByte."
+
+        cleanup:
+        writer?.close()
+    }
+
+    def "writes zip64 end of central directory for more than 65535 entries"() {
+        given:
+        def count = 65536 + 10
+        def entryContent = ZipArchiveWriter.compress(ZipOutputStream.STORED, content("x"))
+
+        when:
+        def writer = new ZipArchiveWriter(zipFile, "UTF-8", true)
+        for (int i = 0; i < count; i++) {
+            writer.writeFile("file" + i, 0, 0644, entryContent)
+        }
+        writer.close()
+
+        then:
+        def zip = new ZipFile(zipFile)
+        zip.size() == count
+        zip.getInputStream(zip.getEntry("file0")).text == "x"
+        zip.getInputStream(zip.getEntry("file" + (count - 1))).text == "x"
+        zip.close()
+
+        and:
+        def antZip = new org.apache.tools.zip.ZipFile(zipFile, "UTF-8")
+        Collections.list(antZip.entries).size() == count
+        antZip.getInputStream(antZip.getEntry("file" + (count - 1))).text == "x"
+        antZip.close()
+    }
+
+    def "fails on more than 65535 entries when zip64 is not allowed"() {
+        given:
+        def entryContent = ZipArchiveWriter.compress(ZipOutputStream.STORED, content("x"))
+        def writer = new ZipArchiveWriter(zipFile, "UTF-8", false)
+        for (int i = 0; i < 65536; i++) {
+            writer.writeFile("file" + i, 0, 0644, entryContent)
+        }
+
+        when:
+        writer.close()
+
+        then:
+        def e = thrown(Zip64RequiredException)
+        e.message == "archive contains more than 65535 entries."
+    }
+
+    @Unroll
+    def "converts #description to the same MS-DOS time as Ant"() {
+        given:
+        def antZipFile = tmpDir.getTestDirectory().file("ant.zip")
+        def antOut = new ZipOutputStream(antZipFile)
+        def antEntry = new ZipEntry("file")
+        antEntry.time = time
+        antOut.putNextEntry(antEntry)
+        antOut << "content"
+        antOut.close()
+
+        when:
+        def writer = new ZipArchiveWriter(zipFile, "UTF-8", false)
+        writer.writeFile("file", time, 0644, ZipArchiveWriter.compress(ZipOutputStream.DEFLATED, content("content")))
+        writer.close()
+
+        then:
+        def expected = new ZipFile(antZipFile)
+        def zip = new ZipFile(zipFile)
+        zip.getEntry("file").time == expected.getEntry("file").time
+        expected.close()
+        zip.close()
+
+        and:
+        def expectedAnt = new org.apache.tools.zip.ZipFile(antZipFile, "UTF-8")
+        def antZip = new org.apache.tools.zip.ZipFile(zipFile, "UTF-8")
+        antZip.getEntry("file").time == expectedAnt.getEntry("file").time
+        expectedAnt.close()
+        antZip.close()
+
+        where:
+        description                     | time
+        "the epoch"                     | 0L
+        "the last second before 1980"   | new GregorianCalendar(1979, Calendar.DECEMBER, 31, 23, 59, 59).timeInMillis
+        "the start of 1980"             | new GregorianCalendar(1980, Calendar.JANUARY, 1, 0, 0, 0).timeInMillis
+        "the constant entry time"       | ZipCopyAction.CONSTANT_TIME_FOR_ZIP_ENTRIES
+        "an odd second"                 | new GregorianCalendar(2017, Calendar.JUNE, 15, 13, 45, 31).timeInMillis
+        "the end of a leap day"         | new GregorianCalendar(2016, Calendar.FEBRUARY, 29, 23, 59, 58).timeInMillis
+        "the last representable second" | new GregorianCalendar(2107, Calendar.DECEMBER, 31, 23, 59, 58).timeInMillis
+    }
+
+    private static Action<OutputStream> content(String text) {
+        return { OutputStream out -> out.write(text.getBytes("UTF-8")) } as Action<OutputStream>
+    }
+
+    private static Action<OutputStream> zeros(long size) {
+        return { OutputStream out ->
+            def buffer = new byte[1024 * 1024]
+            long remaining = size
+            while (remaining > 0) {
+                int length = (int) Math.min(buffer.length, remaining)
+                out.write(buffer, 0, length)
+                remaining -= length
+            }
+        } as Action<OutputStream>
+    }
+
+    private static long count(InputStream inputStream) {
+        def buffer = new byte[1024 * 1024]
+        long total = 0
+        int read
+        while ((read = inputStream.read(buffer)) >= 0) {
+            total += read
+        }
+        inputStream.close()
+        return total
+    }
+}
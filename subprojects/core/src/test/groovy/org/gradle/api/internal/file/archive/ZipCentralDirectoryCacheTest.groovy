@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive
+
+import org.gradle.api.internal.cache.CrossBuildInMemoryCacheFactory
+import org.gradle.internal.event.DefaultListenerManager
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.nio.charset.Charset
+
+class ZipCentralDirectoryCacheTest extends Specification {
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def cache = new ZipCentralDirectoryCache(new CrossBuildInMemoryCacheFactory(new DefaultListenerManager()))
+    def charset = Charset.forName("UTF-8")
+
+    def "reuses the central directory of an archive that has not changed"() {
+        given:
+        def zip = zip("a.zip", "file1.txt")
+
+        when:
+        def first = read(zip)
+        def second = read(zip)
+
+        then:
+        first.entries*.name == ["file1.txt"]
+        second.is(first)
+    }
+
+    def "reads the central directory again when the archive changes"() {
+        given:
+        def zip = zip("a.zip", "file1.txt")
+        def first = read(zip)
+
+        when:
+        zip.delete()
+        zip("a.zip", "file1.txt", "file2.txt")
+        zip.lastModified = zip.lastModified() + 2000
+        def second = read(zip)
+
+        then:
+        first.entries*.name == ["file1.txt"]
+        second.entries*.name == ["file1.txt", "file2.txt"]
+    }
+
+    def "reads the central directory again when only the last modified time of the archive changes"() {
+        given:
+        def zip = zip("a.zip", "file1.txt")
+        def first = read(zip)
+
+        when:
+        zip.lastModified = zip.lastModified() + 2000
+        def second = read(zip)
+
+        then:
+        !second.is(first)
+        second.entries*.name == ["file1.txt"]
+    }
+
+    def "keeps the central directories of different archives apart"() {
+        given:
+        def a = zip("a.zip", "file1.txt")
+        def b = zip("b.zip", "file2.txt")
+
+        when:
+        def first = read(a)
+        def second = read(b)
+
+        then:
+        first.entries*.name == ["file1.txt"]
+        second.entries*.name == ["file2.txt"]
+        read(a).is(first)
+        read(b).is(second)
+    }
+
+    def "reads the central directory again when the charset differs"() {
+        given:
+        def zip = zip("a.zip", "file1.txt")
+        def first = read(zip)
+
+        when:
+        def second = read(zip, Charset.forName("ISO-8859-1"))
+
+        then:
+        !second.is(first)
+        second.charset == Charset.forName("ISO-8859-1")
+    }
+
+    private TestFile zip(String name, String... files) {
+        def contents = tmpDir.testDirectory.file(name + "-contents")
+        contents.deleteDir()
+        files.each { contents.file(it).text = it }
+        def zipFile = tmpDir.testDirectory.file(name)
+        contents.zipTo(zipFile)
+        return zipFile
+    }
+
+    private ZipCentralDirectory read(File zip, Charset charset = this.charset) {
+        def input = new FileInputStream(zip)
+        try {
+            return cache.get(zip, input.channel, charset)
+        } finally {
+            input.close()
+        }
+    }
+}
@@ -17,12 +17,16 @@ package org.gradle.api.internal.file.archive;
 
 import org.gradle.api.GradleException;
 import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.file.EmptyFileVisitor;
+import org.gradle.api.file.FileVisitDetails;
 import org.gradle.test.fixtures.file.TestFile;
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider;
+import org.gradle.util.GUtil;
 import org.gradle.util.Resources;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -58,6 +62,36 @@ public class ZipFileTreeTest {
         assertSetContainsForAllTypes(tree, toList("subdir/file1.txt", "subdir2/file2.txt"));
     }
 
+    @Test
+    public void readsContentOfFilesWithoutExpandingThem() {
+        rootDir.file("subdir/file1.txt").write("content");
+        rootDir.zipTo(zipFile);
+
+        final Map<String, String> contents = new HashMap<String, String>();
+        tree.visit(new EmptyFileVisitor() {
+            @Override
+            public void visitFile(FileVisitDetails fileDetails) {
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                fileDetails.copyTo(outputStream);
+                contents.put(fileDetails.getPath(), outputStream.toString());
+            }
+        });
+
+        assertThat(contents, equalTo(GUtil.map("subdir/file1.txt", "content")));
+        expandDir.assertDoesNotExist();
+    }
+
+    @Test
+    public void visitsZipFileAgainWhenItChanges() {
+        rootDir.file("subdir/file1.txt").write("content");
+        rootDir.zipTo(zipFile);
+        assertVisits(tree, toList("subdir/file1.txt"), toList("subdir"));
+
+        rootDir.file("subdir/file2.txt").write("more content");
+        rootDir.zipTo(zipFile);
+        assertVisits(tree, toList("subdir/file1.txt", "subdir/file2.txt"), toList("subdir"));
+    }
+
     @Test
     public void canStopVisitingFiles() {
         rootDir.file("subdir/file1.txt").write("content");
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.collections.jdk7
+
+import org.gradle.api.GradleException
+import org.gradle.api.file.FileVisitDetails
+import org.gradle.api.file.FileVisitor
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.internal.file.collections.DefaultDirectoryWalker
+import org.gradle.api.internal.file.collections.DirectoryFileTree
+import org.gradle.api.internal.file.collections.ReproducibleDirectoryWalker
+import org.gradle.api.tasks.util.PatternSet
+import org.gradle.internal.Factory
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
+import org.gradle.util.UsesNativeServices
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.concurrent.ConcurrentLinkedQueue
+
+@UsesNativeServices
+class ParallelDirectoryWalkerTest extends Specification {
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def fileSystem = TestFiles.fileSystem()
+
+    @Unroll
+    def "ordered walker visits in the same order as the reproducible walker - postfix: #postfix"() {
+        given:
+        def rootDir = tmpDir.createDir("root")
+        generateFilesAndSubDirectories(rootDir, 4, 4, 3, 1)
+        def patterns = new PatternSet()
+        patterns.exclude("**/dir2/**", "**/file3")
+
+        expect:
+        def expected = walkFiles(rootDir, patterns, new ReproducibleDirectoryWalker(fileSystem), postfix)
+        expected.size() > 0
+        walkFiles(rootDir, patterns, new ParallelDirectoryWalker(fileSystem, true), postfix) == expected
+
+        where:
+        postfix << [false, true]
+    }
+
+    @Unroll
+    def "unordered walker visits the same files as the default walker, with directories before their contents - postfix: #postfix"() {
+        given:
+        def rootDir = tmpDir.createDir("root")
+        generateFilesAndSubDirectories(rootDir, 4, 4, 3, 1)
+        def patterns = new PatternSet()
+        patterns.exclude("**/dir2/**", "**/file3")
+
+        when:
+        def expected = walkFiles(rootDir, patterns, new DefaultDirectoryWalker(fileSystem), postfix)
+        def visited = walkFiles(rootDir, patterns, new ParallelDirectoryWalker(fileSystem, false), postfix)
+
+        then:
+        visited.size() == expected.size()
+        visited as Set == expected as Set
+        visited.every { path ->
+            def parent = path.substring(0, Math.max(0, path.lastIndexOf('/')))
+            def parentIndex = visited.indexOf(parent)
+            parentIndex < 0 || (postfix ? parentIndex > visited.indexOf(path) : parentIndex < visited.indexOf(path))
+        }
+
+        where:
+        postfix << [false, true]
+    }
+
+    @Unroll
+    def "stops walking when visitor requests it - ordered: #ordered"() {
+        given:
+        def rootDir = tmpDir.createDir("root")
+        generateFilesAndSubDirectories(rootDir, 4, 4, 3, 1)
+        def fileTree = new DirectoryFileTree(rootDir, new PatternSet(), { new ParallelDirectoryWalker(fileSystem, ordered) } as Factory, fileSystem, false)
+        def visited = new ConcurrentLinkedQueue()
+        def fileVisitor = [visitFile: { FileVisitDetails details -> visited << details; details.stopVisiting() }, visitDir: { visited << it }] as FileVisitor
+
+        when:
+        fileTree.visit(fileVisitor)
+
+        then:
+        visited.size() < 20
+
+        where:
+        ordered << [true, false]
+    }
+
+    @Requires(TestPrecondition.SYMLINKS)
+    @Unroll
+    def "missing symbolic link causes an exception - ordered: #ordered"() {
+        given:
+        def rootDir = tmpDir.createDir("root")
+        def dir = rootDir.createDir("a/b")
+        def link = rootDir.file("a/d")
+        link.createLink(dir)
+        def fileTree = new DirectoryFileTree(rootDir, new PatternSet(), { new ParallelDirectoryWalker(fileSystem, ordered) } as Factory, fileSystem, false)
+        def fileVisitor = [visitFile: {}, visitDir: {}] as FileVisitor
+
+        when:
+        dir.deleteDir()
+        fileTree.visit(fileVisitor)
+
+        then:
+        GradleException e = thrown()
+        e.message.contains("Could not list contents of '${link.absolutePath}'.")
+
+        cleanup:
+        link.delete()
+
+        where:
+        ordered << [true, false]
+    }
+
+    @Requires(TestPrecondition.SYMLINKS)
+    @Unroll
+    def "does not recurse into symbolic link cycles - ordered: #ordered"() {
+        given:
+        def rootDir = tmpDir.createDir("root")
+        rootDir.createFile("a/b/file") << "content"
+        def link = rootDir.file("a/b/loop")
+        link.createLink(rootDir.file("a"))
+
+        when:
+        def visited = walkFiles(rootDir, new PatternSet(), new ParallelDirectoryWalker(fileSystem, ordered), false)
+
+        then:
+        visited as Set == ["a", "a/b", "a/b/file"] as Set
+
+        cleanup:
+        link.delete()
+
+        where:
+        ordered << [true, false]
+    }
+
+    private List<String> walkFiles(File rootDir, PatternSet patterns, walkerInstance, boolean postfix) {
+        def fileTree = new DirectoryFileTree(rootDir, patterns, { walkerInstance } as Factory, fileSystem, postfix)
+        def visited = new ConcurrentLinkedQueue<String>()
+        def visitClosure = { FileVisitDetails details -> visited << details.relativePath.pathString }
+        def fileVisitor = [visitFile: visitClosure, visitDir: visitClosure] as FileVisitor
+        fileTree.visit(fileVisitor)
+        return visited as List
+    }
+
+    private static void generateFilesAndSubDirectories(TestFile parentDir, int fileCount, int dirCount, int maxDepth, int currentDepth) {
+        for (int i = 0; i < fileCount; i++) {
+            parentDir.createFile("file" + i) << "content"
+        }
+        if (currentDepth < maxDepth) {
+            for (int i = 0; i < dirCount; i++) {
+                generateFilesAndSubDirectories(parentDir.createDir("dir" + i), fileCount, dirCount, maxDepth, currentDepth + 1)
+            }
+        }
+    }
+}
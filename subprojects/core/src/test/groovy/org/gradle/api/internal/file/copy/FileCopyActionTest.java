@@ -18,8 +18,10 @@ package org.gradle.api.internal.file.copy;
 
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.file.TestFiles;
+import org.gradle.internal.operations.TestBuildOperationExecutor;
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider;
 import org.jmock.Expectations;
+import org.jmock.Sequence;
 import org.jmock.integration.junit4.JMock;
 import org.jmock.integration.junit4.JUnit4Mockery;
 import org.junit.Before;
@@ -54,6 +56,33 @@ public class FileCopyActionTest {
         );
     }
 
+    @Test
+    public void copiesFilesForTheSameTargetInOrderWhenCopyingConcurrently() {
+        FileCopyAction visitor = new FileCopyAction(TestFiles.resolver(destDir), new TestBuildOperationExecutor());
+        final Sequence sequence = context.sequence("copy");
+        File target = new File(destDir, "file.txt");
+        visit(visitor,
+                concurrentlyCopyableFile("first", new RelativePath(true, "file.txt"), target, true, sequence),
+                concurrentlyCopyableFile("second", new RelativePath(true, "file.txt"), target, false, sequence),
+                concurrentlyCopyableFile("third", new RelativePath(true, "file.txt"), target, true, sequence)
+        );
+    }
+
+    private FileCopyDetailsInternal concurrentlyCopyableFile(String name, final RelativePath relativePath, final File targetFile, final boolean copyableConcurrently, final Sequence sequence) {
+        final FileCopyDetailsInternal details = context.mock(FileCopyDetailsInternal.class, name);
+        context.checking(new Expectations() {{
+            allowing(details).getRelativePath();
+            will(returnValue(relativePath));
+            allowing(details).isDirectory();
+            will(returnValue(false));
+            allowing(details).isCopyableConcurrently();
+            will(returnValue(copyableConcurrently));
+            one(details).copyTo(targetFile);
+            inSequence(sequence);
+        }});
+        return details;
+    }
+
     private FileCopyDetailsInternal file(final RelativePath relativePath, final File targetFile) {
         final FileCopyDetailsInternal details = context.mock(FileCopyDetailsInternal.class, relativePath.getPathString());
         context.checking(new Expectations() {{
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.pattern
+
+import org.apache.tools.ant.DirectoryScanner
+import org.gradle.api.file.RelativePath
+import org.gradle.api.specs.Specs
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class MultiPatternMatcherTest extends Specification {
+    static final List<String> PATTERNS = [
+        "", "a", "a/b/c", "a\\b\\", "a/b/**", "a/**/c", "**", "**/c", "**/c/**", "**/b/*.java", "**/*.java",
+        "a/*", "a/*/c", "a/b*/c", "*/b", "?/b", "a/b/c/**/d", "a/**", "**/a/**/c", "A/B", "c/d/"
+    ]
+    static final List<String> PATHS = [
+        "", "a", "b", "c", "A", "a/b", "A/B", "a/c", "b/c", "a/b/c", "a/B/C", "a/bc/c", "a/b/c/d", "a/x/y/c",
+        "x/b", "xy/b", "a/b/X.java", "x/a/y/c", "c/d", "c/d/e", "x/c/y", "a/b/c/x/d"
+    ]
+
+    @Unroll
+    def "matches the same paths as the union of individual patterns when partialMatchDirs: #partialMatchDirs, caseSensitive: #caseSensitive"() {
+        expect:
+        patternCombinations().each { List<String> patterns ->
+            def combined = PatternMatcherFactory.getPatternsMatcher(partialMatchDirs, caseSensitive, patterns)
+            def union = Specs.union(patterns.collect { PatternMatcherFactory.getPatternMatcher(partialMatchDirs, caseSensitive, it) })
+            PATHS.each { String path ->
+                [true, false].each { boolean isFile ->
+                    def relativePath = RelativePath.parse(isFile, path)
+                    assert combined.isSatisfiedBy(relativePath) == union.isSatisfiedBy(relativePath): "patterns: $patterns, path: $path, isFile: $isFile"
+                }
+            }
+        }
+
+        where:
+        partialMatchDirs | caseSensitive
+        true             | true
+        true             | false
+        false            | true
+        false            | false
+    }
+
+    def "matches the default excludes"() {
+        def matcher = PatternMatcherFactory.getPatternsMatcher(false, true, Arrays.asList(DirectoryScanner.getDefaultExcludes()))
+
+        expect:
+        matcher.isSatisfiedBy(RelativePath.parse(true, ".git"))
+        matcher.isSatisfiedBy(RelativePath.parse(true, "a/.git/config"))
+        matcher.isSatisfiedBy(RelativePath.parse(true, "a/b/.DS_Store"))
+        matcher.isSatisfiedBy(RelativePath.parse(true, "a/b/c~"))
+        !matcher.isSatisfiedBy(RelativePath.parse(true, "a/b/c.java"))
+        !matcher.isSatisfiedBy(RelativePath.parse(true, "a/.DS_Store/c.java"))
+    }
+
+    private static List<List<String>> patternCombinations() {
+        def combinations = PATTERNS.collect { [it] }
+        PATTERNS.eachWithIndex { String first, int i ->
+            PATTERNS.eachWithIndex { String second, int j ->
+                if (i < j) {
+                    combinations << [first, second]
+                }
+            }
+        }
+        combinations << PATTERNS
+        return combinations
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.project.antbuilder
+
+import spock.lang.Specification
+
+class AntBuilderDelegateTest extends Specification {
+    def antlib = '<antlib><taskdef name="one" classname="java.lang.String"/><taskdef name="two" classname="java.lang.Integer"/></antlib>'
+    def classLoader = new AntlibClassLoader(antlib)
+    def project = new TestProject()
+    def builder = new TestBuilder(project: project)
+
+    def "adds task definitions from antlib resource"() {
+        def delegate = new AntBuilderDelegate(builder, classLoader)
+
+        when:
+        delegate.createNode("taskdef", [resource: "test/antlib.xml"])
+
+        then:
+        project.taskDefinitions == [one: String, two: Integer]
+        classLoader.resourceRequests == 1
+    }
+
+    def "reads antlib resource once when task definitions are shared"() {
+        def taskDefinitions = [:]
+
+        when:
+        new AntBuilderDelegate(builder, classLoader, taskDefinitions).createNode("taskdef", [resource: "test/antlib.xml"])
+        new AntBuilderDelegate(builder, classLoader, taskDefinitions).createNode("taskdef", [resource: "test/antlib.xml"])
+
+        then:
+        project.taskDefinitions == [one: String, two: Integer]
+        classLoader.resourceRequests == 1
+        taskDefinitions == ["test/antlib.xml": [one: "java.lang.String", two: "java.lang.Integer"]]
+    }
+
+    static class TestBuilder {
+        Object project
+    }
+
+    static class TestProject {
+        Map<String, Class<?>> taskDefinitions = [:]
+
+        void addTaskDefinition(String name, Class<?> type) {
+            taskDefinitions[name] = type
+        }
+    }
+
+    static class AntlibClassLoader extends ClassLoader {
+        final String antlib
+        int resourceRequests
+
+        AntlibClassLoader(String antlib) {
+            super(AntBuilderDelegateTest.classLoader)
+            this.antlib = antlib
+        }
+
+        @Override
+        InputStream getResourceAsStream(String name) {
+            resourceRequests++
+            return new ByteArrayInputStream(antlib.bytes)
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.project.antbuilder
+
+import org.gradle.api.Action
+import org.gradle.api.internal.classloading.GroovySystemLoader
+import org.gradle.api.internal.classloading.GroovySystemLoaderFactory
+import org.gradle.internal.Factory
+import org.gradle.internal.classpath.ClassPath
+import org.gradle.internal.classpath.DefaultClassPath
+import spock.lang.Specification
+
+import java.lang.ref.WeakReference
+import java.util.concurrent.atomic.AtomicInteger
+
+import static org.gradle.test.fixtures.ConcurrentTestUtil.poll
+
+class ClassPathToClassLoaderCacheTest extends Specification {
+    def created = new AtomicInteger()
+    def shutdown = new AtomicInteger()
+    def groovySystemLoaderFactory = new GroovySystemLoaderFactory() {
+        @Override
+        GroovySystemLoader forClassLoader(ClassLoader classLoader) {
+            return new GroovySystemLoader() {
+                @Override
+                void shutdown() {
+                    shutdown.incrementAndGet()
+                }
+
+                @Override
+                void discardTypesFrom(ClassLoader cl) {
+                }
+            }
+        }
+    }
+    def cache = new ClassPathToClassLoaderCache(groovySystemLoaderFactory)
+
+    def cleanup() {
+        cache.stop()
+    }
+
+    def "strongly retains the 8 most recently used class loaders"() {
+        when:
+        10.times { use(it) }
+
+        then:
+        created.get() == 10
+        cache.recentlyUsedClassLoaders.keySet() as List == (2..9).collect { classPath(it) }
+
+        when:
+        use(2)
+        use(10)
+
+        then:
+        created.get() == 11
+        cache.recentlyUsedClassLoaders.keySet() as List == ((4..9) + [2, 10]).collect { classPath(it) }
+    }
+
+    def "reuses a retained class loader when its soft reference has not been cleared"() {
+        when:
+        8.times { use(it) }
+        8.times { use(it) }
+
+        then:
+        created.get() == 8
+        cache.size() == 8
+    }
+
+    def "releases a class loader once it is no longer retained and has been collected"() {
+        given:
+        def evicted = use(0)
+        8.times { use(it + 1) }
+
+        expect:
+        cache.size() == 9
+        !cache.recentlyUsedClassLoaders.containsKey(classPath(0))
+
+        when:
+        // What the garbage collector does under memory pressure for a class loader that is only softly reachable
+        cache.cacheEntries.get(classPath(0)).clear()
+
+        then:
+        poll {
+            System.gc()
+            assert cache.size() == 8
+            assert shutdown.get() == 1
+            assert evicted.get() == null
+        }
+        !cache.cacheEntries.containsKey(classPath(0))
+
+        when:
+        use(0)
+
+        then:
+        created.get() == 10
+    }
+
+    def "does not release a retained class loader"() {
+        given:
+        def retained = use(0)
+
+        when:
+        System.gc()
+
+        then:
+        cache.size() == 1
+        shutdown.get() == 0
+        retained.get() != null
+    }
+
+    def "releases all class loaders when stopped"() {
+        given:
+        10.times { use(it) }
+
+        when:
+        cache.stop()
+
+        then:
+        cache.empty
+        shutdown.get() == 10
+    }
+
+    private WeakReference<ClassLoader> use(int index) {
+        def reference = null
+        cache.withCachedClassLoader(classPath(index), GroovySystemLoaderFactory.NOT_BROKEN, GroovySystemLoaderFactory.NOT_BROKEN, new Factory<ClassLoader>() {
+            @Override
+            ClassLoader create() {
+                created.incrementAndGet()
+                return new URLClassLoader(new URL[0], (ClassLoader) null)
+            }
+        }, new Action<CachedClassLoader>() {
+            @Override
+            void execute(CachedClassLoader cachedClassLoader) {
+                reference = new WeakReference<ClassLoader>(cachedClassLoader.classLoader)
+            }
+        })
+        return reference
+    }
+
+    private static ClassPath classPath(int index) {
+        return new DefaultClassPath(new File("lib${index}.jar"))
+    }
+}
@@ -15,12 +15,17 @@
  */
 package org.gradle.api.internal.tasks.execution
 
+import com.google.common.collect.ImmutableSortedSet
 import org.gradle.api.execution.TaskActionListener
+import org.gradle.api.file.FileCollection
 import org.gradle.api.internal.TaskInternal
+import org.gradle.api.internal.TaskOutputsInternal
 import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.api.internal.tasks.ContextAwareTaskAction
 import org.gradle.api.internal.tasks.TaskExecutionContext
+import org.gradle.api.internal.tasks.TaskDestroyablesInternal
 import org.gradle.api.internal.tasks.TaskExecutionOutcome
+import org.gradle.api.internal.tasks.TaskOutputFilePropertySpec
 import org.gradle.api.internal.tasks.TaskStateInternal
 import org.gradle.api.tasks.StopActionException
 import org.gradle.api.tasks.StopExecutionException
@@ -49,6 +54,8 @@ class ExecuteActionsTaskExecutorTest extends Specification {
     private final TaskOutputsGenerationListener internalListener = Mock(TaskOutputsGenerationListener)
     private final BuildOperationExecutor buildOperationExecutor = Mock(BuildOperationExecutor)
     private final AsyncWorkTracker asyncWorkTracker = Mock(AsyncWorkTracker)
+    private final TaskOutputsInternal outputs = Stub(TaskOutputsInternal)
+    private final TaskDestroyablesInternal destroyables = Stub(TaskDestroyablesInternal)
     private final ExecuteActionsTaskExecuter executer = new ExecuteActionsTaskExecuter(internalListener, publicListener, buildOperationExecutor, asyncWorkTracker)
 
     def setup() {
@@ -57,6 +64,8 @@ class ExecuteActionsTaskExecutorTest extends Specification {
         task.getState() >> state
         project.getBuildScriptSource() >> scriptSource
         task.getStandardOutputCapture() >> standardOutputCapture
+        task.getOutputs() >> outputs
+        task.getDestroyables() >> destroyables
     }
 
     void noMoreInteractions() {
@@ -142,6 +151,55 @@ class ExecuteActionsTaskExecutorTest extends Specification {
         state.actionable
     }
 
+    def notifiesListenerOfOutputLocationsWhenTaskHasDeclaredOutputs() {
+        given:
+        def outputDir = new File("build/classes").absoluteFile
+        def destroyable = new File("build/tmp").absoluteFile
+        def outputProperty = Stub(TaskOutputFilePropertySpec) {
+            getPropertyFiles() >> Stub(FileCollection) {
+                iterator() >> { [outputDir].iterator() }
+            }
+        }
+        task.getTaskActions() >> [action1]
+        outputs.hasDeclaredOutputs() >> true
+        outputs.getFileProperties() >> ImmutableSortedSet.of(outputProperty)
+        destroyables.getFilesReadOnly() >> [destroyable]
+
+        when:
+        executer.execute(task, state, executionContext)
+
+        then:
+        1 * internalListener.beforeTaskOutputsGenerated([outputDir.path, destroyable.path])
+        0 * internalListener.beforeTaskOutputsGenerated()
+        1 * buildOperationExecutor.run(_ as RunnableBuildOperation) >> { args -> args[0].run(Stub(BuildOperationContext)) }
+
+        state.outcome == TaskExecutionOutcome.EXECUTED
+    }
+
+    def notifiesListenerThatOutputLocationsAreUnknownWhenDeclaredOutputsResolveToNoFiles() {
+        given:
+        def destroyable = new File("build/tmp").absoluteFile
+        def outputProperty = Stub(TaskOutputFilePropertySpec) {
+            getPropertyFiles() >> Stub(FileCollection) {
+                iterator() >> { [].iterator() }
+            }
+        }
+        task.getTaskActions() >> [action1]
+        outputs.hasDeclaredOutputs() >> true
+        outputs.getFileProperties() >> ImmutableSortedSet.of(outputProperty)
+        destroyables.getFilesReadOnly() >> [destroyable]
+
+        when:
+        executer.execute(task, state, executionContext)
+
+        then:
+        1 * internalListener.beforeTaskOutputsGenerated()
+        0 * internalListener.beforeTaskOutputsGenerated(_)
+        1 * buildOperationExecutor.run(_ as RunnableBuildOperation) >> { args -> args[0].run(Stub(BuildOperationContext)) }
+
+        state.outcome == TaskExecutionOutcome.EXECUTED
+    }
+
     def executeDoesOperateOnNewActionListInstance() {
         given:
         interaction {
@@ -17,6 +17,7 @@
 package org.gradle.api.tasks.util.internal
 
 import org.gradle.api.file.FileTreeElement
+import org.gradle.api.internal.file.RelativePathSpec
 import org.gradle.api.specs.AndSpec
 import org.gradle.api.specs.NotSpec
 import org.gradle.api.specs.Spec
@@ -61,14 +62,20 @@ class CachingPatternSpecFactoryTest extends Specification {
 
     def "check that patterns are cached"() {
         given:
-        def patternSet = new PatternSet(new CachingPatternSpecFactory())
+        def factory = new CachingPatternSpecFactory()
+        def patternSet = new PatternSet(factory)
         patternSet.include("pattern")
+        def otherPatternSet = new PatternSet(factory)
+        otherPatternSet.include("pattern")
         def spec = patternSet.getAsSpec()
+        def otherSpec = otherPatternSet.getAsSpec()
         expect:
         spec instanceof AndSpec
         spec.specs.size() == 2
-        spec.specs[0] instanceof CachingPatternSpecFactory.CachingSpec
+        spec.specs[0] instanceof RelativePathSpec
         spec.specs[1] instanceof NotSpec
-        spec.specs[1].sourceSpec instanceof CachingPatternSpecFactory.CachingSpec
+        spec.specs[1].sourceSpec instanceof RelativePathSpec
+        otherSpec.specs[0].is(spec.specs[0])
+        otherSpec.specs[1].sourceSpec.is(spec.specs[1].sourceSpec)
     }
 }
@@ -57,12 +57,13 @@ class LifecycleProjectEvaluatorTest extends Specification {
     }
 
     void "nothing happens if project is being configured now"() {
-        state.executing >> true
-
         when:
         evaluator.evaluate(project, state)
 
         then:
+        1 * delegate.evaluate(project, state) >> {
+            evaluator.evaluate(project, state)
+        }
         0 * delegate._
     }
 
@@ -87,6 +88,47 @@ class LifecycleProjectEvaluatorTest extends Specification {
         buildOperationExecutor.operations[0].displayName == 'Configure project :project1'
     }
 
+    void "provides configure operation for project that has not been configured"() {
+        project.state >> state
+
+        when:
+        def operation = evaluator.configureProjectOperation(project)
+
+        then:
+        operation.description().build().displayName == 'Configure project :project1'
+        0 * delegate._
+
+        when:
+        buildOperationExecutor.run(operation)
+
+        then:
+        1 * listener.beforeEvaluate(project)
+        1 * delegate.evaluate(project, state)
+        1 * listener.afterEvaluate(project, state)
+        buildOperationExecutor.operations*.displayName == ['Configure project :project1']
+    }
+
+    void "provides no configure operation for project that has already been configured"() {
+        project.state >> state
+        state.executed >> true
+
+        expect:
+        evaluator.configureProjectOperation(project) == null
+    }
+
+    void "configure operation does nothing when the project is configured before the operation runs"() {
+        project.state >> state
+        state.executed >>> [false, true]
+
+        when:
+        def operation = evaluator.configureProjectOperation(project)
+        buildOperationExecutor.run(operation)
+
+        then:
+        0 * delegate._
+        0 * listener._
+    }
+
     void "notifies listeners and updates state on evaluation failure"() {
         def failure = new RuntimeException()
 
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution
+
+import org.gradle.api.ProjectEvaluationListener
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectStateInternal
+import org.gradle.configuration.project.LifecycleProjectEvaluator
+import org.gradle.configuration.project.ProjectEvaluator
+import org.gradle.initialization.BuildCancellationToken
+import org.gradle.initialization.DefaultParallelismConfiguration
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.concurrent.ParallelExecutionManager
+import org.gradle.internal.operations.DefaultBuildOperationQueueFactory
+import org.gradle.internal.operations.RunnableBuildOperation
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.progress.BuildOperationDescriptor
+import org.gradle.internal.progress.BuildOperationListener
+import org.gradle.internal.progress.DefaultBuildOperationExecutor
+import org.gradle.internal.progress.NoOpProgressLoggerFactory
+import org.gradle.internal.resources.DefaultResourceLockCoordinationService
+import org.gradle.internal.resources.ResourceLock
+import org.gradle.internal.resources.ResourceLockCoordinationService
+import org.gradle.internal.time.TimeProvider
+import org.gradle.internal.work.DefaultWorkerLeaseService
+import org.gradle.internal.work.WorkerLeaseService
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.util.Path
+
+import java.util.concurrent.atomic.AtomicInteger
+
+class ParallelTaskPathProjectEvaluatorTest extends ConcurrentSpec {
+    def cancellationToken = Mock(BuildCancellationToken)
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    def workerLeaseService = Mock(WorkerLeaseService)
+    def projectEvaluator = Mock(LifecycleProjectEvaluator)
+    def gradle = Stub(GradleInternal) {
+        getIdentityPath() >> Path.ROOT
+    }
+    def root = project(":", 0)
+    def evaluator = new ParallelTaskPathProjectEvaluator(cancellationToken, buildOperationExecutor, workerLeaseService, projectEvaluator)
+    def parallelProjects = [:]
+    def buildScripts = [:]
+    def configureCounts = [:]
+    def buildScriptEvaluator = new ProjectEvaluator() {
+        @Override
+        void evaluate(ProjectInternal project, ProjectStateInternal state) {
+            String path = project.identityPath.path
+            configureCounts[path].incrementAndGet()
+            buildScripts[path].call()
+        }
+    }
+    LifecycleProjectEvaluator lifecycleEvaluator
+
+    def "configures subprojects with their configure operation while holding their project lock"() {
+        def child1 = project(":a", 1)
+        def child2 = project(":b", 1)
+        def configure1 = configureOperation(":a")
+        def configure2 = configureOperation(":b")
+        def lock = Stub(ResourceLock)
+
+        given:
+        root.subprojects >> ([child1, child2] as Set)
+
+        when:
+        evaluator.configureHierarchy(root)
+
+        then:
+        1 * root.evaluate()
+
+        then:
+        1 * projectEvaluator.configureProjectOperation(child1) >> configure1
+        1 * projectEvaluator.configureProjectOperation(child2) >> configure2
+        1 * workerLeaseService.getProjectLock(":", ":a") >> lock
+        1 * workerLeaseService.withLocks([lock], _ as Runnable) >> { locks, Runnable action -> action.run() }
+        1 * configure1.run(_)
+        1 * workerLeaseService.getProjectLock(":", ":b") >> lock
+        1 * workerLeaseService.withLocks([lock], _ as Runnable) >> { locks, Runnable action -> action.run() }
+        1 * configure2.run(_)
+
+        and:
+        buildOperationExecutor.operations*.displayName == ["Configure project :a", "Configure project :b"]
+        0 * child1.evaluate()
+        0 * child2.evaluate()
+    }
+
+    def "does not configure subprojects that have already been configured"() {
+        def child = project(":a", 1)
+
+        given:
+        root.subprojects >> ([child] as Set)
+
+        when:
+        evaluator.configureHierarchy(root)
+
+        then:
+        1 * projectEvaluator.configureProjectOperation(child) >> null
+        0 * workerLeaseService._
+        buildOperationExecutor.operations.empty
+    }
+
+    def "configures a level of the hierarchy only after its parent level"() {
+        def child = project(":a", 1)
+        def grandChild = project(":a:b", 2)
+        def configureChild = configureOperation(":a")
+        def configureGrandChild = configureOperation(":a:b")
+
+        given:
+        root.subprojects >> ([grandChild, child] as Set)
+        projectEvaluator.configureProjectOperation(child) >> configureChild
+        projectEvaluator.configureProjectOperation(grandChild) >> configureGrandChild
+        workerLeaseService.withLocks(_, _ as Runnable) >> { locks, Runnable action -> action.run() }
+
+        when:
+        evaluator.configureHierarchy(root)
+
+        then:
+        1 * root.evaluate()
+
+        then:
+        1 * configureChild.run(_)
+
+        then:
+        1 * configureGrandChild.run(_)
+    }
+
+    def "configures subprojects concurrently"() {
+        def child1 = parallelProject(":a") { instant.aStarted; thread.blockUntil.bStarted }
+        def child2 = parallelProject(":b") { instant.bStarted; thread.blockUntil.aStarted }
+
+        given:
+        root.subprojects >> ([child1, child2] as Set)
+
+        when:
+        configureInParallel()
+
+        then:
+        child1.state.executed
+        child2.state.executed
+    }
+
+    def "waits for a project being configured by another thread to be configured, and configures it only once"() {
+        def child1 = parallelProject(":a") {
+            instant.aStarted
+            thread.block()
+            instant.aConfigured
+        }
+        def child2 = parallelProject(":b") {
+            thread.blockUntil.aStarted
+            parallelProjects[":a"].evaluate()
+            instant.bSawA
+        }
+
+        given:
+        root.subprojects >> ([child1, child2] as Set)
+
+        when:
+        configureInParallel()
+
+        then:
+        configureCounts[":a"].get() == 1
+        configureCounts[":b"].get() == 1
+        instant.bSawA > instant.aConfigured
+    }
+
+    def "does not deadlock when projects configured concurrently require each other to be configured"() {
+        def child1 = parallelProject(":a") {
+            instant.aStarted
+            thread.blockUntil.bStarted
+            parallelProjects[":b"].evaluate()
+        }
+        def child2 = parallelProject(":b") {
+            instant.bStarted
+            thread.blockUntil.aStarted
+            parallelProjects[":a"].evaluate()
+        }
+
+        given:
+        root.subprojects >> ([child1, child2] as Set)
+
+        when:
+        configureInParallel()
+
+        then:
+        configureCounts[":a"].get() == 1
+        configureCounts[":b"].get() == 1
+    }
+
+    private RunnableBuildOperation configureOperation(String path) {
+        def operation = Mock(RunnableBuildOperation)
+        _ * operation.description() >> { BuildOperationDescriptor.displayName("Configure project " + path) }
+        return operation
+    }
+
+    private ProjectInternal project(String path, int depth) {
+        def project = Mock(ProjectInternal)
+        _ * project.gradle >> gradle
+        _ * project.identityPath >> Path.path(path)
+        _ * project.projectPath >> Path.path(path)
+        _ * project.depth >> depth
+        _ * project.displayName >> "project '$path'".toString()
+        return project
+    }
+
+    /**
+     * Creates a project that is configured by a real {@link LifecycleProjectEvaluator}, running the given action as its build script.
+     */
+    private ProjectInternal parallelProject(String path, Closure action) {
+        def state = new ProjectStateInternal()
+        def project = Stub(ProjectInternal)
+        project.gradle >> gradle
+        project.identityPath >> Path.path(path)
+        project.projectPath >> Path.path(path)
+        project.depth >> 1
+        project.displayName >> "project '$path'".toString()
+        project.state >> state
+        project.projectEvaluationBroadcaster >> Stub(ProjectEvaluationListener)
+        project.evaluate() >> {
+            lifecycleEvaluator.evaluate(project, state)
+            return project
+        }
+        parallelProjects[path] = project
+        buildScripts[path] = action
+        configureCounts[path] = new AtomicInteger()
+        return project
+    }
+
+    /**
+     * Configures the hierarchy using a real parallel build operation executor.
+     */
+    private void configureInParallel() {
+        def parallelExecutionManager = Stub(ParallelExecutionManager) {
+            getParallelismConfiguration() >> new DefaultParallelismConfiguration(true, 4)
+        }
+        def workerLeases = new DefaultWorkerLeaseService(new DefaultResourceLockCoordinationService(), parallelExecutionManager)
+        def parallelExecutor = new DefaultBuildOperationExecutor(
+            Stub(BuildOperationListener), Stub(TimeProvider), new NoOpProgressLoggerFactory(),
+            new DefaultBuildOperationQueueFactory(workerLeases), new DefaultExecutorFactory(), Stub(ResourceLockCoordinationService), parallelExecutionManager)
+        lifecycleEvaluator = new LifecycleProjectEvaluator(parallelExecutor, buildScriptEvaluator)
+        def parallelEvaluator = new ParallelTaskPathProjectEvaluator(cancellationToken, parallelExecutor, workerLeases, lifecycleEvaluator)
+        try {
+            async {
+                def completion = workerLeases.workerLease.start()
+                try {
+                    parallelEvaluator.configureHierarchy(root)
+                } finally {
+                    completion.leaseFinish()
+                }
+            }
+        } finally {
+            workerLeases.stop()
+        }
+    }
+}
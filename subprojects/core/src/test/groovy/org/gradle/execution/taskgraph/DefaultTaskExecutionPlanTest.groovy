@@ -867,6 +867,64 @@ class DefaultTaskExecutionPlanTest extends AbstractProjectBuilderSpec {
         filtered(b)
     }
 
+    def "schedules a long chain of dependencies in dependency order"() {
+        given:
+        List<Task> tasks = []
+        500.times { i ->
+            tasks << task("task" + (499 - i), dependsOn: tasks.empty ? [] : [tasks.last()])
+        }
+
+        when:
+        addToGraphAndPopulate([tasks.last()])
+
+        then:
+        executionPlan.tasks == tasks
+        executedTasks == tasks
+    }
+
+    def "schedules many independent dependencies in name order"() {
+        given:
+        List<Task> dependencies = (0..<500).collect { i -> task(String.format("dependency%03d", i)) }
+        Task a = task("a", dependsOn: dependencies.reverse())
+
+        when:
+        addToGraphAndPopulate([a])
+
+        then:
+        executionPlan.tasks == dependencies + [a]
+    }
+
+    def "schedules a dependency shared by several tasks once and before all of them"() {
+        given:
+        Task shared = task("shared")
+        Task a = task("a", dependsOn: [shared])
+        Task b = task("b", dependsOn: [shared])
+        Task c = task("c", dependsOn: [a, shared])
+        Task d = task("d", dependsOn: [b, c])
+
+        when:
+        addToGraphAndPopulate([d])
+
+        then:
+        executes(shared, a, b, c, d)
+    }
+
+    def "finalizer task with a chain of dependencies is not executed if finalized task did not run"() {
+        given:
+        Task first = task("first")
+        Task second = task("second", dependsOn: [first])
+        Task finalizer = task("finalizer", dependsOn: [second])
+        Task finalizedDependency = task("finalizedDependency", failure: new RuntimeException("failure"))
+        Task finalized = task("finalized", dependsOn: [finalizedDependency], finalizedBy: [finalizer])
+
+        when:
+        addToGraphAndPopulate([finalized])
+
+        then:
+        executionPlan.tasks == [finalizedDependency, finalized, first, second, finalizer]
+        executedTasks == [finalizedDependency]
+    }
+
     private void addToGraphAndPopulate(List tasks) {
         executionPlan.addToTaskGraph(tasks)
         executionPlan.determineExecutionPlan()
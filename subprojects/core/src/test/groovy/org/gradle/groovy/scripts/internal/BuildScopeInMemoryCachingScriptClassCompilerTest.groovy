@@ -21,9 +21,9 @@ import org.gradle.groovy.scripts.Script
 import org.gradle.groovy.scripts.ScriptSource
 import org.gradle.groovy.scripts.TestScript
 import org.gradle.groovy.scripts.Transformer
-import spock.lang.Specification
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
 
-class BuildScopeInMemoryCachingScriptClassCompilerTest extends Specification {
+class BuildScopeInMemoryCachingScriptClassCompilerTest extends ConcurrentSpec {
     private final ScriptClassCompiler target = Mock()
     private final CrossBuildInMemoryCachingScriptClassCache cache = Mock() {
         getOrCompile(_, _, _, _, _, _, _) >> { args ->
@@ -53,6 +53,37 @@ class BuildScopeInMemoryCachingScriptClassCompilerTest extends Specification {
         0 * target._
     }
 
+    def "compiles script once when requested concurrently"() {
+        ScriptSource script1 = scriptSource('script')
+        ScriptSource script2 = scriptSource('script')
+        ClassLoader parentClassLoader = Mock()
+        CompileOperation<?> transformer = operation()
+        def c1
+        def c2
+
+        when:
+        async {
+            start {
+                c1 = compiler.compile(script1, parentClassLoader, classLoaderId, transformer, Script.class, verifier)
+            }
+            start {
+                thread.blockUntil.compiling
+                instant.secondRequested
+                c2 = compiler.compile(script2, parentClassLoader, classLoaderId, transformer, Script.class, verifier)
+            }
+        }
+
+        then:
+        c1 == compiledScript
+        c2 == compiledScript
+        1 * target.compile(script1, parentClassLoader, classLoaderId, transformer, Script.class, verifier) >> {
+            instant.compiling
+            thread.blockUntil.secondRequested
+            compiledScript
+        }
+        0 * target._
+    }
+
     def "does not cache script class for different script class"() {
         ScriptSource script1 = scriptSource('script')
         ScriptSource script2 = scriptSource('other')
@@ -44,7 +44,7 @@ class WatchPointsRegistryTest extends Specification {
         FileSystemSubset fileSystemSubset = createFileSystemSubset(dirs)
 
         when:
-        def delta = registry.appendFileSystemSubset(fileSystemSubset, [])
+        def delta = registry.appendFileSystemSubset(fileSystemSubset, [] as Set)
 
         then:
         checkWatchPoints delta, dirs
@@ -277,11 +277,11 @@ class WatchPointsRegistryTest extends Specification {
     }
 
     private Delta appendInput(Iterable<File> files, Iterable<File> currentWatchPoints = []) {
-        registry.appendFileSystemSubset(createFileSystemSubset(files), currentWatchPoints)
+        registry.appendFileSystemSubset(createFileSystemSubset(files), currentWatchPoints as Set)
     }
 
     private Delta appendInput(File file, Iterable<File> currentWatchPoints = []) {
-        registry.appendFileSystemSubset(createFileSystemSubset(file), currentWatchPoints)
+        registry.appendFileSystemSubset(createFileSystemSubset(file), currentWatchPoints as Set)
     }
 
     private static FileSystemSubset createFileSystemSubset(Iterable<File> files) {
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.filewatch.jdk7
+
+import spock.lang.Specification
+
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.nio.file.WatchEvent
+import java.nio.file.WatchKey
+import java.nio.file.WatchService
+import java.util.concurrent.TimeUnit
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW
+import static org.gradle.internal.filewatch.FileWatcherEvent.Type.CREATE
+import static org.gradle.internal.filewatch.FileWatcherEvent.Type.DELETE
+import static org.gradle.internal.filewatch.FileWatcherEvent.Type.MODIFY
+import static org.gradle.internal.filewatch.FileWatcherEvent.Type.UNDEFINED
+
+class WatchServicePollerTest extends Specification {
+    def watchService = Mock(WatchService)
+    def poller = new WatchServicePoller(watchService)
+    def dir = new File("dir").absoluteFile.toPath()
+
+    def "returns null when no changes are signalled"() {
+        when:
+        def events = poller.takeEvents()
+
+        then:
+        1 * watchService.poll(5, TimeUnit.SECONDS) >> null
+        0 * watchService._
+        events == null
+    }
+
+    def "coalesces repeated changes to the same file that are signalled in a burst"() {
+        def first = watchKey(event(ENTRY_CREATE, "a"), event(ENTRY_MODIFY, "a"), event(ENTRY_MODIFY, "b"))
+        def second = watchKey(event(ENTRY_MODIFY, "b"), event(ENTRY_DELETE, "c"), event(ENTRY_MODIFY, "a"), event(ENTRY_DELETE, "b"))
+
+        when:
+        def events = poller.takeEvents()
+
+        then:
+        1 * watchService.poll(5, TimeUnit.SECONDS) >> first
+        2 * watchService.poll(10, TimeUnit.MILLISECONDS) >>> [second, null]
+        0 * watchService._
+
+        and:
+        events*.type == [CREATE, MODIFY, DELETE, DELETE]
+        events*.file == [file("a"), file("b"), file("c"), file("b")]
+    }
+
+    def "keeps the creation and deletion of a file in the order they happened"() {
+        def first = watchKey(event(ENTRY_CREATE, "a"), event(ENTRY_MODIFY, "a"))
+        def second = watchKey(event(ENTRY_DELETE, "a"), event(ENTRY_CREATE, "b"), event(ENTRY_CREATE, "a"))
+
+        when:
+        def events = poller.takeEvents()
+
+        then:
+        1 * watchService.poll(5, TimeUnit.SECONDS) >> first
+        2 * watchService.poll(10, TimeUnit.MILLISECONDS) >>> [second, null]
+        0 * watchService._
+
+        and:
+        events*.type == [CREATE, DELETE, CREATE, CREATE]
+        events*.file == [file("a"), file("a"), file("b"), file("a")]
+    }
+
+    def "does not reorder events signalled by different keys"() {
+        def subDir = dir.resolve("sub")
+        def first = watchKey(event(ENTRY_CREATE, "sub"))
+        def second = watchKey(subDir, event(ENTRY_CREATE, "a"))
+        def third = watchKey(event(ENTRY_DELETE, "sub"))
+
+        when:
+        def events = poller.takeEvents()
+
+        then:
+        1 * watchService.poll(5, TimeUnit.SECONDS) >> first
+        3 * watchService.poll(10, TimeUnit.MILLISECONDS) >>> [second, third, null]
+        0 * watchService._
+
+        and:
+        events*.type == [CREATE, CREATE, DELETE]
+        events*.file == [file("sub"), subDir.resolve("a").toFile(), file("sub")]
+    }
+
+    def "coalesces overflows"() {
+        def first = watchKey(event(OVERFLOW, null), event(ENTRY_MODIFY, "a"), event(OVERFLOW, null))
+
+        when:
+        def events = poller.takeEvents()
+
+        then:
+        1 * watchService.poll(5, TimeUnit.SECONDS) >> first
+        1 * watchService.poll(10, TimeUnit.MILLISECONDS) >> null
+
+        and:
+        events*.type == [UNDEFINED, MODIFY]
+    }
+
+    def "reports watched directory as deleted when its key signals no events"() {
+        def first = watchKey()
+
+        when:
+        def events = poller.takeEvents()
+
+        then:
+        1 * watchService.poll(5, TimeUnit.SECONDS) >> first
+        1 * watchService.poll(10, TimeUnit.MILLISECONDS) >> null
+
+        and:
+        events*.type == [DELETE]
+        events*.file == [dir.toFile()]
+    }
+
+    private File file(String name) {
+        dir.resolve(name).toFile()
+    }
+
+    private WatchKey watchKey(WatchEvent<?>... events) {
+        watchKey(dir, events)
+    }
+
+    private WatchKey watchKey(Path watched, WatchEvent<?>... events) {
+        def watchKey = Mock(WatchKey)
+        watchKey.watchable() >> watched
+        watchKey.pollEvents() >> (events as List)
+        watchKey
+    }
+
+    private WatchEvent<?> event(WatchEvent.Kind<?> kind, String name) {
+        def event = Mock(WatchEvent)
+        event.kind() >> kind
+        event.context() >> (name == null ? null : Paths.get(name))
+        event
+    }
+}
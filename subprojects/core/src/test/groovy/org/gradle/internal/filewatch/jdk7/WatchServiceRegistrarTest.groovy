@@ -16,6 +16,8 @@
 
 package org.gradle.internal.filewatch.jdk7
 
+import org.gradle.internal.filewatch.FileWatcher
+import org.gradle.internal.filewatch.FileWatcherEvent
 import org.gradle.internal.filewatch.FileWatcherListener
 import spock.lang.Specification
 
@@ -106,4 +108,50 @@ class WatchServiceRegistrarTest extends Specification {
         }
         thrown(IOException)
     }
+
+    def "releases the watches of a deleted directory and of the directories under it"() {
+        given:
+        WatchServiceRegistrar registrar = new WatchServiceRegistrar(Mock(WatchService), Mock(FileWatcherListener), fileSystem)
+        def root = new File("root").absoluteFile.toPath()
+        def dir = root.resolve("dir")
+        def subDir = dir.resolve("sub")
+        def sibling = root.resolve("dir2")
+        def rootKey = Mock(WatchKey)
+        def dirKey = Mock(WatchKey)
+        def subDirKey = Mock(WatchKey)
+        def siblingKey = Mock(WatchKey)
+        registrar.watchKeys.putAll([(root): rootKey, (dir): dirKey, (subDir): subDirKey, (sibling): siblingKey])
+
+        when:
+        registrar.onChange(Mock(FileWatcher), FileWatcherEvent.delete(dir.toFile()))
+
+        then:
+        1 * dirKey.cancel()
+        1 * subDirKey.cancel()
+        0 * rootKey.cancel()
+        0 * siblingKey.cancel()
+
+        and:
+        registrar.watchKeys.keySet() == [root, sibling] as Set
+    }
+
+    def "keeps the watches when a file that is not watched is deleted"() {
+        given:
+        WatchServiceRegistrar registrar = new WatchServiceRegistrar(Mock(WatchService), Mock(FileWatcherListener), fileSystem)
+        def root = new File("root").absoluteFile.toPath()
+        def subDir = root.resolve("file").resolve("sub")
+        def rootKey = Mock(WatchKey)
+        def subDirKey = Mock(WatchKey)
+        registrar.watchKeys.putAll([(root): rootKey, (subDir): subDirKey])
+
+        when:
+        registrar.onChange(Mock(FileWatcher), FileWatcherEvent.delete(root.resolve("file").toFile()))
+
+        then:
+        0 * rootKey.cancel()
+        0 * subDirKey.cancel()
+
+        and:
+        registrar.watchKeys.keySet() == [root, subDir] as Set
+    }
 }
@@ -32,7 +32,13 @@ class ExecOutputHandleRunnerTest extends Specification {
         def text = text1 + text2
         def action = Mock(TextStream)
         def output = new LineBufferingOutputStream(action)
-        def input = new ByteArrayInputStream(text.getBytes("utf-8"))
+        def input = new ByteArrayInputStream(text.getBytes("utf-8")) {
+            @Override
+            int available() {
+                // Simulate output that arrives one read at a time
+                return 0
+            }
+        }
         def runner = new ExecOutputHandleRunner("test", input, output, bufferLength)
 
         when:
@@ -45,4 +51,23 @@ class ExecOutputHandleRunnerTest extends Specification {
         then:
         1 * action.endOfStream(null)
     }
+
+    def "flushes once all available output has been forwarded"() {
+        given:
+        def text = "a" * 100
+        def output = Mock(OutputStream)
+        def input = new ByteArrayInputStream(text.getBytes("utf-8"))
+        def runner = new ExecOutputHandleRunner("test", input, output, 7)
+
+        when:
+        runner.run()
+
+        then:
+        4 * output.write(_, 0, _)
+        then:
+        2 * output.flush()
+        then:
+        1 * output.close()
+        0 * output._
+    }
 }
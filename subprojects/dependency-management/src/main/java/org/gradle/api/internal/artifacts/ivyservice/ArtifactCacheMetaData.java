@@ -41,4 +41,9 @@ public interface ArtifactCacheMetaData {
      * Returns the root directory for the transforms cache.
      */
     File getTransformsStoreDirectory();
+
+    /**
+     * Returns the directory that downloads are written to before they are moved into the file store.
+     */
+    File getDownloadsDirectory();
 }
@@ -33,4 +33,10 @@ public interface CacheLockingManager extends CacheAccess {
      *
      */
     <K, V> PersistentIndexedCache<K, V> createCache(String cacheName, Serializer<K> keySerializer, Serializer<V> valueSerializer);
+
+    /**
+     * Returns true when the current thread is running an action from {@link #useCache(org.gradle.internal.Factory)} or {@link #useCache(Runnable)},
+     * in which case other threads cannot use the cache until that action has completed.
+     */
+    boolean isUsedByCurrentThread();
 }
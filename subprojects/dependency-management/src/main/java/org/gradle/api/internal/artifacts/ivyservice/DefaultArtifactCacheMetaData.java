@@ -45,6 +45,11 @@ public class DefaultArtifactCacheMetaData implements ArtifactCacheMetaData, Cach
         return transformsDir;
     }
 
+    @Override
+    public File getDownloadsDirectory() {
+        return new File(getCacheDir(), "tmp");
+    }
+
     @Override
     public List<File> getFileStoreRoots() {
         return Arrays.asList(getFileStoreDirectory(), getTransformsStoreDirectory());
@@ -17,6 +17,8 @@ package org.gradle.api.internal.artifacts.ivyservice;
 
 import org.gradle.api.Nullable;
 import org.gradle.api.Transformer;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.cache.CacheBuilder;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.PersistentCache;
@@ -27,11 +29,23 @@ import org.gradle.internal.Factory;
 import org.gradle.internal.serialize.Serializer;
 
 import java.io.Closeable;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
 
 import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
 public class DefaultCacheLockingManager implements CacheLockingManager, Closeable {
+    private static final Logger LOGGER = Logging.getLogger(DefaultCacheLockingManager.class);
+    // Other processes may still be writing to their downloads, so only downloads that have not been written to for a while are deleted
+    static final long MAX_DOWNLOAD_AGE = TimeUnit.DAYS.toMillis(1);
+
     private final PersistentCache cache;
+    private final ThreadLocal<Integer> useCacheDepth = new ThreadLocal<Integer>() {
+        @Override
+        protected Integer initialValue() {
+            return 0;
+        }
+    };
 
     public DefaultCacheLockingManager(CacheRepository cacheRepository, ArtifactCacheMetaData cacheMetaData) {
         cache = cacheRepository
@@ -40,6 +54,24 @@ public class DefaultCacheLockingManager implements CacheLockingManager, Closeabl
                 .withDisplayName("artifact cache")
                 .withLockOptions(mode(FileLockManager.LockMode.None)) // Don't need to lock anything until we use the caches
                 .open();
+        deleteAbandonedDownloads(cacheMetaData.getDownloadsDirectory());
+    }
+
+    /**
+     * Deletes the downloads left behind by processes that were killed part way through a download. Completed and failed downloads are removed
+     * by the process that made them.
+     */
+    private static void deleteAbandonedDownloads(File downloadsDir) {
+        File[] downloads = downloadsDir.listFiles();
+        if (downloads == null) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - MAX_DOWNLOAD_AGE;
+        for (File download : downloads) {
+            if (download.isFile() && download.lastModified() < cutoff && !download.delete()) {
+                LOGGER.debug("Could not delete abandoned download {}.", download);
+            }
+        }
     }
 
     @Override
@@ -54,12 +86,27 @@ public class DefaultCacheLockingManager implements CacheLockingManager, Closeabl
 
     @Override
     public <T> T useCache(Factory<? extends T> action) {
-        return cache.useCache(action);
+        useCacheDepth.set(useCacheDepth.get() + 1);
+        try {
+            return cache.useCache(action);
+        } finally {
+            useCacheDepth.set(useCacheDepth.get() - 1);
+        }
     }
 
     @Override
     public void useCache(Runnable action) {
-        cache.useCache(action);
+        useCacheDepth.set(useCacheDepth.get() + 1);
+        try {
+            cache.useCache(action);
+        } finally {
+            useCacheDepth.set(useCacheDepth.get() - 1);
+        }
+    }
+
+    @Override
+    public boolean isUsedByCurrentThread() {
+        return useCacheDepth.get() > 0;
     }
 
     @Override
@@ -79,7 +126,7 @@ public class DefaultCacheLockingManager implements CacheLockingManager, Closeabl
         @Nullable
         @Override
         public V get(final K key) {
-            return cache.useCache(new Factory<V>() {
+            return useCache(new Factory<V>() {
                 @Override
                 public V create() {
                     return persistentCache.get(key);
@@ -89,7 +136,7 @@ public class DefaultCacheLockingManager implements CacheLockingManager, Closeabl
 
         @Override
         public V get(final K key, final Transformer<? extends V, ? super K> producer) {
-            return cache.useCache(new Factory<V>() {
+            return useCache(new Factory<V>() {
                 @Override
                 public V create() {
                     return persistentCache.get(key, producer);
@@ -99,7 +146,7 @@ public class DefaultCacheLockingManager implements CacheLockingManager, Closeabl
 
         @Override
         public void put(final K key, final V value) {
-            cache.useCache(new Runnable() {
+            useCache(new Runnable() {
                 @Override
                 public void run() {
                     persistentCache.put(key, value);
@@ -109,7 +156,7 @@ public class DefaultCacheLockingManager implements CacheLockingManager, Closeabl
 
         @Override
         public void remove(final K key) {
-            cache.useCache(new Runnable() {
+            useCache(new Runnable() {
                 @Override
                 public void run() {
                     persistentCache.remove(key);
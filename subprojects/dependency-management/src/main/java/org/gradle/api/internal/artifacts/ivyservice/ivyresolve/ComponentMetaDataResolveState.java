@@ -17,12 +17,13 @@
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve;
 
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.component.model.ComponentOverrideMetadata;
 import org.gradle.internal.resolve.result.BuildableModuleComponentMetaDataResolveResult;
 import org.gradle.internal.resolve.result.DefaultBuildableModuleComponentMetaDataResolveResult;
 import org.gradle.internal.resolve.result.ResourceAwareResolveResult;
 
-class ComponentMetaDataResolveState {
+class ComponentMetaDataResolveState implements ConcurrentRepositoryProber.Probe {
     private final DefaultBuildableModuleComponentMetaDataResolveResult resolveResult = new DefaultBuildableModuleComponentMetaDataResolveResult();
     private final VersionedComponentChooser versionedComponentChooser;
     private final ComponentOverrideMetadata componentOverrideMetadata;
@@ -31,6 +32,8 @@ class ComponentMetaDataResolveState {
 
     private boolean searchedLocally;
     private boolean searchedRemotely;
+    private boolean probed;
+    private Throwable probeFailure;
 
     public ComponentMetaDataResolveState(ModuleComponentIdentifier componentIdentifier, ComponentOverrideMetadata componentOverrideMetadata, ModuleComponentRepository repository, VersionedComponentChooser versionedComponentChooser) {
         this.componentOverrideMetadata = componentOverrideMetadata;
@@ -40,6 +43,33 @@ class ComponentMetaDataResolveState {
     }
 
     BuildableModuleComponentMetaDataResolveResult resolve() {
+        if (probed) {
+            // Use the result of the concurrent search
+            probed = false;
+            if (probeFailure != null) {
+                throw UncheckedException.throwAsUncheckedException(probeFailure);
+            }
+            return resolveResult;
+        }
+        return search();
+    }
+
+    @Override
+    public void probe() {
+        try {
+            search();
+        } catch (Throwable t) {
+            probeFailure = t;
+        }
+        probed = true;
+    }
+
+    @Override
+    public boolean isConclusive() {
+        return probeFailure == null && resolveResult.getState() == BuildableModuleComponentMetaDataResolveResult.State.Resolved && !resolveResult.getMetaData().isGenerated();
+    }
+
+    private BuildableModuleComponentMetaDataResolveResult search() {
         if (!searchedLocally) {
             searchedLocally = true;
             process(repository.getLocalAccess());
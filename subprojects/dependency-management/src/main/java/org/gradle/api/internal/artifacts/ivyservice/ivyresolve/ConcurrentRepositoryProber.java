@@ -0,0 +1,198 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve;
+
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Searches the repositories of a chain concurrently, rather than one after the other, when enabled with the {@value #TOGGLE_PROPERTY} system property.
+ *
+ * <p>The results are still used in the order in which the repositories are declared, so the outcome of a resolution does not depend on which
+ * repository answers first. Once a repository has given a conclusive result, the searches of the repositories declared after it that have
+ * not started yet are cancelled, and those that have already started are waited for, so that no search outlives the resolution.
+ * A search in flight is not interrupted, as interrupting a thread closes the file channels it uses to lock the artifact cache.</p>
+ *
+ * <p>The searches run on their own threads and each of them uses the artifact cache. When the calling thread already holds the cache, the
+ * searches would wait for it to be released, so the repositories are left to be searched one after the other by the calling thread instead.</p>
+ */
+public class ConcurrentRepositoryProber implements Stoppable {
+
+    public final static String TOGGLE_PROPERTY = "org.gradle.resolution.concurrentrepositories";
+
+    private final ExecutorFactory executorFactory;
+    private final CacheLockingManager cacheLockingManager;
+    private final boolean enabled;
+    private ManagedExecutor executor;
+
+    public ConcurrentRepositoryProber(ExecutorFactory executorFactory, CacheLockingManager cacheLockingManager) {
+        this(executorFactory, cacheLockingManager, "true".equalsIgnoreCase(System.getProperty(TOGGLE_PROPERTY)));
+    }
+
+    ConcurrentRepositoryProber(ExecutorFactory executorFactory, CacheLockingManager cacheLockingManager, boolean enabled) {
+        this.executorFactory = executorFactory;
+        this.cacheLockingManager = cacheLockingManager;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs the given probes concurrently and waits until each probe up to and including the first conclusive one has completed.
+     * Does nothing when the calling thread holds the artifact cache, in which case the probes are left unsearched.
+     */
+    void probe(List<? extends Probe> probes) {
+        if (cacheLockingManager.isUsedByCurrentThread()) {
+            return;
+        }
+        AtomicInteger firstConclusive = new AtomicInteger(Integer.MAX_VALUE);
+        ManagedExecutor executor = getExecutor();
+        List<ProbeRunnable> runnables = new ArrayList<ProbeRunnable>(probes.size());
+        for (int i = 0; i < probes.size(); i++) {
+            ProbeRunnable runnable = new ProbeRunnable(probes.get(i), i, firstConclusive);
+            runnable.future = executor.submit(runnable);
+            runnables.add(runnable);
+        }
+        int waited = 0;
+        try {
+            while (waited < runnables.size()) {
+                ProbeRunnable runnable = runnables.get(waited++);
+                runnable.waitFor();
+                if (runnable.probe.isConclusive()) {
+                    break;
+                }
+            }
+        } finally {
+            List<ProbeRunnable> inFlight = new ArrayList<ProbeRunnable>();
+            for (ProbeRunnable later : runnables.subList(waited, runnables.size())) {
+                if (!later.cancel()) {
+                    inFlight.add(later);
+                }
+            }
+            for (ProbeRunnable later : inFlight) {
+                later.waitForCompletion();
+            }
+        }
+    }
+
+    private synchronized ManagedExecutor getExecutor() {
+        if (executor == null) {
+            executor = executorFactory.create("Repository probes");
+        }
+        return executor;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.stop();
+            executor = null;
+        }
+    }
+
+    /**
+     * A search of a single repository.
+     */
+    interface Probe {
+        /**
+         * Searches the repository. Any failure should be retained and reported when the result of the search is used, rather than thrown.
+         */
+        void probe();
+
+        /**
+         * Returns true when the result of this search means that the repositories after this one do not need to be searched.
+         */
+        boolean isConclusive();
+    }
+
+    private static class ProbeRunnable implements Runnable {
+        private static final int NEW = 0;
+        private static final int RUNNING = 1;
+        private static final int CANCELLED = 2;
+
+        private final Probe probe;
+        private final int index;
+        private final AtomicInteger firstConclusive;
+        private final AtomicInteger state = new AtomicInteger(NEW);
+        private final CountDownLatch done = new CountDownLatch(1);
+        private Future<?> future;
+        private Throwable failure;
+
+        ProbeRunnable(Probe probe, int index, AtomicInteger firstConclusive) {
+            this.probe = probe;
+            this.index = index;
+            this.firstConclusive = firstConclusive;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (firstConclusive.get() < index || !state.compareAndSet(NEW, RUNNING)) {
+                    return;
+                }
+                probe.probe();
+                if (probe.isConclusive()) {
+                    int current = firstConclusive.get();
+                    while (index < current && !firstConclusive.compareAndSet(current, index)) {
+                        current = firstConclusive.get();
+                    }
+                }
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                done.countDown();
+            }
+        }
+
+        /**
+         * Prevents the probe from starting. Returns false when it has already started.
+         */
+        boolean cancel() {
+            if (state.compareAndSet(NEW, CANCELLED)) {
+                future.cancel(false);
+                return true;
+            }
+            return false;
+        }
+
+        void waitForCompletion() {
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+
+        void waitFor() {
+            waitForCompletion();
+            if (failure != null) {
+                throw UncheckedException.throwAsUncheckedException(failure);
+            }
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.gradle.api.artifacts.ComponentMetadataSupplier;
 import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.Version;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
 import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata;
 import org.gradle.internal.component.model.DefaultComponentOverrideMetadata;
@@ -60,12 +61,14 @@ public class DynamicVersionResolver implements DependencyToComponentIdResolver {
     private final VersionedComponentChooser versionedComponentChooser;
     private final Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory;
     private final CacheLockingManager cacheLockingManager;
+    private final ConcurrentRepositoryProber repositoryProber;
 
     public DynamicVersionResolver(VersionedComponentChooser versionedComponentChooser, Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory,
-                                  CacheLockingManager cacheLockingManager) {
+                                  CacheLockingManager cacheLockingManager, ConcurrentRepositoryProber repositoryProber) {
         this.versionedComponentChooser = versionedComponentChooser;
         this.metaDataFactory = metaDataFactory;
         this.cacheLockingManager = cacheLockingManager;
+        this.repositoryProber = repositoryProber;
     }
 
     public void add(ModuleComponentRepository repository) {
@@ -124,6 +127,9 @@ public class DynamicVersionResolver implements DependencyToComponentIdResolver {
         // Nothing found - do a second pass
         queue.addAll(missing);
         missing.clear();
+        if (repositoryProber.isEnabled() && queue.size() > 1) {
+            repositoryProber.probe(queue);
+        }
         return findLatestModule(queue, failures, missing);
     }
 
@@ -182,7 +188,7 @@ public class DynamicVersionResolver implements DependencyToComponentIdResolver {
         }
     }
 
-    private class RepositoryResolveState {
+    private class RepositoryResolveState implements ConcurrentRepositoryProber.Probe {
         private final DefaultBuildableModuleComponentMetaDataResolveResult resolveResult = new DefaultBuildableModuleComponentMetaDataResolveResult();
         private final DefaultBuildableComponentSelectionResult componentSelectionResult = new DefaultBuildableComponentSelectionResult();
         private final Map<String, CandidateResult> candidateComponents = new LinkedHashMap<String, CandidateResult>();
@@ -191,6 +197,8 @@ public class DynamicVersionResolver implements DependencyToComponentIdResolver {
         private final AttemptCollector attemptCollector;
         private final DependencyMetadata dependency;
         private final ModuleVersionSelector selector;
+        private boolean probed;
+        private Throwable probeFailure;
 
         public RepositoryResolveState(DependencyMetadata dependency, ModuleComponentRepository repository) {
             this.dependency = dependency;
@@ -205,12 +213,45 @@ public class DynamicVersionResolver implements DependencyToComponentIdResolver {
         }
 
         void resolve() {
-            cacheLockingManager.useCache(new Runnable() {
-                @Override
-                public void run() {
-                    versionListingResult.resolve();
+            if (probed) {
+                // Use the result of the concurrent search
+                probed = false;
+                if (probeFailure != null) {
+                    throw UncheckedException.throwAsUncheckedException(probeFailure);
                 }
-            });
+                return;
+            }
+            search();
+        }
+
+        @Override
+        public void probe() {
+            try {
+                search();
+            } catch (Throwable t) {
+                probeFailure = t;
+            }
+            probed = true;
+        }
+
+        @Override
+        public boolean isConclusive() {
+            // The newest version from all repositories is used
+            return false;
+        }
+
+        private void search() {
+            if (repositoryProber.isEnabled()) {
+                // Other searches need to use the cache while this one lists versions
+                versionListingResult.resolve();
+            } else {
+                cacheLockingManager.useCache(new Runnable() {
+                    @Override
+                    public void run() {
+                        versionListingResult.resolve();
+                    }
+                });
+            }
             switch (versionListingResult.result.getState()) {
                 case Failed:
                     resolveResult.failed(versionListingResult.result.getFailure());
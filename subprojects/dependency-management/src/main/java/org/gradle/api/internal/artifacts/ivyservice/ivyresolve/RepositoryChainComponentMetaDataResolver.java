@@ -41,10 +41,13 @@ public class RepositoryChainComponentMetaDataResolver implements ComponentMetaDa
     private final List<String> repositoryNames = new ArrayList<String>();
     private final VersionedComponentChooser versionedComponentChooser;
     private final Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory;
+    private final ConcurrentRepositoryProber repositoryProber;
 
-    public RepositoryChainComponentMetaDataResolver(VersionedComponentChooser componentChooser, Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory) {
+    public RepositoryChainComponentMetaDataResolver(VersionedComponentChooser componentChooser, Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory,
+                                                    ConcurrentRepositoryProber repositoryProber) {
         this.versionedComponentChooser = componentChooser;
         this.metaDataFactory = metaDataFactory;
+        this.repositoryProber = repositoryProber;
     }
 
     public void add(ModuleComponentRepository repository) {
@@ -121,6 +124,9 @@ public class RepositoryChainComponentMetaDataResolver implements ComponentMetaDa
         // Nothing found - do a second pass
         queue.addAll(missing);
         missing.clear();
+        if (repositoryProber.isEnabled() && queue.size() > 1) {
+            repositoryProber.probe(queue);
+        }
         return findBestMatch(queue, failures, missing);
     }
 
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.cache.CrossBuildInMemoryCache;
+import org.gradle.api.internal.cache.CrossBuildInMemoryCacheFactory;
+import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata;
+
+import java.math.BigInteger;
+
+/**
+ * Keeps the module metadata decoded from the persistent module metadata cache in memory, so that it can be reused by later builds in the same process.
+ *
+ * <p>An entry is only reused for the same persistent cache entry, that is, as long as the persistent entry has the same timestamp and descriptor hash.
+ * Whether the metadata is still fresh enough to be used is decided from the persistent entry, as before, so the cache policy is applied in the same way
+ * whether or not the decoded metadata was found in memory.</p>
+ *
+ * <p>The decoded metadata must not hold on to build scoped services. For example, the exclude rules of a configuration are built using the
+ * {@link org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.ModuleExclusions} of the build that asks for them.</p>
+ *
+ * <p>Entries that have not been used by the current or the previous build can be discarded when memory is low.</p>
+ */
+public class DecodedModuleMetadataCache {
+    private final CrossBuildInMemoryCache<Key, ModuleComponentResolveMetadata> cache;
+
+    public DecodedModuleMetadataCache(CrossBuildInMemoryCacheFactory cacheFactory) {
+        cache = cacheFactory.newCache();
+    }
+
+    /**
+     * Returns the decoded metadata for the given persistent cache entry, or null when it is not available.
+     */
+    @Nullable
+    ModuleComponentResolveMetadata get(ModuleComponentAtRepositoryKey key, ModuleMetadataCacheEntry entry) {
+        return cache.get(new Key(key, entry));
+    }
+
+    void put(ModuleComponentAtRepositoryKey key, ModuleMetadataCacheEntry entry, ModuleComponentResolveMetadata metadata) {
+        cache.put(new Key(key, entry), metadata);
+    }
+
+    private static class Key {
+        private final ModuleComponentAtRepositoryKey key;
+        private final long createTimestamp;
+        private final BigInteger moduleDescriptorHash;
+        private final boolean isChanging;
+
+        Key(ModuleComponentAtRepositoryKey key, ModuleMetadataCacheEntry entry) {
+            this.key = key;
+            this.createTimestamp = entry.createTimestamp;
+            this.moduleDescriptorHash = entry.moduleDescriptorHash;
+            this.isChanging = entry.isChanging;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == null || !(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return createTimestamp == other.createTimestamp
+                && isChanging == other.isChanging
+                && key.equals(other.key)
+                && moduleDescriptorHash.equals(other.moduleDescriptorHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ moduleDescriptorHash.hashCode() ^ (int) (createTimestamp ^ (createTimestamp >>> 32));
+        }
+    }
+}
@@ -44,11 +44,13 @@ public class DefaultModuleMetaDataCache implements ModuleMetaDataCache {
     private final CacheLockingManager cacheLockingManager;
 
     private final ModuleMetadataStore moduleMetadataStore;
+    private final DecodedModuleMetadataCache decodedMetadataCache;
     private PersistentIndexedCache<ModuleComponentAtRepositoryKey, ModuleMetadataCacheEntry> cache;
 
-    public DefaultModuleMetaDataCache(BuildCommencedTimeProvider timeProvider, CacheLockingManager cacheLockingManager, ArtifactCacheMetaData artifactCacheMetaData, ImmutableModuleIdentifierFactory moduleIdentifierFactory, ModuleExclusions moduleExclusions) {
+    public DefaultModuleMetaDataCache(BuildCommencedTimeProvider timeProvider, CacheLockingManager cacheLockingManager, ArtifactCacheMetaData artifactCacheMetaData, ImmutableModuleIdentifierFactory moduleIdentifierFactory, ModuleExclusions moduleExclusions, DecodedModuleMetadataCache decodedMetadataCache) {
         this.timeProvider = timeProvider;
         this.cacheLockingManager = cacheLockingManager;
+        this.decodedMetadataCache = decodedMetadataCache;
 
         moduleMetadataStore = new ModuleMetadataStore(new PathKeyFileStore(artifactCacheMetaData.getMetaDataStoreDirectory()), new ModuleMetadataSerializer(), moduleIdentifierFactory, moduleExclusions);
     }
@@ -77,13 +79,19 @@ public class DefaultModuleMetaDataCache implements ModuleMetaDataCache {
                 if (entry.isMissing()) {
                     return new DefaultCachedMetaData(entry, null, timeProvider);
                 }
+                ModuleComponentResolveMetadata decoded = decodedMetadataCache.get(key, entry);
+                if (decoded != null) {
+                    return new DefaultCachedMetaData(entry, decoded, timeProvider);
+                }
                 MutableModuleComponentResolveMetadata metadata = moduleMetadataStore.getModuleDescriptor(key);
                 if (metadata == null) {
                     // Descriptor file has been deleted - ignore the entry
                     cache.remove(key);
                     return null;
                 }
-                return new DefaultCachedMetaData(entry, entry.configure(metadata), timeProvider);
+                decoded = entry.configure(metadata);
+                decodedMetadataCache.put(key, entry, decoded);
+                return new DefaultCachedMetaData(entry, decoded, timeProvider);
             }
         });
     }
@@ -16,19 +16,34 @@
 
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact;
 
+import org.apache.commons.io.FileUtils;
 import org.gradle.api.Action;
+import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.MultipleBuildOperationFailures;
 import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.progress.BuildOperationDescriptor;
+import org.gradle.internal.time.Timer;
+import org.gradle.internal.time.Timers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A wrapper that prepares artifacts in parallel when visiting the delegate.
  * This is done by collecting all artifacts to prepare and/or visit in a first step.
  * The collected artifacts are prepared in parallel and subsequently visited in sequence.
+ * The number and total size of the artifact files prepared by the queued operations, and the time taken, are logged at info level.
+ *
+ * <p>This does not schedule the downloads itself. The queued operations run in the order they are added, bounded by the number of workers,
+ * and connections to a repository are limited by its HTTP client.</p>
  */
 public abstract class ParallelResolveArtifactSet {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelResolveArtifactSet.class);
     private static final EmptySet EMPTY = new EmptySet();
 
     public abstract void visit(ArtifactVisitor visitor);
@@ -56,8 +71,10 @@ public abstract class ParallelResolveArtifactSet {
 
         public void visit(final ArtifactVisitor visitor) {
             // Start preparing the result
+            Timer timer = Timers.startTimer();
             StartVisitAction visitAction = new StartVisitAction(visitor);
             buildOperationProcessor.runAll(visitAction);
+            visitAction.listener.logThroughput(timer);
 
             // Now visit the result in order
             visitAction.result.visit(visitor);
@@ -65,6 +82,10 @@ public abstract class ParallelResolveArtifactSet {
 
         private static class AsyncArtifactListenerAdapter implements ResolvedArtifactSet.AsyncArtifactListener {
             private final ArtifactVisitor visitor;
+            private final boolean collectStats = LOGGER.isInfoEnabled();
+            private final AtomicInteger artifactCount = new AtomicInteger();
+            private final AtomicLong totalBytes = new AtomicLong();
+            private final ThreadLocal<Boolean> runningQueuedOperation = new ThreadLocal<Boolean>();
 
             AsyncArtifactListenerAdapter(ArtifactVisitor visitor) {
                 this.visitor = visitor;
@@ -72,7 +93,21 @@ public abstract class ParallelResolveArtifactSet {
 
             @Override
             public void artifactAvailable(ResolvableArtifact artifact) {
-                // Don't care, collect the artifacts later (in the correct order)
+                // Collect the artifacts later (in the correct order), only keep track of how much was prepared.
+                // Artifacts that are already resolved or that are built by an included build are made available straight away by the visiting thread, and are not counted
+                if (collectStats && runningQueuedOperation.get() != null) {
+                    artifactCount.incrementAndGet();
+                    File file = artifact.getFile();
+                    if (file.isFile()) {
+                        totalBytes.addAndGet(file.length());
+                    }
+                }
+            }
+
+            void logThroughput(Timer timer) {
+                if (collectStats && artifactCount.get() > 0) {
+                    LOGGER.info("Prepared {} artifact files ({}) in {}.", artifactCount.get(), FileUtils.byteCountToDisplaySize(totalBytes.get()), timer.getElapsed());
+                }
             }
 
             @Override
@@ -92,16 +127,65 @@ public abstract class ParallelResolveArtifactSet {
         }
 
         private class StartVisitAction implements Action<BuildOperationQueue<RunnableBuildOperation>> {
-            private final ArtifactVisitor visitor;
+            final AsyncArtifactListenerAdapter listener;
             ResolvedArtifactSet.Completion result;
 
             StartVisitAction(ArtifactVisitor visitor) {
-                this.visitor = visitor;
+                this.listener = new AsyncArtifactListenerAdapter(visitor);
             }
 
             @Override
             public void execute(BuildOperationQueue<RunnableBuildOperation> buildOperationQueue) {
-                result = artifacts.startVisit(buildOperationQueue, new AsyncArtifactListenerAdapter(visitor));
+                BuildOperationQueue<RunnableBuildOperation> actions = listener.collectStats ? new StatsCollectingQueue(buildOperationQueue, listener) : buildOperationQueue;
+                result = artifacts.startVisit(actions, listener);
+            }
+        }
+
+        /**
+         * Marks the operations run from the queue, so that the listener only keeps track of the artifacts prepared by them.
+         */
+        private static class StatsCollectingQueue implements BuildOperationQueue<RunnableBuildOperation> {
+            private final BuildOperationQueue<RunnableBuildOperation> delegate;
+            private final AsyncArtifactListenerAdapter listener;
+
+            StatsCollectingQueue(BuildOperationQueue<RunnableBuildOperation> delegate, AsyncArtifactListenerAdapter listener) {
+                this.delegate = delegate;
+                this.listener = listener;
+            }
+
+            @Override
+            public void add(final RunnableBuildOperation operation) {
+                delegate.add(new RunnableBuildOperation() {
+                    @Override
+                    public void run(BuildOperationContext context) {
+                        listener.runningQueuedOperation.set(Boolean.TRUE);
+                        try {
+                            operation.run(context);
+                        } finally {
+                            listener.runningQueuedOperation.remove();
+                        }
+                    }
+
+                    @Override
+                    public BuildOperationDescriptor.Builder description() {
+                        return operation.description();
+                    }
+                });
+            }
+
+            @Override
+            public void cancel() {
+                delegate.cancel();
+            }
+
+            @Override
+            public void waitForCompletion() throws MultipleBuildOperationFailures {
+                delegate.waitForCompletion();
+            }
+
+            @Override
+            public void setLogLocation(String logLocation) {
+                delegate.setLogLocation(logLocation);
             }
         }
     }
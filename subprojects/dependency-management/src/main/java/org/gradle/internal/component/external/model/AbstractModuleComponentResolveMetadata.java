@@ -17,7 +17,6 @@
 package org.gradle.internal.component.external.model;
 
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Lists;
 import org.gradle.api.Nullable;
 import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
@@ -273,7 +272,6 @@ abstract class AbstractModuleComponentResolveMetadata implements ModuleComponent
         private final boolean visible;
         private final Set<String> hierarchy;
         private final List<Exclude> excludes;
-        private ModuleExclusion exclusions;
 
         private DefaultConfigurationMetadata(ModuleComponentIdentifier componentId, String name, boolean transitive, boolean visible, List<DefaultConfigurationMetadata> parents, List<Exclude> excludes) {
             this.componentId = componentId;
@@ -389,24 +387,8 @@ abstract class AbstractModuleComponentResolveMetadata implements ModuleComponent
 
         @Override
         public ModuleExclusion getExclusions(ModuleExclusions moduleExclusions) {
-            if (exclusions == null) {
-                exclusions = filterExcludes(moduleExclusions, excludes);
-            }
-            return exclusions;
-        }
-
-        private ModuleExclusion filterExcludes(ModuleExclusions exclusions, Iterable<Exclude> excludes) {
-            Set<String> hierarchy = getHierarchy();
-            List<Exclude> filtered = Lists.newArrayList();
-            for (Exclude exclude : excludes) {
-                for (String config : exclude.getConfigurations()) {
-                    if (hierarchy.contains(config)) {
-                        filtered.add(exclude);
-                        break;
-                    }
-                }
-            }
-            return exclusions.excludeAny(filtered);
+            // The exclusions are cached by the build scoped ModuleExclusions rather than here, as this metadata may be reused by later builds
+            return moduleExclusions.excludeAny(excludes, hierarchy);
         }
 
         @Override
@@ -115,8 +115,7 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
 
                     if (isUnchanged) {
                         LOGGER.info("Cached resource {} is up-to-date (lastModified: {}).", location, cached.getExternalLastModified());
-                        // TODO - update the index with the new remote meta-data
-                        return fileResourceRepository.resource(cached.getCachedFile(), location.getUri(), cached.getExternalResourceMetaData());
+                        return recordRevalidated(location, cached.getCachedFile(), remoteMetaData);
                     }
                 }
 
@@ -220,6 +219,16 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
         });
     }
 
+    private LocallyAvailableExternalResource recordRevalidated(final ExternalResourceName source, final File cachedFile, final ExternalResourceMetaData metaData) {
+        // Restart the expiry period of the cached resource, so that it is not revalidated again until it expires
+        return cacheLockingManager.useCache(new Factory<LocallyAvailableExternalResource>() {
+            public LocallyAvailableExternalResource create() {
+                cachedExternalResourceIndex.store(source.toString(), cachedFile, metaData);
+                return fileResourceRepository.resource(cachedFile, source.getUri(), metaData);
+            }
+        });
+    }
+
     public long getAgeMillis(BuildCommencedTimeProvider timeProvider, CachedExternalResource cached) {
         return timeProvider.getCurrentTime() - cached.getCachedAt();
     }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice
+
+import org.gradle.cache.CacheBuilder
+import org.gradle.cache.CacheRepository
+import org.gradle.cache.PersistentCache
+import org.gradle.internal.Factory
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class DefaultCacheLockingManagerTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider()
+    def cacheBuilder = Mock(CacheBuilder)
+    def cacheRepository = Stub(CacheRepository)
+    def cacheMetaData = Stub(ArtifactCacheMetaData)
+    def persistentCache = Stub(PersistentCache) {
+        useCache(_ as Factory) >> { Factory action -> action.create() }
+        useCache(_ as Runnable) >> { Runnable action -> action.run() }
+    }
+    TestFile downloadsDir
+
+    def setup() {
+        downloadsDir = temporaryFolder.file("cache/tmp")
+        cacheMetaData.cacheDir >> temporaryFolder.file("cache")
+        cacheMetaData.downloadsDirectory >> downloadsDir
+        cacheRepository.cache(_ as File) >> cacheBuilder
+        _ * cacheBuilder.withCrossVersionCache(_) >> cacheBuilder
+        _ * cacheBuilder.withDisplayName(_) >> cacheBuilder
+        _ * cacheBuilder.withLockOptions(_) >> cacheBuilder
+        _ * cacheBuilder.open() >> persistentCache
+    }
+
+    def "deletes abandoned downloads when the cache is opened"() {
+        given:
+        def abandoned = downloadsDir.createFile("gradle_download1.bin")
+        abandoned.setLastModified(System.currentTimeMillis() - DefaultCacheLockingManager.MAX_DOWNLOAD_AGE - 60000)
+        def inProgress = downloadsDir.createFile("gradle_download2.bin")
+
+        when:
+        new DefaultCacheLockingManager(cacheRepository, cacheMetaData)
+
+        then:
+        !abandoned.exists()
+        inProgress.exists()
+    }
+
+    def "opens the cache when there is no downloads directory"() {
+        when:
+        new DefaultCacheLockingManager(cacheRepository, cacheMetaData)
+
+        then:
+        !downloadsDir.exists()
+    }
+
+    def "knows whether the current thread is using the cache"() {
+        def manager = new DefaultCacheLockingManager(cacheRepository, cacheMetaData)
+
+        expect:
+        !manager.usedByCurrentThread
+        manager.useCache({ manager.usedByCurrentThread } as Factory)
+        manager.useCache({ manager.useCache({ manager.usedByCurrentThread } as Factory) && manager.usedByCurrentThread } as Factory)
+        !manager.usedByCurrentThread
+
+        when:
+        def used = false
+        manager.useCache({ used = manager.usedByCurrentThread } as Runnable)
+
+        then:
+        used
+        !manager.usedByCurrentThread
+    }
+}
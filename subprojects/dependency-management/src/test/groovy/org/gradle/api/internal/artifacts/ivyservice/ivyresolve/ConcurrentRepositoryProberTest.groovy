@@ -0,0 +1,144 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve
+
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.ManagedExecutor
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+
+import java.util.concurrent.Future
+
+class ConcurrentRepositoryProberTest extends ConcurrentSpec {
+    def cacheLockingManager = Stub(CacheLockingManager)
+    def prober = new ConcurrentRepositoryProber(executorFactory, cacheLockingManager, true)
+
+    def cleanup() {
+        prober.stop()
+    }
+
+    def "runs probes concurrently"() {
+        def probe1 = new TestProbe(action: { instant.probe1Started; thread.blockUntil.probe2Started })
+        def probe2 = new TestProbe(action: { instant.probe2Started; thread.blockUntil.probe1Started })
+
+        when:
+        prober.probe([probe1, probe2])
+
+        then:
+        probe1.probed
+        probe2.probed
+    }
+
+    def "waits for probes up to the first conclusive probe only"() {
+        def probe1 = new TestProbe()
+        def probe2 = new TestProbe(conclusive: true)
+        def probe3 = new TestProbe(conclusive: true)
+
+        when:
+        prober.probe([probe1, probe2, probe3])
+
+        then:
+        probe1.probed
+        probe2.probed
+    }
+
+    def "does not start probes after the first conclusive probe"() {
+        def executorFactory = Stub(ExecutorFactory)
+        def executor = Stub(ManagedExecutor)
+        def queued = []
+        def prober = new ConcurrentRepositoryProber(executorFactory, cacheLockingManager, true)
+        def probe1 = new TestProbe(conclusive: true)
+        def probe2 = new TestProbe()
+
+        given:
+        executorFactory.create(_) >> executor
+        executor.submit(_) >> { Runnable runnable ->
+            if (queued.empty) {
+                runnable.run()
+            }
+            queued << runnable
+            return Stub(Future)
+        }
+
+        when:
+        prober.probe([probe1, probe2])
+        queued.each { it.run() }
+
+        then:
+        probe1.probed
+        !probe2.probed
+    }
+
+    def "waits for probes after the first conclusive probe that have already started"() {
+        def probe1 = new TestProbe(conclusive: true, action: { thread.blockUntil.probe2Started })
+        def probe2 = new TestProbe(action: { instant.probe2Started; thread.blockUntil.released })
+
+        when:
+        async {
+            start {
+                prober.probe([probe1, probe2])
+                instant.probed
+            }
+            thread.blockUntil.probe2Started
+            thread.block()
+            instant.released
+        }
+
+        then:
+        probe1.probed
+        probe2.probed
+        instant.probed > instant.released
+    }
+
+    def "does not probe concurrently when the current thread holds the artifact cache"() {
+        def probe1 = new TestProbe()
+        def probe2 = new TestProbe()
+
+        given:
+        cacheLockingManager.usedByCurrentThread >> true
+
+        when:
+        prober.probe([probe1, probe2])
+
+        then:
+        !probe1.probed
+        !probe2.probed
+    }
+
+    def "is not enabled by default"() {
+        expect:
+        !new ConcurrentRepositoryProber(new DefaultExecutorFactory(), cacheLockingManager).enabled
+    }
+
+    static class TestProbe implements ConcurrentRepositoryProber.Probe {
+        Closure action = {}
+        boolean conclusive
+        volatile boolean probed
+
+        @Override
+        void probe() {
+            action.call()
+            probed = true
+        }
+
+        @Override
+        boolean isConclusive() {
+            return conclusive
+        }
+    }
+}
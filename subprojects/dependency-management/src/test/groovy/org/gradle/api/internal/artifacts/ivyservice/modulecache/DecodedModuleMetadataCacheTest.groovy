@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache
+
+import org.gradle.api.internal.artifacts.DefaultImmutableModuleIdentifierFactory
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
+import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.ModuleExclusions
+import org.gradle.api.internal.cache.CrossBuildInMemoryCacheFactory
+import org.gradle.initialization.SessionLifecycleListener
+import org.gradle.internal.component.external.descriptor.Configuration
+import org.gradle.internal.component.external.descriptor.DefaultExclude
+import org.gradle.internal.component.external.descriptor.MutableModuleDescriptorState
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.component.external.model.DefaultMutableIvyModuleResolveMetadata
+import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata
+import org.gradle.internal.component.model.ModuleSource
+import org.gradle.internal.event.DefaultListenerManager
+import spock.lang.Specification
+
+class DecodedModuleMetadataCacheTest extends Specification {
+    def listenerManager = new DefaultListenerManager()
+    def cache = new DecodedModuleMetadataCache(new CrossBuildInMemoryCacheFactory(listenerManager))
+    def key = new ModuleComponentAtRepositoryKey("repo", DefaultModuleComponentIdentifier.newId("org.test", "test", "1.0"))
+    def metadata = Stub(ModuleComponentResolveMetadata)
+
+    def "reuses decoded metadata for the same persistent entry"() {
+        given:
+        cache.put(key, entry(1000, 12), metadata)
+
+        expect:
+        cache.get(key, entry(1000, 12)).is(metadata)
+        cache.get(new ModuleComponentAtRepositoryKey("repo", DefaultModuleComponentIdentifier.newId("org.test", "test", "1.0")), entry(1000, 12)).is(metadata)
+    }
+
+    def "does not reuse decoded metadata when the persistent entry has changed"() {
+        given:
+        cache.put(key, entry(1000, 12), metadata)
+
+        expect:
+        cache.get(key, entry(2000, 12)) == null
+        cache.get(key, entry(1000, 13)) == null
+        cache.get(key, entry(1000, 12, true)) == null
+        cache.get(new ModuleComponentAtRepositoryKey("other", key.componentId), entry(1000, 12)) == null
+        cache.get(new ModuleComponentAtRepositoryKey("repo", DefaultModuleComponentIdentifier.newId("org.test", "test", "1.1")), entry(1000, 12)) == null
+    }
+
+    def "reuses decoded metadata in later builds"() {
+        given:
+        cache.put(key, entry(1000, 12), metadata)
+
+        when:
+        listenerManager.getBroadcaster(SessionLifecycleListener).beforeComplete()
+
+        then:
+        cache.get(key, entry(1000, 12)).is(metadata)
+    }
+
+    def "cached metadata uses the exclusions of each build that reuses it"() {
+        given:
+        def componentId = DefaultModuleComponentIdentifier.newId("org.test", "test", "1.0")
+        def descriptor = new MutableModuleDescriptorState(componentId)
+        def exclude = new DefaultExclude(DefaultModuleIdentifier.newId("org.test", "excluded"), ["default"] as String[], "exact")
+        descriptor.addExclude(exclude)
+        def decoded = new DefaultMutableIvyModuleResolveMetadata(DefaultModuleVersionIdentifier.newId(componentId), componentId, descriptor, [new Configuration("default", true, true, [])], []).asImmutable()
+        def firstBuild = new ModuleExclusions(new DefaultImmutableModuleIdentifierFactory())
+        def secondBuild = new ModuleExclusions(new DefaultImmutableModuleIdentifierFactory())
+
+        when:
+        cache.put(key, entry(1000, 12), decoded)
+        def firstExclusions = cache.get(key, entry(1000, 12)).getConfiguration("default").getExclusions(firstBuild)
+        listenerManager.getBroadcaster(SessionLifecycleListener).beforeComplete()
+        def reused = cache.get(key, entry(1000, 12))
+        def secondExclusions = reused.getConfiguration("default").getExclusions(secondBuild)
+
+        then:
+        reused.is(decoded)
+        firstExclusions.is(firstBuild.excludeAny(exclude))
+        secondExclusions.is(secondBuild.excludeAny(exclude))
+        !secondExclusions.is(firstExclusions)
+    }
+
+    def entry(long timestamp, long hash, boolean changing = false) {
+        return new ModuleMetadataCacheEntry(ModuleMetadataCacheEntry.TYPE_PRESENT, changing, timestamp, BigInteger.valueOf(hash), Stub(ModuleSource))
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.artifacts.query
 
+import org.gradle.api.Transformer
 import org.gradle.api.artifacts.component.ComponentIdentifier
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier
 import org.gradle.api.artifacts.dsl.RepositoryHandler
@@ -26,21 +27,31 @@ import org.gradle.api.component.Component
 import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules
 import org.gradle.api.internal.artifacts.configurations.ConfigurationContainerInternal
 import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ConcurrentRepositoryProber
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepositoryAccess
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.RepositoryChainComponentMetaDataResolver
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ResolveIvyFactory
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ComponentResolvers
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.VersionedComponentChooser
 import org.gradle.api.internal.component.ComponentTypeRegistration
 import org.gradle.api.internal.component.ComponentTypeRegistry
 import org.gradle.internal.Factory
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
 import org.gradle.internal.component.model.ComponentOverrideMetadata
 import org.gradle.internal.component.model.ComponentResolveMetadata
 import org.gradle.internal.resolve.resolver.ArtifactResolver
 import org.gradle.internal.resolve.resolver.ComponentMetaDataResolver
 import org.gradle.internal.resolve.result.BuildableComponentResolveResult
+import org.gradle.internal.resolve.result.BuildableModuleComponentMetaDataResolveResult
 import spock.lang.Shared
 import spock.lang.Specification
+import spock.lang.Timeout
 import spock.lang.Unroll
 
+import java.util.concurrent.locks.ReentrantLock
+
 class DefaultArtifactResolutionQueryTest extends Specification {
     def configurationContainerInternal = Stub(ConfigurationContainerInternal)
     def repositoryHandler = Stub(RepositoryHandler)
@@ -113,8 +124,68 @@ class DefaultArtifactResolutionQueryTest extends Specification {
         testComponentTypeRegistry  | TestComponent         | UnknownArtifact        | "Artifact type $UnknownArtifact.name is not registered for component type ${TestComponent.name}."
     }
 
-    private DefaultArtifactResolutionQuery createArtifactResolutionQuery(ComponentTypeRegistry componentTypeRegistry) {
-        new DefaultArtifactResolutionQuery(configurationContainerInternal, repositoryHandler, resolveIvyFactory, globalDependencyResolutionRules, cacheLockingManager, componentTypeRegistry)
+    @Timeout(30)
+    def "does not deadlock when searching repositories concurrently while the query holds the artifact cache"() {
+        def lock = new ReentrantLock()
+        def lockingManager = Stub(CacheLockingManager) {
+            useCache(_ as Factory) >> { Factory action ->
+                lock.lock()
+                try {
+                    return action.create()
+                } finally {
+                    lock.unlock()
+                }
+            }
+            isUsedByCurrentThread() >> { lock.heldByCurrentThread }
+        }
+        def executorFactory = new DefaultExecutorFactory()
+        def prober = new ConcurrentRepositoryProber(executorFactory, lockingManager, true)
+        def resolver = new RepositoryChainComponentMetaDataResolver(Stub(VersionedComponentChooser), Stub(Transformer), prober)
+        resolver.add(repository("repo1", lockingManager))
+        resolver.add(repository("repo2", lockingManager))
+        def query = createArtifactResolutionQuery(testComponentTypeRegistry, lockingManager)
+
+        given:
+        resolveIvyFactory.create(_, _, _) >> Stub(ComponentResolvers) {
+            getComponentResolver() >> resolver
+            getArtifactResolver() >> artifactResolver
+        }
+
+        when:
+        def componentIdentifier = new DefaultModuleComponentIdentifier('mygroup', 'mymodule', '1.0')
+        def result = query.forComponents(componentIdentifier).withArtifacts(TestComponent, TestArtifact).execute()
+
+        then:
+        result.components.size() == 1
+        result.components.iterator().next() instanceof UnresolvedComponentResult
+
+        cleanup:
+        prober.stop()
+        executorFactory.stop()
+    }
+
+    private ModuleComponentRepository repository(String name, CacheLockingManager lockingManager) {
+        def localAccess = Stub(ModuleComponentRepositoryAccess) {
+            resolveComponentMetaData(_, _, _) >> { id, meta, BuildableModuleComponentMetaDataResolveResult result ->
+                result.missing()
+                result.authoritative = false
+            }
+        }
+        def remoteAccess = Stub(ModuleComponentRepositoryAccess) {
+            resolveComponentMetaData(_, _, _) >> { id, meta, BuildableModuleComponentMetaDataResolveResult result ->
+                // Remote searches use the artifact cache for their cached responses
+                lockingManager.useCache({ result.missing() } as Factory)
+            }
+        }
+        return Stub(ModuleComponentRepository) {
+            getName() >> name
+            getLocalAccess() >> localAccess
+            getRemoteAccess() >> remoteAccess
+        }
+    }
+
+    private DefaultArtifactResolutionQuery createArtifactResolutionQuery(ComponentTypeRegistry componentTypeRegistry, CacheLockingManager lockingManager = cacheLockingManager) {
+        new DefaultArtifactResolutionQuery(configurationContainerInternal, repositoryHandler, resolveIvyFactory, globalDependencyResolutionRules, lockingManager, componentTypeRegistry)
     }
 
     private ComponentTypeRegistry createTestComponentTypeRegistry() {
@@ -143,6 +143,23 @@ abstract class AbstractModuleComponentResolveMetadataTest extends Specification
         exclusions.is(config.getExclusions(moduleExclusions))
     }
 
+    def "builds exclude rules with the exclusions of the build that uses the configuration"() {
+        given:
+        def firstBuild = new ModuleExclusions(new DefaultImmutableModuleIdentifierFactory())
+        def secondBuild = new ModuleExclusions(new DefaultImmutableModuleIdentifierFactory())
+        configuration("compile")
+        configuration("runtime", ["compile"])
+        def rule1 = exclude("one", ["runtime"])
+        def rule2 = exclude("two", ["compile"])
+
+        expect:
+        def config = metadata.getConfiguration("runtime")
+
+        config.getExclusions(firstBuild).is(firstBuild.excludeAny(rule1, rule2))
+        config.getExclusions(secondBuild).is(secondBuild.excludeAny(rule1, rule2))
+        !config.getExclusions(secondBuild).is(config.getExclusions(firstBuild))
+    }
+
     def "can make a copy with different source"() {
         given:
         configuration("compile")
@@ -161,6 +161,47 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         0 * _._
     }
 
+    def "reuses cached resource and records that it was revalidated when it has not changed"() {
+        given:
+        def location = new ExternalResourceName("thing")
+        def fileStore = Mock(CacheAwareExternalResourceAccessor.ResourceFileStore)
+        def localCandidates = Mock(LocallyAvailableResourceCandidates)
+        def cached = Mock(CachedExternalResource)
+        def cachedMetaData = Mock(ExternalResourceMetaData)
+        def remoteMetaData = Mock(ExternalResourceMetaData)
+        def remoteResource = Mock(ExternalResource)
+        def resultResource = Stub(LocallyAvailableExternalResource)
+
+        when:
+        def result = cache.getResource(location, fileStore, localCandidates)
+
+        then:
+        result == resultResource
+
+        and:
+        1 * index.lookup("thing") >> cached
+        timeProvider.currentTime >> 24000L
+        cached.cachedAt >> 0L
+        cached.cachedFile >> cachedFile
+        cached.externalResourceMetaData >> cachedMetaData
+        cached.externalLastModified >> null
+        1 * repository.resource(location, true) >> remoteResource
+        1 * remoteResource.metaData >> remoteMetaData
+        cachedMetaData.etag >> "abc"
+        cachedMetaData.lastModified >> null
+        cachedMetaData.contentLength >> -1
+        remoteMetaData.etag >> "abc"
+        0 * _._
+
+        and:
+        1 * cacheLockingManager.useCache(_) >> { org.gradle.internal.Factory factory ->
+            return factory.create()
+        }
+        1 * index.store("thing", cachedFile, remoteMetaData)
+        1 * fileRepository.resource(cachedFile, location.uri, remoteMetaData) >> resultResource
+        0 * _._
+    }
+
     def "will use sha1 from metadata for finding candidates if available"() {
         given:
         def localCandidates = Mock(LocallyAvailableResourceCandidates)
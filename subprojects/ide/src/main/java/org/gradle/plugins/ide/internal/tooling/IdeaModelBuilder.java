@@ -56,6 +56,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import static org.gradle.plugins.ide.internal.tooling.ToolingModelBuilderSupport.indexByPath;
+
 public class IdeaModelBuilder implements ToolingModelBuilder {
     private final GradleProjectBuilder gradleProjectBuilder;
 
@@ -89,7 +91,7 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
         }
     }
 
-    private DefaultIdeaProject build(Project project, DefaultGradleProject rootGradleProject) {
+    private DefaultIdeaProject build(Project project, DefaultGradleProject<?> rootGradleProject) {
         IdeaModel ideaModel = ideaPluginFor(project).getModel();
         IdeaProject projectModel = ideaModel.getProject();
         JavaVersion projectSourceLanguageLevel = convertIdeaLanguageLevelToJavaVersion(projectModel.getLanguageLevel());
@@ -104,9 +106,10 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
                 .setTargetBytecodeVersion(projectTargetBytecodeLevel)
                 .setJdk(DefaultInstalledJdk.current()));
 
+        Map<String, DefaultGradleProject<?>> gradleProjectsByPath = indexByPath(rootGradleProject);
         Map<String, DefaultIdeaModule> modules = new LinkedHashMap<String, DefaultIdeaModule>();
         for (IdeaModule module : projectModel.getModules()) {
-            appendModule(modules, module, out, rootGradleProject);
+            appendModule(modules, module, out, gradleProjectsByPath);
         }
         for (IdeaModule module : projectModel.getModules()) {
             buildDependencies(modules, module);
@@ -155,7 +158,7 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
         modules.get(ideaModule.getName()).setDependencies(dependencies);
     }
 
-    private void appendModule(Map<String, DefaultIdeaModule> modules, IdeaModule ideaModule, DefaultIdeaProject ideaProject, DefaultGradleProject rootGradleProject) {
+    private void appendModule(Map<String, DefaultIdeaModule> modules, IdeaModule ideaModule, DefaultIdeaProject ideaProject, Map<String, DefaultGradleProject<?>> gradleProjectsByPath) {
         DefaultIdeaContentRoot contentRoot = new DefaultIdeaContentRoot()
             .setRootDirectory(ideaModule.getContentRoot())
             .setSourceDirectories(srcDirs(ideaModule.getSourceDirs(), ideaModule.getGeneratedSourceDirs()))
@@ -167,7 +170,7 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
         DefaultIdeaModule defaultIdeaModule = new DefaultIdeaModule()
             .setName(ideaModule.getName())
             .setParent(ideaProject)
-            .setGradleProject(rootGradleProject.findByPath(ideaModule.getProject().getPath()))
+            .setGradleProject(gradleProjectsByPath.get(ideaModule.getProject().getPath()))
             .setContentRoots(Collections.singletonList(contentRoot))
             .setJdkName(ideaModule.getJdkName())
             .setCompilerOutput(new DefaultIdeaCompilerOutput()
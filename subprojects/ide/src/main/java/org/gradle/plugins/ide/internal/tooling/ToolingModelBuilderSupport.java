@@ -19,8 +19,12 @@ import org.gradle.api.Project;
 import org.gradle.api.Task;
 import org.gradle.api.internal.tasks.PublicTaskSpecification;
 import org.gradle.plugins.ide.internal.tooling.model.LaunchableGradleTask;
+import org.gradle.tooling.internal.gradle.DefaultGradleProject;
 import org.gradle.tooling.internal.gradle.DefaultProjectIdentifier;
 
+import java.util.HashMap;
+import java.util.Map;
+
 abstract class ToolingModelBuilderSupport {
     public static <T extends LaunchableGradleTask> T buildFromTask(T target, Task task) {
         Project project = task.getProject();
@@ -33,4 +37,23 @@ abstract class ToolingModelBuilderSupport {
                 .setProjectIdentifier(new DefaultProjectIdentifier(project.getRootDir(), project.getPath()));
         return target;
     }
+
+    /**
+     * Indexes the given project hierarchy by project path, so that builders can look up the project for each element of their
+     * model without searching the whole hierarchy every time.
+     */
+    public static Map<String, DefaultGradleProject<?>> indexByPath(DefaultGradleProject<?> rootProject) {
+        Map<String, DefaultGradleProject<?>> projects = new HashMap<String, DefaultGradleProject<?>>();
+        addToIndex(rootProject, projects);
+        return projects;
+    }
+
+    private static void addToIndex(DefaultGradleProject<?> project, Map<String, DefaultGradleProject<?>> projects) {
+        if (!projects.containsKey(project.getPath())) {
+            projects.put(project.getPath(), project);
+        }
+        for (DefaultGradleProject<?> child : project.getChildren()) {
+            addToIndex(child, projects);
+        }
+    }
 }
@@ -294,6 +294,20 @@ class EclipseModelBuilderTest extends AbstractProjectBuilderSpec {
         ['e1', 'e2'] | ['i1', 'i2']
     }
 
+    def "associates each eclipse project with its gradle project"() {
+        given:
+        def modelBuilder = createEclipseModelBuilder()
+
+        when:
+        def eclipseModel = modelBuilder.buildAll("org.gradle.tooling.model.eclipse.EclipseProject", child2)
+
+        then:
+        eclipseModel.name == 'child2'
+        eclipseModel.gradleProject.path == ':child2'
+        eclipseModel.parent.gradleProject.path == ':'
+        eclipseModel.parent.children.collect { it.gradleProject.path } == [':child1', ':child2']
+    }
+
     private def createEclipseModelBuilder() {
         def gradleProjectBuilder = new GradleProjectBuilder()
         def serviceRegistry = new DefaultServiceRegistry()
@@ -32,19 +32,26 @@ package org.gradle.api.internal.tasks.scala;
  * limitations under the License.
  */
 
+import com.google.common.collect.Lists;
 import org.gradle.api.internal.tasks.compile.daemon.AbstractDaemonCompiler;
 import org.gradle.workers.internal.WorkerDaemonFactory;
 import org.gradle.workers.internal.DaemonForkOptions;
 import org.gradle.api.tasks.compile.ForkOptions;
 import org.gradle.api.tasks.scala.ScalaForkOptions;
 import org.gradle.language.base.internal.compile.Compiler;
+import org.gradle.process.internal.health.memory.MemoryAmount;
 
 import java.io.File;
 import java.util.Arrays;
+import java.util.List;
 
 public class DaemonScalaCompiler<T extends ScalaJavaJointCompileSpec> extends AbstractDaemonCompiler<T> {
     private static final Iterable<String> SHARED_PACKAGES =
             Arrays.asList("scala", "com.typesafe.zinc", "xsbti", "com.sun.tools.javac", "sbt");
+    private static final String ANALYSIS_CACHE_LIMIT_JVM_ARG = "-D" + ZincScalaCompilerUtil.ZINC_ANALYSIS_CACHE_LIMIT_SYSTEM_PROPERTY + "=";
+    private static final int DEFAULT_ANALYSIS_CACHE_LIMIT = 5;
+    private static final int MAX_ANALYSIS_CACHE_LIMIT = 500;
+    private static final long HEAP_PER_CACHED_ANALYSIS = 32 * 1024 * 1024;
     private final Iterable<File> zincClasspath;
 
     public DaemonScalaCompiler(File daemonWorkingDir, Compiler<T> delegate, WorkerDaemonFactory workerDaemonFactory, Iterable<File> zincClasspath) {
@@ -54,7 +61,8 @@ public class DaemonScalaCompiler<T extends ScalaJavaJointCompileSpec> extends Ab
 
     @Override
     protected DaemonForkOptions toDaemonOptions(T spec) {
-        return createJavaForkOptions(spec).mergeWith(createScalaForkOptions(spec));
+        DaemonForkOptions forkOptions = createJavaForkOptions(spec).mergeWith(createScalaForkOptions(spec));
+        return forkOptions.mergeWith(createAnalysisCacheForkOptions(forkOptions));
     }
 
     private DaemonForkOptions createJavaForkOptions(T spec) {
@@ -67,5 +75,29 @@ public class DaemonScalaCompiler<T extends ScalaJavaJointCompileSpec> extends Ab
         return new DaemonForkOptions(options.getMemoryInitialSize(), options.getMemoryMaximumSize(),
                 options.getJvmArgs(), zincClasspath, SHARED_PACKAGES);
     }
-}
 
+    /**
+     * Zinc keeps the analyses of the classpath entries in memory, but only a handful of them by default, so that in a large build the analyses of
+     * the upstream projects are read from disk again for most compilations. Zinc reads the limit from a system property when it is loaded, so pass
+     * a limit that scales with the maximum heap of the compiler daemon as a JVM argument, unless the limit has been configured.
+     */
+    private DaemonForkOptions createAnalysisCacheForkOptions(DaemonForkOptions forkOptions) {
+        List<String> jvmArgs = Lists.newArrayList();
+        if (forkOptions.getMaxHeapSize() != null && !hasAnalysisCacheLimit(forkOptions.getJvmArgs())) {
+            long limit = Math.min(MAX_ANALYSIS_CACHE_LIMIT, MemoryAmount.parseNotation(forkOptions.getMaxHeapSize()) / HEAP_PER_CACHED_ANALYSIS);
+            if (limit > DEFAULT_ANALYSIS_CACHE_LIMIT) {
+                jvmArgs.add(ANALYSIS_CACHE_LIMIT_JVM_ARG + limit);
+            }
+        }
+        return new DaemonForkOptions(null, null, jvmArgs);
+    }
+
+    private static boolean hasAnalysisCacheLimit(Iterable<String> jvmArgs) {
+        for (String jvmArg : jvmArgs) {
+            if (jvmArg.trim().startsWith(ANALYSIS_CACHE_LIMIT_JVM_ARG)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
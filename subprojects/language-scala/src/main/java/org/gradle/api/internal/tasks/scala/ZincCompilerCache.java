@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.scala;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.gradle.internal.UncheckedException;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The compilers that have been set up by a compiler daemon, keyed by Scala classpath, Zinc classpath and Zinc cache directory.
+ *
+ * <p>Only the most recently used compilers are kept. A compiler holds on to a Scala instance and its class loaders,
+ * so the compilers are softly referenced and are released when the compiler daemon runs low on memory.</p>
+ */
+class ZincCompilerCache<T> {
+    private final Cache<List<Object>, T> compilers;
+
+    ZincCompilerCache(int maxSize) {
+        compilers = CacheBuilder.newBuilder().concurrencyLevel(1).maximumSize(maxSize).softValues().build();
+    }
+
+    T get(Iterable<File> scalaClasspath, Iterable<File> zincClasspath, File zincCacheHomeDir, Callable<? extends T> factory) {
+        List<Object> key = ImmutableList.<Object>of(ImmutableList.copyOf(scalaClasspath), ImmutableList.copyOf(zincClasspath), zincCacheHomeDir);
+        try {
+            return compilers.get(key, factory);
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.scala
+
+import org.gradle.api.tasks.compile.CompileOptions
+import org.gradle.language.base.internal.compile.Compiler
+import org.gradle.language.scala.tasks.BaseScalaCompileOptions
+import org.gradle.workers.internal.WorkerDaemonFactory
+import spock.lang.Specification
+
+class DaemonScalaCompilerTest extends Specification {
+    def compileOptions = new CompileOptions()
+    def scalaCompileOptions = new BaseScalaCompileOptions()
+    def spec = Stub(ScalaJavaJointCompileSpec) {
+        getCompileOptions() >> compileOptions
+        getScalaCompileOptions() >> scalaCompileOptions
+    }
+    def compiler = new DaemonScalaCompiler<ScalaJavaJointCompileSpec>(new File("daemon"), Stub(Compiler), Stub(WorkerDaemonFactory), [new File("zinc.jar")])
+
+    def "scales Zinc analysis cache limit with maximum heap of compiler daemon"() {
+        scalaCompileOptions.forkOptions.memoryMaximumSize = "1g"
+        scalaCompileOptions.forkOptions.jvmArgs = ["-Dsome.property=value"]
+
+        when:
+        def options = compiler.toDaemonOptions(spec)
+
+        then:
+        options.maxHeapSize == "1024m"
+        options.jvmArgs as List == ["-Dsome.property=value", "-Dzinc.analysis.cache.limit=32"]
+    }
+
+    def "uses the larger maximum heap of Java and Scala fork options for the analysis cache limit"() {
+        compileOptions.forkOptions.memoryMaximumSize = "2g"
+        scalaCompileOptions.forkOptions.memoryMaximumSize = "512m"
+
+        when:
+        def options = compiler.toDaemonOptions(spec)
+
+        then:
+        options.jvmArgs as List == ["-Dzinc.analysis.cache.limit=64"]
+    }
+
+    def "caps Zinc analysis cache limit"() {
+        scalaCompileOptions.forkOptions.memoryMaximumSize = "64g"
+
+        when:
+        def options = compiler.toDaemonOptions(spec)
+
+        then:
+        options.jvmArgs as List == ["-Dzinc.analysis.cache.limit=500"]
+    }
+
+    def "does not set Zinc analysis cache limit when #description"() {
+        scalaCompileOptions.forkOptions.memoryMaximumSize = maxHeap
+        scalaCompileOptions.forkOptions.jvmArgs = jvmArgs
+
+        when:
+        def options = compiler.toDaemonOptions(spec)
+
+        then:
+        options.jvmArgs as List == jvmArgs
+
+        where:
+        description                       | maxHeap | jvmArgs
+        "maximum heap is not configured"  | null    | []
+        "maximum heap is small"           | "128m"  | []
+        "the limit has been configured"   | "1g"    | ["-Dzinc.analysis.cache.limit=10"]
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.scala
+
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+
+class ZincCompilerCacheTest extends Specification {
+    def cache = new ZincCompilerCache<Object>(2)
+    def scalaClasspath = [new File("scala-library.jar"), new File("scala-compiler.jar")]
+    def zincClasspath = [new File("zinc.jar")]
+    def cacheDir = new File("zinc-cache")
+    def factory = Mock(Callable)
+
+    def "reuses compiler for the same classpaths and cache directory"() {
+        def compiler = new Object()
+
+        when:
+        def first = cache.get(scalaClasspath, zincClasspath, cacheDir, factory)
+        def second = cache.get(scalaClasspath.collect(), zincClasspath.collect(), cacheDir, factory)
+
+        then:
+        1 * factory.call() >> compiler
+        first.is(compiler)
+        second.is(compiler)
+    }
+
+    def "creates a compiler for each distinct key"() {
+        when:
+        def compiler = cache.get(scalaClasspath, zincClasspath, cacheDir, factory)
+        def otherScala = cache.get([new File("other-scala-library.jar")], zincClasspath, cacheDir, factory)
+        def otherZinc = cache.get(scalaClasspath, [new File("other-zinc.jar")], cacheDir, factory)
+
+        then:
+        3 * factory.call() >>> ["compiler", "other scala", "other zinc"]
+        compiler == "compiler"
+        otherScala == "other scala"
+        otherZinc == "other zinc"
+
+        when:
+        def otherCacheDir = cache.get(scalaClasspath, zincClasspath, new File("other-zinc-cache"), factory)
+
+        then:
+        1 * factory.call() >> "other cache dir"
+        otherCacheDir == "other cache dir"
+    }
+
+    def "evicts least recently used compiler when the maximum number of compilers is reached"() {
+        def a = [new File("a.jar")]
+        def b = [new File("b.jar")]
+        def c = [new File("c.jar")]
+
+        when:
+        cache.get(a, zincClasspath, cacheDir, factory)
+        cache.get(b, zincClasspath, cacheDir, factory)
+        cache.get(a, zincClasspath, cacheDir, factory)
+        cache.get(c, zincClasspath, cacheDir, factory)
+
+        then:
+        3 * factory.call() >>> ["a", "b", "c"]
+
+        when:
+        def result = cache.get(a, zincClasspath, cacheDir, factory)
+
+        then:
+        0 * factory.call()
+        result == "a"
+
+        when:
+        result = cache.get(b, zincClasspath, cacheDir, factory)
+
+        then:
+        1 * factory.call() >> "new b"
+        result == "new b"
+    }
+
+    def "propagates failure to create compiler and does not cache it"() {
+        def failure = new RuntimeException("broken")
+
+        when:
+        cache.get(scalaClasspath, zincClasspath, cacheDir, factory)
+
+        then:
+        1 * factory.call() >> { throw failure }
+        def e = thrown(RuntimeException)
+        e.is(failure)
+
+        when:
+        def result = cache.get(scalaClasspath, zincClasspath, cacheDir, factory)
+
+        then:
+        1 * factory.call() >> "compiler"
+        result == "compiler"
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.internal.provider.serialization;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures serialization of a synthetic model shaped like a large multi-project IDE model, where each project
+ * refers to many of the same dependencies and paths.
+ */
+@State(Scope.Benchmark)
+public class PayloadSerializerBenchmark {
+    @Param({"100", "1000"})
+    int projectCount;
+
+    private final PayloadSerializer originator = newSerializer();
+    private final PayloadSerializer receiver = newSerializer();
+    private List<SyntheticProject> model;
+    private SerializedPayload serialized;
+
+    @Setup
+    public void setup() {
+        model = new ArrayList<SyntheticProject>(projectCount);
+        for (int i = 0; i < projectCount; i++) {
+            SyntheticProject project = new SyntheticProject(new StringBuilder("project-").append(i).toString(), new StringBuilder(":project-").append(i).toString());
+            for (int j = 0; j < 200; j++) {
+                // Build each string separately, as model builders do
+                project.dependencies.add(new SyntheticDependency(new StringBuilder("/home/user/.gradle/caches/modules-2/files-2.1/org.example/lib-").append(j).append("/1.0/lib-").append(j).append("-1.0.jar").toString(), new StringBuilder("compile").toString(), j % 3 == 0));
+            }
+            model.add(project);
+        }
+        serialized = originator.serialize(model);
+    }
+
+    @Benchmark
+    public SerializedPayload serialize() {
+        return originator.serialize(model);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return receiver.deserialize(serialized);
+    }
+
+    private static PayloadSerializer newSerializer() {
+        return new PayloadSerializer(new WellKnownClassLoaderRegistry(new DefaultPayloadClassLoaderRegistry(new ClassLoaderCache(), new ModelClassLoaderFactory())));
+    }
+
+    private static class SyntheticProject implements Serializable {
+        private final String name;
+        private final String path;
+        private final List<SyntheticDependency> dependencies = new ArrayList<SyntheticDependency>();
+
+        SyntheticProject(String name, String path) {
+            this.name = name;
+            this.path = path;
+        }
+    }
+
+    private static class SyntheticDependency implements Serializable {
+        private final String file;
+        private final String scope;
+        private final boolean exported;
+
+        SyntheticDependency(String file, String scope, boolean exported) {
+            this.file = file;
+            this.scope = scope;
+            this.exported = exported;
+        }
+    }
+}
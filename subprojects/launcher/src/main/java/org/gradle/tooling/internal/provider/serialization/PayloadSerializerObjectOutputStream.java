@@ -22,16 +22,38 @@ import org.gradle.internal.serialize.TopLevelExceptionPlaceholder;
 import java.io.IOException;
 import java.io.ObjectStreamClass;
 import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
 
 class PayloadSerializerObjectOutputStream extends ExceptionReplacingObjectOutputStream {
     static final int SAME_CLASSLOADER_TOKEN = 0;
     private final SerializeMap map;
+    private final Map<String, String> strings = new HashMap<String, String>();
 
     public PayloadSerializerObjectOutputStream(OutputStream outputStream, SerializeMap map) throws IOException {
         super(outputStream);
         this.map = map;
     }
 
+    /**
+     * Replaces each string with the first equal string written to this stream, so that the stream refers back to the earlier
+     * copy rather than writing the characters again. Tooling models contain many equal strings that are separate instances, such
+     * as paths, names and scopes. This keeps the payload small, and means the receiver ends up with a single instance of each.
+     */
+    @Override
+    protected Object doReplaceObject(Object obj) throws IOException {
+        if (obj instanceof String) {
+            String string = (String) obj;
+            String canonical = strings.get(string);
+            if (canonical == null) {
+                strings.put(string, string);
+                return string;
+            }
+            return canonical;
+        }
+        return super.doReplaceObject(obj);
+    }
+
     @Override
     protected ExceptionReplacingObjectOutputStream createNewInstance(OutputStream outputStream) throws IOException {
         return new PayloadSerializerObjectOutputStream(outputStream, map);
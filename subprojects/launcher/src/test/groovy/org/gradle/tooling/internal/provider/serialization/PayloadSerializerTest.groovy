@@ -176,6 +176,21 @@ class PayloadSerializerTest extends AbstractClassGraphSpec {
         reply2.payload.class == payloadClass
     }
 
+    def "writes each distinct string once"() {
+        def strings = (0..<1000).collect { new String("some-repeated-value") }
+        def distinctStrings = (0..<1000).collect { "value-${it}".toString() }
+
+        when:
+        def repeated = originator.serialize(strings)
+        def distinct = originator.serialize(distinctStrings)
+        def received = receiver.deserialize(repeated)
+
+        then:
+        received == strings
+        received.every { it.is(received[0]) }
+        repeated.serializedModel.sum { it.length } < distinct.serializedModel.sum { it.length } / 2
+    }
+
     void assertNotVisible(Class<?> from, Class<?> to) {
         try {
             from.classLoader.loadClass(to.name)
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.logging.sink;
+
+import org.gradle.api.logging.LogLevel;
+import org.gradle.api.logging.StandardOutputListener;
+import org.gradle.internal.logging.events.LogEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures the throughput of {@link OutputEventRenderer} when many threads log concurrently.
+ */
+@State(Scope.Benchmark)
+public class OutputEventRendererBenchmark {
+    private final OutputEventRenderer renderer = new OutputEventRenderer();
+    private final LogEvent infoEvent = new LogEvent(0, "category", LogLevel.INFO, "some info message", null);
+    private final LogEvent errorEvent = new LogEvent(0, "category", LogLevel.ERROR, "some error message", null);
+
+    @Setup
+    public void setup() {
+        renderer.configure(LogLevel.INFO);
+        StandardOutputListener discard = new StandardOutputListener() {
+            @Override
+            public void onOutput(CharSequence output) {
+            }
+        };
+        renderer.addStandardOutputListener(discard);
+        renderer.addStandardErrorListener(discard);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void singleThread() {
+        renderer.onOutput(infoEvent);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void manyThreads() {
+        renderer.onOutput(infoEvent);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void manyThreadsMixedLevels() {
+        renderer.onOutput(infoEvent);
+        renderer.onOutput(errorEvent);
+    }
+}
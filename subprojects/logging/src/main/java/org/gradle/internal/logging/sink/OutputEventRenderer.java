@@ -52,12 +52,20 @@ import org.gradle.internal.time.TrueTimeProvider;
 
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A {@link OutputEventListener} implementation which renders output events to various
  * destinations. This implementation is thread-safe.
+ *
+ * <p>Producers do not contend on the renderer lock. Each event is appended to a lock-free queue and whichever thread
+ * wins the right to drain renders all pending events as a batch, in the order they were queued. Events from a single
+ * producer thread are therefore always rendered in the order they were generated. Control events, such as log level
+ * changes and the end of output, are rendered synchronously, after all events queued before them.</p>
  */
 @ThreadSafe
 public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
@@ -68,6 +76,8 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
     private final ListenerBroadcast<OutputEventListener> formatters = new ListenerBroadcast<OutputEventListener>(OutputEventListener.class);
     private final ListenerBroadcast<StandardOutputListener> stdoutListeners = new ListenerBroadcast<StandardOutputListener>(StandardOutputListener.class);
     private final ListenerBroadcast<StandardOutputListener> stderrListeners = new ListenerBroadcast<StandardOutputListener>(StandardOutputListener.class);
+    private final Queue<OutputEvent> pendingEvents = new ConcurrentLinkedQueue<OutputEvent>();
+    private final AtomicBoolean draining = new AtomicBoolean();
 
     private ColorMap colourMap;
     private OutputStream originalStdOut;
@@ -121,6 +131,8 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
             // TODO - remove console from formatters
             if (snapshot.console != console) {
                 if (snapshot.console == null) {
+                    // Render what has been queued so far to the console before it is removed
+                    renderPendingEvents();
                     formatters.remove(console);
                     console.onOutput(new EndOutputEvent());
                     console = null;
@@ -330,11 +342,58 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
             }
             this.maxWorkerCount.set(newMaxWorkerCount);
         }
-        synchronized (lock) {
-            formatters.getSource().onOutput(event);
+        if (isControlEvent(event)) {
+            // Render control events synchronously, after everything queued before them, so that they have reached the listeners
+            // by the time this method returns
+            synchronized (lock) {
+                renderPendingEvents();
+                formatters.getSource().onOutput(event);
+            }
+            return;
+        }
+        pendingEvents.add(event);
+        drainPendingEvents();
+    }
+
+    private void drainPendingEvents() {
+        // Re-check the queue after releasing the drain flag, as a producer may have queued an event after the last poll
+        // but before the flag was released, and relied on this thread to render it
+        while (!pendingEvents.isEmpty() && draining.compareAndSet(false, true)) {
+            try {
+                synchronized (lock) {
+                    renderPendingEvents();
+                }
+            } finally {
+                draining.set(false);
+            }
         }
     }
 
+    /**
+     * Renders all queued events. A failure to render an event does not prevent the remaining events from being rendered. The first failure is rethrown once the queue is empty.
+     */
+    private void renderPendingEvents() {
+        OutputEventListener listener = formatters.getSource();
+        RuntimeException failure = null;
+        OutputEvent next;
+        while ((next = pendingEvents.poll()) != null) {
+            try {
+                listener.onOutput(next);
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private boolean isControlEvent(OutputEvent event) {
+        return event instanceof LogLevelChangeEvent || event instanceof MaxWorkerCountChangeEvent || event instanceof EndOutputEvent;
+    }
+
     private boolean isProgressEvent(OutputEvent event) {
         return event instanceof ProgressStartEvent || event instanceof ProgressEvent || event instanceof ProgressCompleteEvent;
     }
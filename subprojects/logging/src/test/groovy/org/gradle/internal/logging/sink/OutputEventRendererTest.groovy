@@ -22,6 +22,7 @@ import org.gradle.api.logging.StandardOutputListener
 import org.gradle.internal.logging.OutputSpecification
 import org.gradle.internal.logging.console.ConsoleStub
 import org.gradle.internal.logging.events.LogEvent
+import org.gradle.internal.logging.events.LogLevelChangeEvent
 import org.gradle.internal.logging.events.OutputEventListener
 import org.gradle.internal.nativeintegration.console.ConsoleMetaData
 import org.gradle.internal.progress.BuildOperationCategory
@@ -312,6 +313,96 @@ class OutputEventRendererTest extends OutputSpecification {
         console.buildOutputArea.toString().readLines() == ['10:00:00.000 [INFO] [category] info', '{error}10:00:00.000 [ERROR] [category] error', '{normal}']
     }
 
+    def rendersEventsFromEachProducerThreadInOrder() {
+        def received = Collections.synchronizedList([])
+        def listener = { e -> received << e.message } as OutputEventListener
+        def threads = 8
+        def eventsPerThread = 500
+
+        when:
+        renderer.addOutputEventListener(listener)
+        def workers = (0..<threads).collect { thread ->
+            Thread.start {
+                eventsPerThread.times { i ->
+                    renderer.onOutput(event("${thread}:${i}".toString(), LogLevel.INFO))
+                }
+            }
+        }
+        workers*.join()
+
+        then:
+        received.size() == threads * eventsPerThread
+        (0..<threads).every { thread ->
+            received.findAll { it.startsWith("${thread}:") } == (0..<eventsPerThread).collect { "${thread}:${it}" as String }
+        }
+    }
+
+    def rendersEventsGeneratedByListenerAfterCurrentEvent() {
+        def received = []
+        def listener = { e ->
+            received << e.message
+            if (e.message == 'outer') {
+                renderer.onOutput(event('nested', LogLevel.INFO))
+            }
+        } as OutputEventListener
+
+        when:
+        renderer.addOutputEventListener(listener)
+        renderer.onOutput(event('outer', LogLevel.INFO))
+        renderer.onOutput(event('next', LogLevel.INFO))
+
+        then:
+        received == ['outer', 'nested', 'next']
+    }
+
+    def rendersQueuedEventsBeforeControlEventAndBeforeReturning() {
+        def received = []
+        def receivedWhenConfigured = null
+        def listener = { e ->
+            received << (e instanceof LogLevelChangeEvent ? e.newLogLevel : e.message)
+            if (e instanceof LogEvent && e.message == 'outer') {
+                renderer.onOutput(event('queued', LogLevel.INFO))
+                renderer.configure(LogLevel.DEBUG)
+                receivedWhenConfigured = new ArrayList(received)
+            }
+        } as OutputEventListener
+
+        when:
+        renderer.addOutputEventListener(listener)
+        renderer.onOutput(event('outer', LogLevel.INFO))
+
+        then:
+        receivedWhenConfigured == ['outer', 'queued', LogLevel.DEBUG]
+        received == ['outer', 'queued', LogLevel.DEBUG]
+    }
+
+    def rendersRemainingQueuedEventsWhenListenerFails() {
+        def received = []
+        def failure = new RuntimeException("broken")
+        def listener = { e ->
+            received << e.message
+            if (e.message == 'outer') {
+                renderer.onOutput(event('queued', LogLevel.INFO))
+                throw failure
+            }
+        } as OutputEventListener
+        renderer.addOutputEventListener(listener)
+
+        when:
+        renderer.onOutput(event('outer', LogLevel.INFO))
+
+        then:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+        received == ['outer', 'queued']
+
+        when:
+        renderer.onOutput(event('next', LogLevel.INFO))
+
+        then:
+        received == ['outer', 'queued', 'next']
+    }
+
     def attachesConsoleWhenStdOutAndStdErrAreAttachedToConsole() {
         when:
         renderer.attachSystemOutAndErr()
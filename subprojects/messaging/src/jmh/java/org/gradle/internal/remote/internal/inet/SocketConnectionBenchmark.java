@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet;
+
+import org.gradle.api.Action;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.id.UUIDGenerator;
+import org.gradle.internal.remote.ConnectionAcceptor;
+import org.gradle.internal.remote.internal.ConnectCompletion;
+import org.gradle.internal.remote.internal.RemoteConnection;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Serializers;
+import org.gradle.internal.serialize.StatefulSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Measures message throughput and round trip latency of a {@link SocketConnection} over the loopback interface.
+ * Each invocation sends a batch of messages, flushes once, and waits for the peer to acknowledge the batch.
+ */
+@State(Scope.Benchmark)
+public class SocketConnectionBenchmark {
+    private static final int BATCH_SIZE = 100;
+    private static final byte[] ACK = new byte[0];
+
+    @Param({"64", "4096", "262144"})
+    int messageSize;
+
+    private final StatefulSerializer<byte[]> serializer = Serializers.stateful(BaseSerializerFactory.BYTE_ARRAY_SERIALIZER);
+    private final BlockingQueue<RemoteConnection<byte[]>> accepted = new LinkedBlockingQueue<RemoteConnection<byte[]>>();
+    private DefaultExecutorFactory executorFactory;
+    private ConnectionAcceptor acceptor;
+    private RemoteConnection<byte[]> client;
+    private RemoteConnection<byte[]> server;
+    private Thread echo;
+    private byte[] message;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        executorFactory = new DefaultExecutorFactory();
+        TcpIncomingConnector incomingConnector = new TcpIncomingConnector(executorFactory, new InetAddressFactory(), new UUIDGenerator());
+        acceptor = incomingConnector.accept(new Action<ConnectCompletion>() {
+            @Override
+            public void execute(ConnectCompletion completion) {
+                accepted.add(completion.create(serializer));
+            }
+        }, false);
+        client = new TcpOutgoingConnector().connect(acceptor.getAddress()).create(serializer);
+        server = accepted.take();
+        echo = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (true) {
+                    for (int i = 0; i < BATCH_SIZE; i++) {
+                        if (server.receive() == null) {
+                            return;
+                        }
+                    }
+                    server.dispatch(ACK);
+                    server.flush();
+                }
+            }
+        });
+        echo.start();
+        message = new byte[messageSize];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        client.stop();
+        echo.join();
+        server.stop();
+        acceptor.stop();
+        executorFactory.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public byte[] sendBatch() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            client.dispatch(message);
+        }
+        client.flush();
+        return client.receive();
+    }
+}
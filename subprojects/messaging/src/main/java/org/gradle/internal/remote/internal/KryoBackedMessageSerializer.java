@@ -25,13 +25,18 @@ import java.io.InputStream;
 import java.io.OutputStream;
 
 public class KryoBackedMessageSerializer implements MessageSerializer {
+    /**
+     * Large enough that a batch of messages is handed to the stream in a few large calls rather than many small ones.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     @Override
     public Decoder newDecoder(InputStream inputStream) {
-        return new KryoBackedDecoder(inputStream);
+        return new KryoBackedDecoder(inputStream, BUFFER_SIZE);
     }
 
     @Override
     public FlushableEncoder newEncoder(OutputStream outputStream) {
-        return new KryoBackedEncoder(outputStream);
+        return new KryoBackedEncoder(outputStream, BUFFER_SIZE);
     }
 }
@@ -40,6 +40,11 @@ import java.nio.channels.SocketChannel;
 
 public class SocketConnection<T> implements RemoteConnection<T> {
     private static final Logger LOGGER = LoggerFactory.getLogger(SocketConnection.class);
+    /**
+     * The size of the direct buffers that each connection allocates once and reads and writes all data through, in chunks.
+     * Passing heap arrays to the channel directly would not avoid a copy, as the JDK copies them through a temporary direct buffer.
+     */
+    private static final int BUFFER_SIZE = 32 * 1024;
     private final SocketChannel socket;
     private final SocketInetAddress localAddress;
     private final SocketInetAddress remoteAddress;
@@ -154,7 +159,7 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             this.socket = socket;
             selector = Selector.open();
             socket.register(selector, SelectionKey.OP_READ);
-            buffer = ByteBuffer.allocateDirect(4096);
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
             buffer.limit(0);
         }
 
@@ -222,7 +227,7 @@ public class SocketConnection<T> implements RemoteConnection<T> {
 
         public SocketOutputStream(SocketChannel socket) throws IOException {
             this.socket = socket;
-            buffer = ByteBuffer.allocateDirect(32 * 1024);
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
         }
 
         @Override
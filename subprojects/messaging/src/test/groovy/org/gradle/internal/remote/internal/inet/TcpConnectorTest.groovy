@@ -280,6 +280,29 @@ class TcpConnectorTest extends ConcurrentSpec {
         acceptor?.stop()
     }
 
+    def "can exchange a mix of small and large messages"() {
+        def messages = ["small", "a" * 5000, "b" * 100000, "", "c" * 65536, "d" * 32768, "last"]
+
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion event ->
+            def connection = event.create(serializer)
+            messages.each { connection.dispatch(it) }
+            connection.flush()
+            connection.stop()
+        } as Action, false)
+
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+        def received = messages.collect { connection.receive() }
+
+        then:
+        received == messages
+        connection.receive() == null
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
     @Issue("GRADLE-2316")
     def "detects self connect when outgoing connection binds to same port"() {
         given:
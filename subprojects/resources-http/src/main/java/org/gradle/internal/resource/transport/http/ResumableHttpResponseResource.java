@@ -0,0 +1,199 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.utils.HttpClientUtils;
+import org.gradle.internal.IoActions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+/**
+ * The response to a GET request, whose content continues to be read with a range request when the connection fails part way through the content.
+ *
+ * <p>The remaining content is only requested when the response has a validator, and is only used when the server confirms with a partial
+ * response that it belongs to the same version of the resource. Otherwise the original failure is propagated.</p>
+ *
+ * <p>Ranges address the bytes of the encoded content, whereas the stream returns decoded content. So the content is only resumed when neither the
+ * original response nor the partial response have a content encoding other than {@code identity}.</p>
+ */
+class ResumableHttpResponseResource extends HttpResponseResource {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResumableHttpResponseResource.class);
+    static final int MAX_RESUME_ATTEMPTS = 3;
+
+    private final HttpClientHelper http;
+    private final CloseableHttpResponse response;
+
+    ResumableHttpResponseResource(HttpClientHelper http, URI source, CloseableHttpResponse response) {
+        super("GET", source, response);
+        this.http = http;
+        this.response = response;
+    }
+
+    @Override
+    public InputStream openStream() throws IOException {
+        InputStream content = super.openStream();
+        String validator = getValidator();
+        if (validator == null || !hasIdentityEncoding(response)) {
+            return content;
+        }
+        return new ResumingInputStream(content, validator);
+    }
+
+    private String getValidator() {
+        String etag = getMetaData().getEtag();
+        // Weak validators cannot be used to combine ranges
+        if (etag != null && !etag.startsWith("W/")) {
+            return etag;
+        }
+        return getHeaderValue(HttpHeaders.LAST_MODIFIED);
+    }
+
+    private class ResumingInputStream extends InputStream {
+        private final String validator;
+        private InputStream delegate;
+        private CloseableHttpResponse resumedResponse;
+        private long position;
+        private int resumeAttempts;
+
+        ResumingInputStream(InputStream delegate, String validator) {
+            this.delegate = delegate;
+            this.validator = validator;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] buffer = new byte[1];
+            int count = read(buffer, 0, 1);
+            return count < 0 ? -1 : buffer[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            while (true) {
+                try {
+                    int count = delegate.read(b, off, len);
+                    if (count > 0) {
+                        position += count;
+                    }
+                    return count;
+                } catch (IOException e) {
+                    if (!resume(e)) {
+                        throw e;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public int available() throws IOException {
+            return delegate.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                delegate.close();
+            } finally {
+                HttpClientUtils.closeQuietly(resumedResponse);
+            }
+        }
+
+        private boolean resume(IOException failure) {
+            if (resumeAttempts >= MAX_RESUME_ATTEMPTS) {
+                return false;
+            }
+            resumeAttempts++;
+            IoActions.closeQuietly(delegate);
+            HttpClientUtils.closeQuietly(resumedResponse);
+            resumedResponse = null;
+
+            LOGGER.info("Resuming download of {} at byte {} after failure: {}", getURI(), position, failure.getMessage());
+            HttpGet request = new HttpGet(getURI());
+            request.addHeader(HttpHeaders.RANGE, "bytes=" + position + "-");
+            request.addHeader(HttpHeaders.IF_RANGE, validator);
+            CloseableHttpResponse response;
+            try {
+                response = http.performHttpRequest(request);
+            } catch (IOException e) {
+                LOGGER.debug("Could not resume download of {}.", getURI(), e);
+                return false;
+            }
+            HttpEntity entity = response.getEntity();
+            if (response.getStatusLine().getStatusCode() != HttpStatus.SC_PARTIAL_CONTENT || !startsAt(response, position) || entity == null) {
+                LOGGER.info("Could not resume download of {}. Received status code {} from server.", getURI(), response.getStatusLine().getStatusCode());
+                HttpClientUtils.closeQuietly(response);
+                return false;
+            }
+            if (!hasIdentityEncoding(response)) {
+                LOGGER.info("Could not resume download of {}. Received partial content with a content encoding from server.", getURI());
+                HttpClientUtils.closeQuietly(response);
+                return false;
+            }
+            try {
+                delegate = entity.getContent();
+            } catch (IOException e) {
+                HttpClientUtils.closeQuietly(response);
+                return false;
+            }
+            resumedResponse = response;
+            return true;
+        }
+    }
+
+    private static boolean hasIdentityEncoding(HttpResponse response) {
+        // The client may have decoded the content already and removed the header, but the entity still carries the encoding
+        HttpEntity entity = response.getEntity();
+        return isIdentity(response.getFirstHeader(HttpHeaders.CONTENT_ENCODING)) && (entity == null || isIdentity(entity.getContentEncoding()));
+    }
+
+    private static boolean isIdentity(Header contentEncoding) {
+        if (contentEncoding == null) {
+            return true;
+        }
+        String value = contentEncoding.getValue().trim();
+        return value.length() == 0 || value.equalsIgnoreCase("identity");
+    }
+
+    private static boolean startsAt(CloseableHttpResponse response, long position) {
+        // Content-Range: bytes <first>-<last>/<length>
+        Header header = response.getFirstHeader(HttpHeaders.CONTENT_RANGE);
+        if (header == null || !header.getValue().startsWith("bytes ")) {
+            return false;
+        }
+        String range = header.getValue().substring("bytes ".length());
+        int separator = range.indexOf('-');
+        if (separator < 0) {
+            return false;
+        }
+        try {
+            return Long.parseLong(range.substring(0, separator).trim()) == position;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http
+
+import org.apache.http.HttpHeaders
+import org.apache.http.ProtocolVersion
+import org.apache.http.client.methods.CloseableHttpResponse
+import org.apache.http.client.methods.HttpGet
+import org.apache.http.entity.InputStreamEntity
+import org.apache.http.message.BasicHeader
+import org.apache.http.message.BasicStatusLine
+import spock.lang.Specification
+
+class ResumableHttpResponseResourceTest extends Specification {
+    def sourceUrl = new URI("http://gradle.org/some.jar")
+    def http = Mock(HttpClientHelper)
+    def response = Mock(CloseableHttpResponse)
+
+    def "continues reading with a range request when the connection fails"() {
+        given:
+        def resumed = Mock(CloseableHttpResponse)
+        response(response, 200, failingAfter("abc"), [(HttpHeaders.ETAG): '"123"'])
+        response(resumed, 206, new ByteArrayInputStream("def".bytes), [(HttpHeaders.CONTENT_RANGE): "bytes 3-5/6"])
+
+        when:
+        def text = resource().openStream().text
+
+        then:
+        text == "abcdef"
+        1 * http.performHttpRequest({ HttpGet request ->
+            request.getFirstHeader(HttpHeaders.RANGE).value == "bytes=3-" && request.getFirstHeader(HttpHeaders.IF_RANGE).value == '"123"'
+        }) >> resumed
+    }
+
+    def "uses last modified date as validator when there is no strong etag"() {
+        given:
+        def resumed = Mock(CloseableHttpResponse)
+        response(response, 200, failingAfter("abc"), [(HttpHeaders.ETAG): 'W/"123"', (HttpHeaders.LAST_MODIFIED): "Wed, 21 Oct 2015 07:28:00 GMT"])
+        response(resumed, 206, new ByteArrayInputStream("def".bytes), [(HttpHeaders.CONTENT_RANGE): "bytes 3-5/6"])
+
+        when:
+        def text = resource().openStream().text
+
+        then:
+        text == "abcdef"
+        1 * http.performHttpRequest({ HttpGet request -> request.getFirstHeader(HttpHeaders.IF_RANGE).value == "Wed, 21 Oct 2015 07:28:00 GMT" }) >> resumed
+    }
+
+    def "propagates failure when server does not return the remaining content"() {
+        given:
+        def resumed = Mock(CloseableHttpResponse)
+        response(response, 200, failingAfter("abc"), [(HttpHeaders.ETAG): '"123"'])
+        response(resumed, 200, new ByteArrayInputStream("abcdef".bytes), [:])
+
+        when:
+        resource().openStream().text
+
+        then:
+        def e = thrown(IOException)
+        e.message == "connection reset"
+        1 * http.performHttpRequest(_) >> resumed
+        1 * resumed.close()
+    }
+
+    def "does not resume when response has no validator"() {
+        given:
+        response(response, 200, failingAfter("abc"), [:])
+
+        when:
+        resource().openStream().text
+
+        then:
+        def e = thrown(IOException)
+        e.message == "connection reset"
+        0 * http._
+    }
+
+    def "does not resume when response has a content encoding"() {
+        given:
+        response(response, 200, failingAfter("abc"), [(HttpHeaders.ETAG): '"123"', (HttpHeaders.CONTENT_ENCODING): "gzip"])
+
+        when:
+        resource().openStream().text
+
+        then:
+        def e = thrown(IOException)
+        e.message == "connection reset"
+        0 * http._
+    }
+
+    def "does not resume when content of response has been decoded by the client"() {
+        given:
+        def entity = new InputStreamEntity(failingAfter("abc"))
+        entity.contentEncoding = "gzip"
+        _ * response.getStatusLine() >> new BasicStatusLine(new ProtocolVersion("HTTP", 1, 1), 200, "")
+        _ * response.getEntity() >> entity
+        _ * response.getFirstHeader(_) >> { String name -> name == HttpHeaders.ETAG ? new BasicHeader(name, '"123"') : null }
+
+        when:
+        resource().openStream().text
+
+        then:
+        def e = thrown(IOException)
+        e.message == "connection reset"
+        0 * http._
+    }
+
+    def "resumes when response has identity content encoding"() {
+        given:
+        def resumed = Mock(CloseableHttpResponse)
+        response(response, 200, failingAfter("abc"), [(HttpHeaders.ETAG): '"123"', (HttpHeaders.CONTENT_ENCODING): "identity"])
+        response(resumed, 206, new ByteArrayInputStream("def".bytes), [(HttpHeaders.CONTENT_RANGE): "bytes 3-5/6"])
+
+        when:
+        def text = resource().openStream().text
+
+        then:
+        text == "abcdef"
+        1 * http.performHttpRequest(_) >> resumed
+    }
+
+    def "propagates failure when partial content has a content encoding"() {
+        given:
+        def resumed = Mock(CloseableHttpResponse)
+        response(response, 200, failingAfter("abc"), [(HttpHeaders.ETAG): '"123"'])
+        response(resumed, 206, new ByteArrayInputStream("def".bytes), [(HttpHeaders.CONTENT_RANGE): "bytes 3-5/6", (HttpHeaders.CONTENT_ENCODING): "gzip"])
+
+        when:
+        resource().openStream().text
+
+        then:
+        def e = thrown(IOException)
+        e.message == "connection reset"
+        1 * http.performHttpRequest(_) >> resumed
+        1 * resumed.close()
+    }
+
+    def "gives up after too many attempts"() {
+        given:
+        response(response, 200, failingAfter("a"), [(HttpHeaders.ETAG): '"123"'])
+        def resumed = (1..ResumableHttpResponseResource.MAX_RESUME_ATTEMPTS).collect { position ->
+            def resumed = Mock(CloseableHttpResponse)
+            response(resumed, 206, failingAfter("b"), [(HttpHeaders.CONTENT_RANGE): "bytes ${position}-5/6".toString()])
+            resumed
+        }
+
+        when:
+        resource().openStream().text
+
+        then:
+        def e = thrown(IOException)
+        e.message == "connection reset"
+        ResumableHttpResponseResource.MAX_RESUME_ATTEMPTS * http.performHttpRequest(_) >>> resumed
+    }
+
+    ResumableHttpResponseResource resource() {
+        new ResumableHttpResponseResource(http, sourceUrl, response)
+    }
+
+    void response(CloseableHttpResponse response, int statusCode, InputStream content, Map<String, String> headers) {
+        interaction {
+            _ * response.getStatusLine() >> new BasicStatusLine(new ProtocolVersion("HTTP", 1, 1), statusCode, "")
+            _ * response.getEntity() >> new InputStreamEntity(content)
+            _ * response.getFirstHeader(_) >> { String name -> headers.containsKey(name) ? new BasicHeader(name, headers[name]) : null }
+        }
+    }
+
+    InputStream failingAfter(String text) {
+        def bytes = new ByteArrayInputStream(text.bytes)
+        return new InputStream() {
+            @Override
+            int read() throws IOException {
+                int b = bytes.read()
+                if (b < 0) {
+                    throw new IOException("connection reset")
+                }
+                return b
+            }
+        }
+    }
+}
@@ -130,6 +130,51 @@ class WorkerExecutorIntegrationTest extends AbstractWorkerExecutorIntegrationTes
         assertSameDaemonWasUsed("runInDaemon", "reuseDaemon")
     }
 
+    def "re-uses a worker daemon started by a previous build"() {
+        executer.requireDaemon().requireIsolatedDaemons()
+        executer.withWorkerDaemonsExpirationDisabled()
+        withRunnableClassInBuildSrc()
+
+        buildFile << """
+            task runInDaemon(type: WorkerTask) {
+                isolationMode = IsolationMode.PROCESS
+            }
+        """
+
+        when:
+        succeeds("runInDaemon")
+        def firstBuildIds = list.collect { outputFileDir.file("runInDaemon").file(it).text }
+        executer.requireDaemon().requireIsolatedDaemons()
+        executer.withWorkerDaemonsExpirationDisabled()
+        succeeds("runInDaemon")
+
+        then:
+        list.collect { outputFileDir.file("runInDaemon").file(it).text } == firstBuildIds
+    }
+
+    def "does not re-use a worker daemon started by a previous build when the content of its classpath has changed"() {
+        executer.requireDaemon().requireIsolatedDaemons()
+        executer.withWorkerDaemonsExpirationDisabled()
+        withRunnableClassInBuildSrc()
+
+        buildFile << """
+            task runInDaemon(type: WorkerTask) {
+                isolationMode = IsolationMode.PROCESS
+            }
+        """
+
+        when:
+        succeeds("runInDaemon")
+        def firstBuildIds = list.collect { outputFileDir.file("runInDaemon").file(it).text }
+        file("buildSrc/src/main/java/AnotherClass.java") << "public class AnotherClass { }"
+        executer.requireDaemon().requireIsolatedDaemons()
+        executer.withWorkerDaemonsExpirationDisabled()
+        succeeds("runInDaemon")
+
+        then:
+        list.collect { outputFileDir.file("runInDaemon").file(it).text }.every { !firstBuildIds.contains(it) }
+    }
+
     def "starts a new worker daemon when existing worker daemons are incompatible"() {
         withRunnableClassInBuildSrc()
 
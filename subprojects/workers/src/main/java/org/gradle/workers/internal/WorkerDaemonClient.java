@@ -16,47 +16,45 @@
 
 package org.gradle.workers.internal;
 
+import com.google.common.hash.HashCode;
+import org.gradle.api.logging.LogLevel;
+import org.gradle.internal.classloader.ClasspathHasher;
+import org.gradle.internal.classpath.DefaultClassPath;
 import org.gradle.internal.concurrent.Stoppable;
-import org.gradle.internal.operations.BuildOperationContext;
-import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.progress.BuildOperationState;
-import org.gradle.internal.operations.CallableBuildOperation;
-import org.gradle.internal.progress.BuildOperationDescriptor;
 import org.gradle.internal.work.WorkerLeaseRegistry.WorkerLease;
 import org.gradle.internal.work.WorkerLeaseRegistry.WorkerLeaseCompletion;
 import org.gradle.process.internal.health.memory.JvmMemoryStatus;
 import org.gradle.process.internal.worker.WorkerProcess;
 
+/**
+ * A client for a worker daemon. Clients are pooled and may be reused by several builds, so a client does not hold on to any build scoped state.
+ * A client remembers the hash of the content of the classpath its daemon was started with, so that it is not reused once that content has changed.
+ */
 class WorkerDaemonClient<T extends WorkSpec> implements Worker<T>, Stoppable {
+    private final Class<? extends WorkerProtocol<T>> workerImplementationClass;
+    private final LogLevel logLevel;
     private final DaemonForkOptions forkOptions;
+    private final HashCode classpathHash;
     private final WorkerDaemonProcess<T> workerDaemonProcess;
     private final WorkerProcess workerProcess;
-    private final BuildOperationExecutor buildOperationExecutor;
-    private int uses;
+    private volatile int uses;
+    private volatile boolean failed;
 
-    public WorkerDaemonClient(DaemonForkOptions forkOptions, WorkerDaemonProcess<T> workerDaemonProcess, WorkerProcess workerProcess, BuildOperationExecutor buildOperationExecutor) {
+    public WorkerDaemonClient(Class<? extends WorkerProtocol<T>> workerImplementationClass, LogLevel logLevel, DaemonForkOptions forkOptions, HashCode classpathHash, WorkerDaemonProcess<T> workerDaemonProcess, WorkerProcess workerProcess) {
+        this.workerImplementationClass = workerImplementationClass;
+        this.logLevel = logLevel;
         this.forkOptions = forkOptions;
+        this.classpathHash = classpathHash;
         this.workerDaemonProcess = workerDaemonProcess;
         this.workerProcess = workerProcess;
-        this.buildOperationExecutor = buildOperationExecutor;
     }
 
     @Override
-    public DefaultWorkResult execute(final T spec, WorkerLease parentWorkerWorkerLease, final BuildOperationState parentBuildOperation) {
+    public DefaultWorkResult execute(T spec, WorkerLease parentWorkerWorkerLease, BuildOperationState parentBuildOperation) {
         WorkerLeaseCompletion workerLease = parentWorkerWorkerLease.startChild();
         try {
-            return buildOperationExecutor.call(new CallableBuildOperation<DefaultWorkResult>() {
-                @Override
-                public DefaultWorkResult call(BuildOperationContext context) {
-                    uses++;
-                    return workerDaemonProcess.execute(spec);
-                }
-
-                @Override
-                public BuildOperationDescriptor.Builder description() {
-                    return BuildOperationDescriptor.displayName(spec.getDisplayName()).parent(parentBuildOperation);
-                }
-            });
+            return execute(spec);
         } finally {
             workerLease.leaseFinish();
         }
@@ -64,11 +62,32 @@ class WorkerDaemonClient<T extends WorkSpec> implements Worker<T>, Stoppable {
 
     @Override
     public DefaultWorkResult execute(T spec) {
-        throw new UnsupportedOperationException();
+        uses++;
+        try {
+            return workerDaemonProcess.execute(spec);
+        } catch (RuntimeException e) {
+            // The worker daemon reports failures of the work as a result, so this is a failure of the daemon process or of the connection to it
+            failed = true;
+            throw e;
+        }
+    }
+
+    public boolean isCompatibleWith(Class<?> requiredWorkerImplementationClass, LogLevel requiredLogLevel, DaemonForkOptions required) {
+        return workerImplementationClass.equals(requiredWorkerImplementationClass) && logLevel == requiredLogLevel && forkOptions.isCompatibleWith(required);
+    }
+
+    /**
+     * Returns true when the content of the classpath of this client's daemon is still the same as when the daemon was started.
+     */
+    public boolean isClasspathUpToDate(ClasspathHasher classpathHasher) {
+        return classpathHash.equals(classpathHasher.hash(new DefaultClassPath(forkOptions.getClasspath())));
     }
 
-    public boolean isCompatibleWith(DaemonForkOptions required) {
-        return forkOptions.isCompatibleWith(required);
+    /**
+     * Returns true when this client can be handed out again.
+     */
+    public boolean isHealthy() {
+        return !failed;
     }
 
     JvmMemoryStatus getJvmMemoryStatus() {
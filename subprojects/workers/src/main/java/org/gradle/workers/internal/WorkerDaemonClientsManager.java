@@ -17,9 +17,14 @@
 package org.gradle.workers.internal;
 
 import org.gradle.api.Transformer;
+import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.internal.classloader.ClasspathHasher;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.process.internal.health.memory.MemoryManager;
+import org.gradle.process.internal.health.memory.TotalPhysicalMemoryProvider;
 import org.gradle.util.CollectionUtils;
 
 import java.io.File;
@@ -28,7 +33,11 @@ import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 
-public class WorkerDaemonClientsManager {
+/**
+ * The pool of worker daemons. The pool lives as long as the build process, so that the worker daemons can be reused by later builds.
+ * An idle daemon is only reused while the content of its classpath is unchanged, and is stopped otherwise.
+ */
+public class WorkerDaemonClientsManager implements Stoppable {
 
     private static final Logger LOGGER = Logging.getLogger(WorkerDaemonFactory.class);
 
@@ -36,23 +45,39 @@ public class WorkerDaemonClientsManager {
     private final List<WorkerDaemonClient> allClients = new ArrayList<WorkerDaemonClient>();
     private final List<WorkerDaemonClient> idleClients = new ArrayList<WorkerDaemonClient>();
 
-    private WorkerDaemonStarter workerDaemonStarter;
+    private final MemoryManager memoryManager;
+    private final WorkerDaemonExpiration workerDaemonExpiration;
 
-    public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter) {
-        this.workerDaemonStarter = workerDaemonStarter;
+    public WorkerDaemonClientsManager(MemoryManager memoryManager) {
+        this.memoryManager = memoryManager;
+        this.workerDaemonExpiration = new WorkerDaemonExpiration(this, getTotalPhysicalMemory());
+        memoryManager.addMemoryHolder(workerDaemonExpiration);
     }
 
-    // TODO - should supply and check for the same parameters as passed to reserveNewClient()
-    public <T extends WorkSpec> WorkerDaemonClient<T> reserveIdleClient(DaemonForkOptions forkOptions) {
-        return reserveIdleClient(forkOptions, idleClients);
+    public <T extends WorkSpec> WorkerDaemonClient<T> reserveIdleClient(Class<? extends WorkerProtocol<T>> workerProtocolImplementationClass, LogLevel logLevel, DaemonForkOptions forkOptions, ClasspathHasher classpathHasher) {
+        while (true) {
+            WorkerDaemonClient<T> candidate = reserveIdleClient(workerProtocolImplementationClass, logLevel, forkOptions, idleClients);
+            if (candidate == null) {
+                return null;
+            }
+            // Hash outside of the lock, the hasher may need to read the classpath
+            if (candidate.isClasspathUpToDate(classpathHasher)) {
+                return candidate;
+            }
+            synchronized (lock) {
+                allClients.remove(candidate);
+            }
+            LOGGER.info("Stopping worker daemon as the content of its classpath has changed.");
+            candidate.stop();
+        }
     }
 
-    WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, List<WorkerDaemonClient> clients) {
+    WorkerDaemonClient reserveIdleClient(Class<?> workerProtocolImplementationClass, LogLevel logLevel, DaemonForkOptions forkOptions, List<WorkerDaemonClient> clients) {
         synchronized (lock) {
             Iterator<WorkerDaemonClient> it = clients.iterator();
             while (it.hasNext()) {
                 WorkerDaemonClient candidate = it.next();
-                if (candidate.isCompatibleWith(forkOptions)) {
+                if (candidate.isCompatibleWith(workerProtocolImplementationClass, logLevel, forkOptions)) {
                     it.remove();
                     return candidate;
                 }
@@ -61,28 +86,42 @@ public class WorkerDaemonClientsManager {
         }
     }
 
-    public <T extends WorkSpec> WorkerDaemonClient<T> reserveNewClient(Class<? extends WorkerProtocol<T>> workerProtocolImplementationClass, File workingDir, DaemonForkOptions forkOptions) {
+    public <T extends WorkSpec> WorkerDaemonClient<T> reserveNewClient(WorkerDaemonStarter workerDaemonStarter, Class<? extends WorkerProtocol<T>> workerProtocolImplementationClass, File workingDir, DaemonForkOptions forkOptions) {
         //allow the daemon to be started concurrently
-        WorkerDaemonClient client = workerDaemonStarter.startDaemon(workerProtocolImplementationClass, workingDir, forkOptions);
+        WorkerDaemonClient<T> client = workerDaemonStarter.startDaemon(workerProtocolImplementationClass, workingDir, forkOptions);
         synchronized (lock) {
             allClients.add(client);
         }
         return client;
     }
 
+    /**
+     * Returns a reserved client to the pool. A client that is no longer healthy is stopped instead, so that it is not handed out again.
+     */
     public void release(WorkerDaemonClient client) {
+        if (client.isHealthy()) {
+            synchronized (lock) {
+                idleClients.add(client);
+            }
+            return;
+        }
         synchronized (lock) {
-            idleClients.add(client);
+            allClients.remove(client);
         }
+        LOGGER.info("Stopping unhealthy worker daemon.");
+        client.stop();
     }
 
+    @Override
     public void stop() {
         synchronized (lock) {
             LOGGER.debug("Stopping {} worker daemon(s).", allClients.size());
             CompositeStoppable.stoppable(allClients).stop();
             LOGGER.info("Stopped {} worker daemon(s).", allClients.size());
             allClients.clear();
+            idleClients.clear();
         }
+        memoryManager.removeMemoryHolder(workerDaemonExpiration);
     }
 
     /**
@@ -108,4 +147,12 @@ public class WorkerDaemonClientsManager {
             }
         }
     }
+
+    private static long getTotalPhysicalMemory() {
+        try {
+            return TotalPhysicalMemoryProvider.getTotalPhysicalMemory();
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
 }
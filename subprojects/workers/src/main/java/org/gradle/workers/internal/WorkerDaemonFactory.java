@@ -17,48 +17,60 @@
 package org.gradle.workers.internal;
 
 import net.jcip.annotations.ThreadSafe;
-import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.classloader.ClasspathHasher;
+import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.CallableBuildOperation;
+import org.gradle.internal.progress.BuildOperationDescriptor;
 import org.gradle.internal.progress.BuildOperationState;
 import org.gradle.internal.work.WorkerLeaseRegistry;
 import org.gradle.internal.work.WorkerLeaseRegistry.WorkerLease;
-import org.gradle.process.internal.health.memory.MemoryManager;
-import org.gradle.process.internal.health.memory.TotalPhysicalMemoryProvider;
 import org.gradle.process.internal.worker.child.WorkerDirectoryProvider;
 import org.gradle.workers.IsolationMode;
 
 /**
- * Controls the lifecycle of the worker daemon and provides access to it.
+ * Provides access to the worker daemons of the build process. Worker daemons are started on demand and returned to the pool after use,
+ * so that later work, including the work of later builds, can reuse them.
  */
 @ThreadSafe
-public class WorkerDaemonFactory implements WorkerFactory, Stoppable {
+public class WorkerDaemonFactory implements WorkerFactory {
     private final WorkerDaemonClientsManager clientsManager;
-    private final MemoryManager memoryManager;
-    private final WorkerDaemonExpiration workerDaemonExpiration;
+    private final WorkerDaemonStarter workerDaemonStarter;
     private final WorkerLeaseRegistry workerLeaseRegistry;
     private final BuildOperationExecutor buildOperationExecutor;
     private final WorkerDirectoryProvider workerDirectoryProvider;
+    private final ClasspathHasher classpathHasher;
 
-    public WorkerDaemonFactory(WorkerDaemonClientsManager clientsManager, MemoryManager memoryManager, WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor, WorkerDirectoryProvider workerDirectoryProvider) {
+    public WorkerDaemonFactory(WorkerDaemonClientsManager clientsManager, WorkerDaemonStarter workerDaemonStarter, WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor, WorkerDirectoryProvider workerDirectoryProvider, ClasspathHasher classpathHasher) {
         this.clientsManager = clientsManager;
-        this.memoryManager = memoryManager;
-        this.workerDaemonExpiration = new WorkerDaemonExpiration(clientsManager, getTotalPhysicalMemory());
-        memoryManager.addMemoryHolder(workerDaemonExpiration);
+        this.workerDaemonStarter = workerDaemonStarter;
         this.workerLeaseRegistry = workerLeaseRegistry;
         this.buildOperationExecutor = buildOperationExecutor;
         this.workerDirectoryProvider = workerDirectoryProvider;
+        this.classpathHasher = classpathHasher;
     }
 
     @Override
     public <T extends WorkSpec> Worker<T> getWorker(final Class<? extends WorkerProtocol<T>> workerImplementationClass, final DaemonForkOptions forkOptions) {
         return new Worker<T>() {
-            public DefaultWorkResult execute(T spec, WorkerLease parentWorkerWorkerLease, BuildOperationState parentBuildOperation) {
-                WorkerDaemonClient<T> client = clientsManager.reserveIdleClient(forkOptions);
-                if (client == null) {
-                    client = clientsManager.reserveNewClient(workerImplementationClass, workerDirectoryProvider.getIdleWorkingDirectory(), forkOptions);
+            public DefaultWorkResult execute(final T spec, final WorkerLease parentWorkerWorkerLease, final BuildOperationState parentBuildOperation) {
+                WorkerDaemonClient<T> reservedClient = clientsManager.reserveIdleClient(workerImplementationClass, workerDaemonStarter.getLogLevel(), forkOptions, classpathHasher);
+                if (reservedClient == null) {
+                    reservedClient = clientsManager.reserveNewClient(workerDaemonStarter, workerImplementationClass, workerDirectoryProvider.getIdleWorkingDirectory(), forkOptions);
                 }
+                final WorkerDaemonClient<T> client = reservedClient;
                 try {
-                    return client.execute(spec, parentWorkerWorkerLease, parentBuildOperation);
+                    return buildOperationExecutor.call(new CallableBuildOperation<DefaultWorkResult>() {
+                        @Override
+                        public DefaultWorkResult call(BuildOperationContext context) {
+                            return client.execute(spec, parentWorkerWorkerLease, parentBuildOperation);
+                        }
+
+                        @Override
+                        public BuildOperationDescriptor.Builder description() {
+                            return BuildOperationDescriptor.displayName(spec.getDisplayName()).parent(parentBuildOperation);
+                        }
+                    });
                 } finally {
                     clientsManager.release(client);
                 }
@@ -75,18 +87,4 @@ public class WorkerDaemonFactory implements WorkerFactory, Stoppable {
     public IsolationMode getIsolationMode() {
         return IsolationMode.PROCESS;
     }
-
-    @Override
-    public void stop() {
-        clientsManager.stop();
-        memoryManager.removeMemoryHolder(workerDaemonExpiration);
-    }
-
-    private static long getTotalPhysicalMemory() {
-        try {
-            return TotalPhysicalMemoryProvider.getTotalPhysicalMemory();
-        } catch (UnsupportedOperationException e) {
-            return -1;
-        }
-    }
 }
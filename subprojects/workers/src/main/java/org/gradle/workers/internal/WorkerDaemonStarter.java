@@ -16,10 +16,13 @@
 
 package org.gradle.workers.internal;
 
+import com.google.common.hash.HashCode;
 import org.gradle.StartParameter;
+import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
-import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.classloader.ClasspathHasher;
+import org.gradle.internal.classpath.DefaultClassPath;
 import org.gradle.internal.time.Timer;
 import org.gradle.internal.time.Timers;
 import org.gradle.process.internal.JavaExecHandleBuilder;
@@ -33,20 +36,28 @@ public class WorkerDaemonStarter {
     private final static Logger LOG = Logging.getLogger(WorkerDaemonStarter.class);
     private final WorkerProcessFactory workerDaemonProcessFactory;
     private final StartParameter startParameter;
-    private final BuildOperationExecutor buildOperationExecutor;
+    private final ClasspathHasher classpathHasher;
 
-    public WorkerDaemonStarter(WorkerProcessFactory workerDaemonProcessFactory, StartParameter startParameter, BuildOperationExecutor buildOperationExecutor) {
+    public WorkerDaemonStarter(WorkerProcessFactory workerDaemonProcessFactory, StartParameter startParameter, ClasspathHasher classpathHasher) {
         this.workerDaemonProcessFactory = workerDaemonProcessFactory;
         this.startParameter = startParameter;
-        this.buildOperationExecutor = buildOperationExecutor;
+        this.classpathHasher = classpathHasher;
+    }
+
+    /**
+     * The log level of the daemons started by this starter.
+     */
+    public LogLevel getLogLevel() {
+        return startParameter.getLogLevel();
     }
 
     public <T extends WorkSpec> WorkerDaemonClient<T> startDaemon(Class<? extends WorkerProtocol<T>> workerProtocolImplementationClass, File workingDir, DaemonForkOptions forkOptions) {
         LOG.debug("Starting Gradle worker daemon with fork options {}.", forkOptions);
         Timer clock = Timers.startTimer();
+        HashCode classpathHash = classpathHasher.hash(new DefaultClassPath(forkOptions.getClasspath()));
         MultiRequestWorkerProcessBuilder<WorkerDaemonProcess> builder = workerDaemonProcessFactory.multiRequestWorker(WorkerDaemonProcess.class, WorkerProtocol.class, workerProtocolImplementationClass);
         builder.setBaseName("Gradle Worker Daemon");
-        builder.setLogLevel(startParameter.getLogLevel()); // NOTE: might make sense to respect per-compile-task log level
+        builder.setLogLevel(getLogLevel()); // NOTE: might make sense to respect per-compile-task log level
         builder.applicationClasspath(forkOptions.getClasspath());
         builder.sharedPackages(forkOptions.getSharedPackages());
         JavaExecHandleBuilder javaCommand = builder.getJavaCommand();
@@ -57,7 +68,7 @@ public class WorkerDaemonStarter {
         WorkerDaemonProcess workerDaemonProcess = builder.build();
         WorkerProcess workerProcess = workerDaemonProcess.start();
 
-        WorkerDaemonClient<T> client = new WorkerDaemonClient<T>(forkOptions, workerDaemonProcess, workerProcess, buildOperationExecutor);
+        WorkerDaemonClient<T> client = new WorkerDaemonClient<T>(workerProtocolImplementationClass, getLogLevel(), forkOptions, classpathHash, workerDaemonProcess, workerProcess);
 
         LOG.info("Started Gradle worker daemon ({}) with fork options {}.", clock.getElapsed(), forkOptions);
 
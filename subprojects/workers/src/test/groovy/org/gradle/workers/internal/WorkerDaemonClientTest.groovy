@@ -16,26 +16,22 @@
 
 package org.gradle.workers.internal
 
-import org.gradle.internal.operations.BuildOperationContext
-import org.gradle.internal.operations.BuildOperationExecutor
-import org.gradle.internal.operations.CallableBuildOperation
+import com.google.common.hash.HashCode
+import org.gradle.api.logging.LogLevel
+import org.gradle.internal.classloader.ClasspathHasher
 import org.gradle.internal.progress.BuildOperationState
+import org.gradle.internal.work.WorkerLeaseRegistry.WorkerLease
+import org.gradle.internal.work.WorkerLeaseRegistry.WorkerLeaseCompletion
 import spock.lang.Specification
 
-import static org.gradle.internal.work.WorkerLeaseRegistry.WorkerLease
-import static org.gradle.internal.work.WorkerLeaseRegistry.WorkerLeaseCompletion
-
 class WorkerDaemonClientTest extends Specification {
-    BuildOperationExecutor buildOperationExecutor = Mock(BuildOperationExecutor)
-    BuildOperationState buildOperation = Mock(BuildOperationState)
-    WorkerLease workerOperation = Mock(WorkerLease)
-    WorkerLeaseCompletion completion = Mock(WorkerLeaseCompletion)
+    def options = Stub(DaemonForkOptions) {
+        isCompatibleWith(_) >> true
+    }
 
-    WorkerDaemonClient client
+    def classpathHash = HashCode.fromInt(123)
 
-    def setup() {
-        _ * workerOperation.startChild() >> completion
-    }
+    WorkerDaemonClient client
 
     def "underlying worker is executed when client is executed"() {
         def workerDaemonProcess = Mock(WorkerDaemonProcess)
@@ -44,64 +40,100 @@ class WorkerDaemonClientTest extends Specification {
         client = client(workerDaemonProcess)
 
         when:
-        client.execute(Stub(WorkSpec), workerOperation, buildOperation)
+        client.execute(Stub(WorkSpec))
 
         then:
-        1 * buildOperationExecutor.call(_ as CallableBuildOperation) >> { args -> args[0].call(Mock(BuildOperationContext)) }
-
-        and:
         1 * workerDaemonProcess.execute(_)
     }
 
-    def "use count is incremented when client is executed"() {
+    def "worker lease is held while the underlying worker is executed"() {
+        def workerDaemonProcess = Mock(WorkerDaemonProcess)
+        def workerLease = Mock(WorkerLease)
+        def completion = Mock(WorkerLeaseCompletion)
+
         given:
-        client = client()
-        assert client.uses == 0
+        client = client(workerDaemonProcess)
 
         when:
-        5.times { client.execute(Stub(WorkSpec), workerOperation, buildOperation) }
+        client.execute(Stub(WorkSpec), workerLease, Stub(BuildOperationState))
 
         then:
-        5 * buildOperationExecutor.call(_ as CallableBuildOperation) >> { args -> args[0].call(Mock(BuildOperationContext)) }
+        1 * workerLease.startChild() >> completion
 
         then:
-        client.uses == 5
-    }
+        1 * workerDaemonProcess.execute(_)
 
-    def "build operation is started and finished when client is executed"() {
-        def operation = Mock(WorkerLease)
-        def completion = Mock(WorkerLeaseCompletion)
+        then:
+        1 * completion.leaseFinish()
+    }
 
+    def "use count is incremented when client is executed"() {
         given:
         client = client()
+        assert client.uses == 0
 
         when:
-        client.execute(Stub(WorkSpec), operation, buildOperation)
+        5.times { client.execute(Stub(WorkSpec)) }
 
         then:
-        1 * operation.startChild() >> completion
-        1 * completion.leaseFinish()
+        client.uses == 5
     }
 
-    def "build worker operation is finished even if worker fails"() {
-        def operation = Mock(WorkerLease)
-        def completion = Mock(WorkerLeaseCompletion)
+    def "client is unhealthy when underlying worker fails"() {
         def workerDaemonProcess = Mock(WorkerDaemonProcess)
 
         given:
         client = client(workerDaemonProcess)
 
         when:
-        client.execute(Stub(WorkSpec), operation, buildOperation)
+        client.execute(Stub(WorkSpec))
 
         then:
-        1 * operation.startChild() >> completion
-        1 * buildOperationExecutor.call(_ as CallableBuildOperation) >> { args -> args[0].call(Mock(BuildOperationContext)) }
+        1 * workerDaemonProcess.execute(_) >> new DefaultWorkResult(true, new RuntimeException("failed work"))
+
+        and:
+        client.healthy
+
+        when:
+        client.execute(Stub(WorkSpec))
 
         then:
         thrown(RuntimeException)
         1 * workerDaemonProcess.execute(_) >> { throw new RuntimeException() }
-        1 * completion.leaseFinish()
+
+        and:
+        !client.healthy
+    }
+
+    def "is compatible with requests for the same worker implementation and log level"() {
+        given:
+        client = client()
+
+        expect:
+        client.isCompatibleWith(WorkerDaemonServer, LogLevel.LIFECYCLE, options)
+        !client.isCompatibleWith(WorkerServer, LogLevel.LIFECYCLE, options)
+        !client.isCompatibleWith(WorkerDaemonServer, LogLevel.DEBUG, options)
+    }
+
+    def "classpath is up-to-date while its content has the same hash"() {
+        def classpathHasher = Mock(ClasspathHasher)
+
+        given:
+        client = client()
+
+        when:
+        def upToDate = client.isClasspathUpToDate(classpathHasher)
+
+        then:
+        1 * classpathHasher.hash(_) >> classpathHash
+        upToDate
+
+        when:
+        upToDate = client.isClasspathUpToDate(classpathHasher)
+
+        then:
+        1 * classpathHasher.hash(_) >> HashCode.fromInt(456)
+        !upToDate
     }
 
     WorkerDaemonClient client() {
@@ -109,8 +141,7 @@ class WorkerDaemonClientTest extends Specification {
     }
 
     WorkerDaemonClient client(WorkerDaemonProcess workerDaemonProcess) {
-        def daemonForkOptions = Mock(DaemonForkOptions)
         def workerProcess = workerDaemonProcess.start()
-        return new WorkerDaemonClient(daemonForkOptions, workerDaemonProcess, workerProcess, buildOperationExecutor)
+        return new WorkerDaemonClient(WorkerDaemonServer, LogLevel.LIFECYCLE, options, classpathHash, workerDaemonProcess, workerProcess)
     }
 }
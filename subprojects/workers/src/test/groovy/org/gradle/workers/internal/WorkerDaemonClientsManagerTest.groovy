@@ -17,6 +17,9 @@
 package org.gradle.workers.internal
 
 import org.gradle.api.Transformer
+import org.gradle.api.logging.LogLevel
+import org.gradle.internal.classloader.ClasspathHasher
+import org.gradle.process.internal.health.memory.MemoryManager
 import org.gradle.util.ConcurrentSpecification
 import spock.lang.Subject
 
@@ -27,30 +30,33 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
     def options = Stub(DaemonForkOptions)
     def starter = Stub(WorkerDaemonStarter)
     def serverImpl = Stub(WorkerProtocol)
+    def logLevel = LogLevel.LIFECYCLE
+    def memoryManager = Mock(MemoryManager)
+    def classpathHasher = Stub(ClasspathHasher)
 
-    @Subject manager = new WorkerDaemonClientsManager(starter)
+    @Subject manager = new WorkerDaemonClientsManager(memoryManager)
 
     def "does not reserve idle client when no clients"() {
         expect:
-        manager.reserveIdleClient(options) == null
+        manager.reserveIdleClient(serverImpl.class, logLevel, options, classpathHasher) == null
     }
 
     def "does not reserve idle client when no matching client found"() {
         def noMatch = Stub(WorkerDaemonClient) {
-            isCompatibleWith(_) >> false
+            isCompatibleWith(_, _, _) >> false
         }
 
         expect:
-        manager.reserveIdleClient(options, [noMatch]) == null
+        manager.reserveIdleClient(serverImpl.class, logLevel, options, [noMatch]) == null
     }
 
     def "reserves idle client when match found"() {
-        def noMatch = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> false }
-        def match = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> true }
+        def noMatch = Stub(WorkerDaemonClient) { isCompatibleWith(_, _, _) >> false }
+        def match = Stub(WorkerDaemonClient) { isCompatibleWith(_, _, _) >> true }
         def input = [noMatch, match]
 
         expect:
-        manager.reserveIdleClient(options, input) == match
+        manager.reserveIdleClient(serverImpl.class, logLevel, options, input) == match
         input == [noMatch] //match removed from input
     }
 
@@ -59,7 +65,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         starter.startDaemon(serverImpl.class, workingDir, options) >> newClient
 
         when:
-        def client = manager.reserveNewClient(serverImpl.class, workingDir, options)
+        def client = manager.reserveNewClient(starter, serverImpl.class, workingDir, options)
 
         then:
         newClient == client
@@ -71,8 +77,8 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         starter.startDaemon(serverImpl.class, workingDir, options) >>> [client1, client2]
 
         when:
-        manager.reserveNewClient(serverImpl.class, workingDir, options)
-        manager.reserveNewClient(serverImpl.class, workingDir, options)
+        manager.reserveNewClient(starter, serverImpl.class, workingDir, options)
+        manager.reserveNewClient(starter, serverImpl.class, workingDir, options)
         manager.stop()
 
         then:
@@ -81,26 +87,63 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
     }
 
     def "clients can be released for further use"() {
-        def client = Mock(WorkerDaemonClient) { isCompatibleWith(_) >> true }
+        def client = Mock(WorkerDaemonClient) {
+            isCompatibleWith(_, _, _) >> true
+            isHealthy() >> true
+            isClasspathUpToDate(classpathHasher) >> true
+        }
         starter.startDaemon(serverImpl.class, workingDir, options) >> client
 
         when:
-        manager.reserveNewClient(serverImpl.class, workingDir, options)
+        manager.reserveNewClient(starter, serverImpl.class, workingDir, options)
 
         then:
-        manager.reserveIdleClient(options) == null
+        manager.reserveIdleClient(serverImpl.class, logLevel, options, classpathHasher) == null
 
         when:
         manager.release(client)
 
         then:
-        manager.reserveIdleClient(options) == client
+        manager.reserveIdleClient(serverImpl.class, logLevel, options, classpathHasher) == client
+    }
+
+    def "stops idle client instead of reusing it when the content of its classpath has changed"() {
+        def stale = Mock(WorkerDaemonClient) {
+            isCompatibleWith(_, _, _) >> true
+            isHealthy() >> true
+            isClasspathUpToDate(classpathHasher) >> false
+        }
+        def upToDate = Mock(WorkerDaemonClient) {
+            isCompatibleWith(_, _, _) >> true
+            isHealthy() >> true
+            isClasspathUpToDate(classpathHasher) >> true
+        }
+        starter.startDaemon(serverImpl.class, workingDir, options) >>> [stale, upToDate]
+
+        given:
+        2.times { manager.reserveNewClient(starter, serverImpl.class, workingDir, options) }
+        manager.release(stale)
+        manager.release(upToDate)
+
+        when:
+        def client = manager.reserveIdleClient(serverImpl.class, logLevel, options, classpathHasher)
+
+        then:
+        client == upToDate
+        1 * stale.stop()
+
+        when:
+        manager.stop()
+
+        then:
+        0 * stale.stop()
+        1 * upToDate.stop()
     }
 
     def "prefers to stop less frequently used idle clients when releasing memory"() {
-        def client1 = Mock(WorkerDaemonClient) { _ * getUses() >> 5 }
-        def client2 = Mock(WorkerDaemonClient) { _ * getUses() >> 1 }
-        def client3 = Mock(WorkerDaemonClient) { _ * getUses() >> 3 }
+        def client1 = Mock(WorkerDaemonClient) { _ * getUses() >> 5; _ * isHealthy() >> true }
+        def client2 = Mock(WorkerDaemonClient) { _ * getUses() >> 1; _ * isHealthy() >> true }
+        def client3 = Mock(WorkerDaemonClient) { _ * getUses() >> 3; _ * isHealthy() >> true }
         starter.startDaemon(serverImpl.class, workingDir, options) >>> [client1, client2, client3]
         def stopMostPreferredClient = new Transformer<List<WorkerDaemonClient>, List<WorkerDaemonClient>>() {
             @Override
@@ -110,7 +153,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         }
 
         when:
-        3.times { manager.reserveNewClient(serverImpl.class, workingDir, options) }
+        3.times { manager.reserveNewClient(starter, serverImpl.class, workingDir, options) }
         [client1, client2, client3].each { manager.release(it) }
         manager.selectIdleClientsToStop(stopMostPreferredClient)
 
@@ -128,9 +171,9 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
     }
 
     def "does not stop busy clients when releasing memory"() {
-        def client1 = Mock(WorkerDaemonClient) { _ * getUses() >> 5 }
-        def client2 = Mock(WorkerDaemonClient) { _ * getUses() >> 1 }
-        def client3 = Mock(WorkerDaemonClient) { _ * getUses() >> 3 }
+        def client1 = Mock(WorkerDaemonClient) { _ * getUses() >> 5; _ * isHealthy() >> true }
+        def client2 = Mock(WorkerDaemonClient) { _ * getUses() >> 1; _ * isHealthy() >> true }
+        def client3 = Mock(WorkerDaemonClient) { _ * getUses() >> 3; _ * isHealthy() >> true }
         starter.startDaemon(serverImpl.class, workingDir, options) >>> [client1, client2, client3]
         def stopAll = new Transformer<List<WorkerDaemonClient>, List<WorkerDaemonClient>>() {
             @Override
@@ -140,7 +183,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         }
 
         when:
-        3.times { manager.reserveNewClient(serverImpl.class, workingDir, options) }
+        3.times { manager.reserveNewClient(starter, serverImpl.class, workingDir, options) }
         manager.release(client3)
         manager.selectIdleClientsToStop(stopAll)
 
@@ -149,4 +192,46 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         0 * client2.stop()
         1 * client3.stop()
     }
+
+    def "stops unhealthy client instead of returning it to the pool"() {
+        def client = Mock(WorkerDaemonClient) {
+            isCompatibleWith(_, _, _) >> true
+            isHealthy() >> false
+        }
+        starter.startDaemon(serverImpl.class, workingDir, options) >> client
+
+        when:
+        manager.reserveNewClient(starter, serverImpl.class, workingDir, options)
+        manager.release(client)
+
+        then:
+        1 * client.stop()
+
+        and:
+        manager.reserveIdleClient(serverImpl.class, logLevel, options, classpathHasher) == null
+
+        when:
+        manager.stop()
+
+        then:
+        0 * client.stop()
+    }
+
+    def "registers and deregisters worker daemon expiration with the memory manager"() {
+        def memoryManager = Mock(MemoryManager)
+    def classpathHasher = Stub(ClasspathHasher)
+        WorkerDaemonExpiration workerDaemonExpiration
+
+        when:
+        def manager = new WorkerDaemonClientsManager(memoryManager)
+
+        then:
+        1 * memoryManager.addMemoryHolder(_) >> { args -> workerDaemonExpiration = args[0] }
+
+        when:
+        manager.stop()
+
+        then:
+        1 * memoryManager.removeMemoryHolder(_) >> { args -> assert args[0] == workerDaemonExpiration }
+    }
 }
@@ -16,10 +16,13 @@
 
 package org.gradle.workers.internal
 
+import org.gradle.api.logging.LogLevel
+import org.gradle.internal.classloader.ClasspathHasher
 import org.gradle.internal.jvm.Jvm
 import org.gradle.process.internal.health.memory.JvmMemoryStatus
 import org.gradle.process.internal.health.memory.MaximumHeapHelper
 import org.gradle.process.internal.health.memory.MemoryAmount
+import org.gradle.process.internal.health.memory.MemoryManager
 import spock.lang.Specification
 
 class WorkerDaemonExpirationTest extends Specification {
@@ -35,9 +38,11 @@ class WorkerDaemonExpirationTest extends Specification {
         startDaemon(_, _, _) >> { Class<? extends WorkerProtocol> impl, File workDir, DaemonForkOptions forkOptions ->
             Mock(WorkerDaemonClient) {
                 getForkOptions() >> forkOptions
-                isCompatibleWith(_) >> { DaemonForkOptions otherForkOptions ->
+                isCompatibleWith(_, _, _) >> { Class<?> otherImpl, LogLevel otherLogLevel, DaemonForkOptions otherForkOptions ->
                     forkOptions.isCompatibleWith(otherForkOptions)
                 }
+                isHealthy() >> true
+                isClasspathUpToDate(_) >> true
                 getJvmMemoryStatus() >> Mock(JvmMemoryStatus) {
                     getCommittedMemory() >> {
                         if (reportsMemoryUsage) {
@@ -50,7 +55,7 @@ class WorkerDaemonExpirationTest extends Specification {
             }
         }
     }
-    def clientsManager = new WorkerDaemonClientsManager(daemonStarter)
+    def clientsManager = new WorkerDaemonClientsManager(Stub(MemoryManager))
     def expiration = new WorkerDaemonExpiration(clientsManager, MemoryAmount.ofGigaBytes(OS_MEMORY_GB).bytes)
 
     def "expires least recently used idle worker daemon to free system memory when requested to release some memory"() {
@@ -187,10 +192,10 @@ class WorkerDaemonExpirationTest extends Specification {
     }
 
     private WorkerDaemonClient reserveNewClient(DaemonForkOptions forkOptions) {
-        return clientsManager.reserveNewClient(WorkerDaemonServer, workingDir, forkOptions)
+        return clientsManager.reserveNewClient(daemonStarter, WorkerDaemonServer, workingDir, forkOptions)
     }
 
     private WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions) {
-        return clientsManager.reserveIdleClient(forkOptions)
+        return clientsManager.reserveIdleClient(WorkerDaemonServer, LogLevel.LIFECYCLE, forkOptions, Stub(ClasspathHasher))
     }
 }
@@ -16,11 +16,14 @@
 
 package org.gradle.workers.internal
 
+import org.gradle.api.logging.LogLevel
+import org.gradle.internal.classloader.ClasspathHasher
+import org.gradle.internal.operations.BuildOperationContext
 import org.gradle.internal.operations.BuildOperationExecutor
+import org.gradle.internal.operations.CallableBuildOperation
 import org.gradle.internal.progress.BuildOperationState
 import org.gradle.internal.work.WorkerLeaseRegistry
 import org.gradle.internal.work.WorkerLeaseRegistry.WorkerLease
-import org.gradle.process.internal.health.memory.MemoryManager
 import org.gradle.process.internal.worker.child.WorkerDirectoryProvider
 import spock.lang.Specification
 import spock.lang.Subject
@@ -29,14 +32,15 @@ class WorkerDaemonFactoryTest extends Specification {
 
     def clientsManager = Mock(WorkerDaemonClientsManager)
     def client = Mock(WorkerDaemonClient)
-    def memoryManager = Mock(MemoryManager)
+    def starter = Mock(WorkerDaemonStarter)
     def buildOperationWorkerRegistry = Mock(WorkerLeaseRegistry)
     def buildOperationExecutor = Mock(BuildOperationExecutor)
     def workerOperation = Mock(WorkerLease)
     def buildOperation = Mock(BuildOperationState)
     def workerDirectoryProvider = Mock(WorkerDirectoryProvider)
+    def classpathHasher = Stub(ClasspathHasher)
 
-    @Subject factory = new WorkerDaemonFactory(clientsManager, memoryManager, buildOperationWorkerRegistry, buildOperationExecutor, workerDirectoryProvider)
+    @Subject factory = new WorkerDaemonFactory(clientsManager, starter, buildOperationWorkerRegistry, buildOperationExecutor, workerDirectoryProvider, classpathHasher)
 
     def workingDir = new File("some-dir")
     def options = Stub(DaemonForkOptions)
@@ -60,13 +64,15 @@ class WorkerDaemonFactoryTest extends Specification {
         1 * buildOperationExecutor.getCurrentOperation() >> buildOperation
 
         then:
-        1 * clientsManager.reserveIdleClient(options) >> null
+        1 * starter.logLevel >> LogLevel.LIFECYCLE
+        1 * clientsManager.reserveIdleClient(workerProtocolImplementation.class, LogLevel.LIFECYCLE, options, classpathHasher) >> null
 
         then:
         1 * workerDirectoryProvider.idleWorkingDirectory
-        1 * clientsManager.reserveNewClient(workerProtocolImplementation.class, _, options) >> client
+        1 * clientsManager.reserveNewClient(starter, workerProtocolImplementation.class, _, options) >> client
 
         then:
+        1 * buildOperationExecutor.call(_ as CallableBuildOperation) >> { args -> args[0].call(Stub(BuildOperationContext)) }
         1 * client.execute(spec, workerOperation, buildOperation)
 
         then:
@@ -83,9 +89,11 @@ class WorkerDaemonFactoryTest extends Specification {
         1 * buildOperationExecutor.getCurrentOperation() >> buildOperation
 
         then:
-        1 * clientsManager.reserveIdleClient(options) >> client
+        1 * starter.logLevel >> LogLevel.LIFECYCLE
+        1 * clientsManager.reserveIdleClient(workerProtocolImplementation.class, LogLevel.LIFECYCLE, options, classpathHasher) >> client
 
         then:
+        1 * buildOperationExecutor.call(_ as CallableBuildOperation) >> { args -> args[0].call(Stub(BuildOperationContext)) }
         1 * client.execute(spec, workerOperation, buildOperation)
 
         then:
@@ -102,9 +110,11 @@ class WorkerDaemonFactoryTest extends Specification {
         1 * buildOperationExecutor.getCurrentOperation() >> buildOperation
 
         then:
-        1 * clientsManager.reserveIdleClient(options) >> client
+        1 * starter.logLevel >> LogLevel.LIFECYCLE
+        1 * clientsManager.reserveIdleClient(workerProtocolImplementation.class, LogLevel.LIFECYCLE, options, classpathHasher) >> client
 
         then:
+        1 * buildOperationExecutor.call(_ as CallableBuildOperation) >> { args -> args[0].call(Stub(BuildOperationContext)) }
         1 * client.execute(spec, workerOperation, buildOperation) >> { throw new RuntimeException("Boo!") }
 
         then:
@@ -112,28 +122,4 @@ class WorkerDaemonFactoryTest extends Specification {
         1 * clientsManager.release(client)
         0 * _._
     }
-
-    def "registers/deregisters a worker daemon expiration with the memory manager"() {
-        WorkerDaemonExpiration workerDaemonExpiration
-
-        when:
-        def factory = new WorkerDaemonFactory(clientsManager, memoryManager, buildOperationWorkerRegistry, buildOperationExecutor, workerDirectoryProvider)
-
-        then:
-        1 * memoryManager.addMemoryHolder(_) >> { args -> workerDaemonExpiration = args[0] }
-
-        when:
-        factory.stop()
-
-        then:
-        1 * memoryManager.removeMemoryHolder(_) >> { args -> assert args[0] == workerDaemonExpiration }
-    }
-
-    def "stops clients"() {
-        when:
-        factory.stop()
-
-        then:
-        clientsManager.stop()
-    }
 }